@@ -0,0 +1,11 @@
+package com.revature.audit;
+
+// Stored as the ordinal byte: only append new constants, never reorder or remove
+public enum AuditAction {
+    USER_DELETED,
+    USER_BANNED,
+    USER_ROLE_CHANGED,
+    POST_DELETED_BY_ADMIN,
+    POST_DELETED,
+    COMMENT_DELETED
+}
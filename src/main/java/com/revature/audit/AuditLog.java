@@ -0,0 +1,200 @@
+package com.revature.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Audit trail of moderation and deletion actions. Callers only enqueue a record into a lock-free ring buffer
+// (after their transaction commits, which is when it is timestamped); one writer thread appends them to
+// memory-mapped segment files and forces them to disk every fsync interval, so a burst of moderation never waits
+// on the disk. The writer parks while the buffer is empty and is unparked by the next enqueue.
+@Slf4j
+@Component
+public class AuditLog implements SmartLifecycle {
+
+    private static final long FULL_BUFFER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int FULL_BUFFER_RETRIES = 100;
+    private static final long STOP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final AuditRingBuffer buffer;
+    private final Path directory;
+    private final int segmentSize;
+    private final long fsyncIntervalNanos;
+    private final AtomicLong dropped = new AtomicLong();
+    // Enqueues between their stopped check and their offer; stop() waits for them before the final drain
+    private final AtomicInteger enqueuing = new AtomicInteger();
+
+    private volatile boolean stopped;
+    private volatile boolean running;
+    private volatile boolean writerParked;
+    private AuditSegmentLog segmentLog;
+    private volatile Thread writer;
+
+    public AuditLog(@Value("${app.audit.directory:audit-log}") Path directory,
+                    @Value("${app.audit.buffer-capacity:65536}") int bufferCapacity,
+                    @Value("${app.audit.segment-size:67108864}") int segmentSize,
+                    @Value("${app.audit.fsync-interval:1s}") Duration fsyncInterval) {
+        this.buffer = new AuditRingBuffer(bufferCapacity);
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+    }
+
+    public void record(AuditAction action, long targetId, String detail) {
+        String actor = currentActor();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(new AuditRecord(Instant.now(), action, actor, targetId, detail));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(new AuditRecord(Instant.now(), action, actor, targetId, detail));
+            }
+        });
+    }
+
+    public List<AuditRecord> query(Instant from, Instant to, int limit) {
+        try {
+            return segmentLog.scan(from, to, limit);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the audit log in " + directory, e);
+        }
+    }
+
+    public long droppedRecords() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        try {
+            segmentLog = new AuditSegmentLog(directory, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the audit log in " + directory, e);
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "audit-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        stopped = false;
+    }
+
+    // Records arriving from here on are dropped and counted; the ones already enqueued are written first
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        stopped = true;
+        while (enqueuing.get() > 0) {
+            Thread.yield();
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Closing would unmap the segment under a writer still appending to it
+        if (writer.isAlive()) {
+            log.error("Audit log writer did not finish within {} ms, leaving {} open", STOP_TIMEOUT_MILLIS, directory);
+            return;
+        }
+        try {
+            segmentLog.close();
+        } catch (IOException e) {
+            log.error("Could not close the audit log in {}", directory, e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server has finished its graceful shutdown, so in-flight requests can still record
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void enqueue(AuditRecord record) {
+        enqueuing.incrementAndGet();
+        try {
+            if (stopped) {
+                dropped.incrementAndGet();
+                log.error("Audit log is stopped, dropping {}", record);
+                return;
+            }
+            // A full buffer means the disk is behind; wait briefly rather than block the request indefinitely
+            for (int attempt = 0; attempt < FULL_BUFFER_RETRIES; attempt++) {
+                if (buffer.offer(record)) {
+                    // Read after the offer, as the writer sets it before its last emptiness check
+                    if (writerParked) {
+                        LockSupport.unpark(writer);
+                    }
+                    return;
+                }
+                LockSupport.parkNanos(FULL_BUFFER_PARK_NANOS);
+            }
+            dropped.incrementAndGet();
+            log.error("Audit buffer full, dropping {}", record);
+        } finally {
+            enqueuing.decrementAndGet();
+        }
+    }
+
+    private void drainLoop() {
+        long lastFsync = System.nanoTime();
+        while (running || !buffer.isEmpty()) {
+            AuditRecord record = buffer.poll();
+            if (record != null) {
+                try {
+                    segmentLog.append(record);
+                } catch (IOException | RuntimeException e) {
+                    log.error("Could not append {} to the audit log", record, e);
+                }
+            } else if (buffer.isEmpty()) {
+                writerParked = true;
+                if (running && buffer.isEmpty()) {
+                    LockSupport.parkNanos(this, Math.max(1, fsyncIntervalNanos - (System.nanoTime() - lastFsync)));
+                }
+                writerParked = false;
+            } else {
+                // Claimed but not yet published; the producer is between its CAS and its write
+                Thread.yield();
+            }
+            if (System.nanoTime() - lastFsync >= fsyncIntervalNanos) {
+                segmentLog.force();
+                lastFsync = System.nanoTime();
+            }
+        }
+        segmentLog.force();
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "system";
+    }
+}
@@ -0,0 +1,56 @@
+package com.revature.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+// Binary layout: timestamp millis (8), action ordinal (1), target id (8), then actor and detail as
+// length-prefixed UTF-8 (1 + up to 255 bytes each)
+public record AuditRecord(Instant at, AuditAction action, String actor, long targetId, String detail) {
+
+    private static final int MAX_TEXT_BYTES = 255;
+    private static final int FIXED_BYTES = 8 + 1 + 8 + 1 + 1;
+
+    public static final int MAX_ENCODED_BYTES = FIXED_BYTES + 2 * MAX_TEXT_BYTES;
+
+    public void encode(ByteBuffer out) {
+        out.putLong(at.toEpochMilli());
+        out.put((byte) action.ordinal());
+        out.putLong(targetId);
+        putText(out, actor);
+        putText(out, detail);
+    }
+
+    public static AuditRecord decode(ByteBuffer in) {
+        Instant at = Instant.ofEpochMilli(in.getLong());
+        AuditAction action = AuditAction.values()[in.get()];
+        long targetId = in.getLong();
+        return new AuditRecord(at, action, getText(in), targetId, getText(in));
+    }
+
+    // Peeks at the timestamp without decoding the rest
+    static long timestampOf(ByteBuffer in, int offset) {
+        return in.getLong(offset);
+    }
+
+    private static void putText(ByteBuffer out, String text) {
+        byte[] utf8 = text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > MAX_TEXT_BYTES) {
+            // Cut before the lead byte of a character that would not fit whole
+            int length = MAX_TEXT_BYTES;
+            while (length > 0 && (utf8[length] & 0xC0) == 0x80) {
+                length--;
+            }
+            utf8 = Arrays.copyOf(utf8, length);
+        }
+        out.put((byte) utf8.length);
+        out.put(utf8);
+    }
+
+    private static String getText(ByteBuffer in) {
+        byte[] utf8 = new byte[Byte.toUnsignedInt(in.get())];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package com.revature.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Bounded multi-producer, single-consumer ring. Producers claim a sequence with one CAS and publish by
+// writing the slot; the single writer thread polls slots in sequence order and clears them. No locks.
+final class AuditRingBuffer {
+
+    private final AtomicReferenceArray<AuditRecord> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only written by the consumer
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    // False when full
+    boolean offer(AuditRecord record) {
+        while (true) {
+            long sequence = tail.get();
+            if (sequence - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(sequence, sequence + 1)) {
+                slots.set((int) (sequence & mask), record);
+                return true;
+            }
+        }
+    }
+
+    // Consumer only. Null when empty, or when the next claimed slot is not yet published
+    AuditRecord poll() {
+        long sequence = head;
+        int index = (int) (sequence & mask);
+        AuditRecord record = slots.get(index);
+        if (record != null) {
+            slots.set(index, null);
+            head = sequence + 1;
+        }
+        return record;
+    }
+
+    boolean isEmpty() {
+        return head == tail.get();
+    }
+}
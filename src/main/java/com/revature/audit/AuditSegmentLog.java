@@ -0,0 +1,216 @@
+package com.revature.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only log of fixed-size, preallocated, memory-mapped segment files named by their first record's
+// timestamp. Each frame is [length][crc32][record]; the length is written last, so a reader (or recovery after
+// a crash) stops at the first zero length or bad checksum. Only the writer thread appends. Timestamps never go
+// backwards in the log: a record stamped before the last one appended, e.g. by a producer that lost the race to
+// the buffer, takes the last one's timestamp.
+final class AuditSegmentLog implements AutoCloseable {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".seg";
+    private static final int FRAME_HEADER = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final ByteBuffer scratch = ByteBuffer.allocate(AuditRecord.MAX_ENCODED_BYTES);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private boolean dirty;
+    private long lastAt;
+
+    AuditSegmentLog(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        this.lockChannel = FileChannel.open(directory.resolve("writer.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.lock = tryLock(lockChannel);
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Audit log directory " + directory + " is used by another writer");
+        }
+        List<Path> segments = segments();
+        if (!segments.isEmpty()) {
+            Path last = segments.get(segments.size() - 1);
+            open(last);
+            lastAt = startOf(last);
+            // Appends continue after the last intact frame, overwriting a torn one
+            CRC32 checksum = new CRC32();
+            int position = 0;
+            int length;
+            while ((length = frameLength(segment, position, checksum)) >= 0) {
+                lastAt = Math.max(lastAt, AuditRecord.timestampOf(segment, position + FRAME_HEADER));
+                position += FRAME_HEADER + length;
+            }
+            segment.position(position);
+        }
+    }
+
+    // Null when held by another process, or by another log in this JVM
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    void append(AuditRecord record) throws IOException {
+        encode(record);
+        int length = scratch.remaining();
+        long at = Math.max(record.at().toEpochMilli(), lastAt);
+        if (segment == null || segment.remaining() < FRAME_HEADER + length) {
+            at = roll(at);
+        }
+        if (at != record.at().toEpochMilli()) {
+            encode(new AuditRecord(Instant.ofEpochMilli(at), record.action(), record.actor(), record.targetId(),
+                    record.detail()));
+        }
+        lastAt = at;
+        crc.reset();
+        crc.update(scratch.duplicate());
+
+        int position = segment.position();
+        segment.putInt(position + 4, (int) crc.getValue());
+        segment.put(position + FRAME_HEADER, scratch, 0, length);
+        segment.putInt(position, length);
+        segment.position(position + FRAME_HEADER + length);
+        dirty = true;
+    }
+
+    void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    // Records with from <= at <= to, oldest first. Segments are skipped by name: as timestamps never go backwards,
+    // a segment only holds records from its own name up to the next segment's.
+    List<AuditRecord> scan(Instant from, Instant to, int limit) throws IOException {
+        List<Path> segments = segments();
+        List<AuditRecord> result = new ArrayList<>();
+        for (int i = 0; i < segments.size() && result.size() < limit; i++) {
+            if (startOf(segments.get(i)) > to.toEpochMilli()) {
+                break;
+            }
+            if (i + 1 < segments.size() && startOf(segments.get(i + 1)) < from.toEpochMilli()) {
+                continue;
+            }
+            scanSegment(segments.get(i), from.toEpochMilli(), to.toEpochMilli(), limit, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    private void scanSegment(Path path, long from, long to, int limit, List<AuditRecord> result) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer frames = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            CRC32 checksum = new CRC32();
+            int position = 0;
+            while (result.size() < limit) {
+                int length = frameLength(frames, position, checksum);
+                if (length < 0) {
+                    return;
+                }
+                int recordStart = position + FRAME_HEADER;
+                long at = AuditRecord.timestampOf(frames, recordStart);
+                if (at >= from && at <= to) {
+                    result.add(AuditRecord.decode(frames.slice(recordStart, length)));
+                }
+                position = recordStart + length;
+            }
+        }
+    }
+
+    // Returns the new segment's start, which its first record takes as its timestamp
+    private long roll(long firstRecordAt) throws IOException {
+        if (segment != null) {
+            segment.force();
+            channel.close();
+        }
+        long start = firstRecordAt;
+        Path path = directory.resolve(name(start));
+        // Two segments started within the same millisecond
+        while (Files.exists(path)) {
+            path = directory.resolve(name(++start));
+        }
+        open(path);
+        return start;
+    }
+
+    private void encode(AuditRecord record) {
+        scratch.clear();
+        record.encode(scratch);
+        scratch.flip();
+    }
+
+    private void open(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, channel.size()));
+        dirty = false;
+    }
+
+    // Length of the complete, intact frame at position, or -1 at the end of the written data
+    private static int frameLength(ByteBuffer frames, int position, CRC32 checksum) {
+        if (position + FRAME_HEADER > frames.limit()) {
+            return -1;
+        }
+        int length = frames.getInt(position);
+        if (length <= 0 || length > AuditRecord.MAX_ENCODED_BYTES || position + FRAME_HEADER + length > frames.limit()) {
+            return -1;
+        }
+        checksum.reset();
+        checksum.update(frames.slice(position + FRAME_HEADER, length));
+        return (int) checksum.getValue() == frames.getInt(position + 4) ? length : -1;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String name(long startMillis) {
+        return PREFIX + String.format("%015d", startMillis) + SUFFIX;
+    }
+
+    private static long startOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
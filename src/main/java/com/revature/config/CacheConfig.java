@@ -0,0 +1,27 @@
+package com.revature.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.cache.CacheManager;
+import java.io.IOException;
+
+@Configuration
+public class CacheConfig {
+
+    // Owned by this context rather than the JVM-wide JCache registry, so it is closed with the context
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() throws IOException {
+        return new CaffeineCachingProvider().getCacheManager(
+                new ClassPathResource("hibernate-cache.conf").getURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
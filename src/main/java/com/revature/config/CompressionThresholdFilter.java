@@ -0,0 +1,196 @@
+package com.revature.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.List;
+
+// Tomcat skips compressing bodies under server.compression.min-response-size only when it knows their length, and
+// the message converters stream bodies without one, so every JSON, CBOR or Smile body would be gzipped, even a
+// 40 byte error that gzip makes larger. For clients that accept gzip, compressible bodies are held back up to the
+// threshold: a body that ends before it goes out with its Content-Length, uncompressed; a longer one streams on.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final int threshold;
+    private final List<MimeType> mimeTypes;
+
+    public CompressionThresholdFilter(Environment environment) {
+        Compression compression = Binder.get(environment).bind("server.compression", Compression.class)
+                .orElseGet(Compression::new);
+        this.enabled = compression.getEnabled();
+        this.threshold = (int) compression.getMinResponseSize().toBytes();
+        this.mimeTypes = Arrays.stream(compression.getMimeTypes()).map(MimeTypeUtils::parseMimeType).toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return !enabled || acceptEncoding == null || !acceptEncoding.contains("gzip");
+    }
+
+    // An async response is written on its async dispatch, so that is where a held back body is released
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ThresholdResponse wrapper = WebUtils.getNativeResponse(response, ThresholdResponse.class);
+        HttpServletResponse target = response;
+        if (wrapper == null) {
+            wrapper = new ThresholdResponse(response);
+            target = wrapper;
+        }
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                wrapper.release(true);
+            }
+        }
+    }
+
+    private final class ThresholdResponse extends HttpServletResponseWrapper {
+
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private ByteArrayOutputStream held;
+        private boolean started;
+
+        ThresholdResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream target = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        write(new byte[] {(byte) b}, 0, 1);
+                    }
+
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) throws IOException {
+                        if (!started) {
+                            started = true;
+                            if (compressible()) {
+                                held = new ByteArrayOutputStream(Math.min(threshold, 8192));
+                            }
+                        }
+                        if (held != null && held.size() + length < threshold) {
+                            held.write(bytes, offset, length);
+                            return;
+                        }
+                        release(false);
+                        target.write(bytes, offset, length);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (held == null) {
+                            target.flush();
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        target.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        // Text bodies, such as the rendered pages and error views, are encoded into the same held back stream
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        // Converters flush once they have written the body; a held back body stays held until the response ends
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (held == null) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            held = null;
+            started = false;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            held = null;
+            started = false;
+        }
+
+        // At the end of the response the body's length is known, which keeps Tomcat from compressing it
+        void release(boolean complete) throws IOException {
+            if (complete && writer != null) {
+                writer.flush();
+            }
+            if (held == null) {
+                return;
+            }
+            ByteArrayOutputStream body = held;
+            held = null;
+            if (complete && !isCommitted()) {
+                setContentLength(body.size());
+            }
+            body.writeTo(super.getOutputStream());
+        }
+
+        private boolean compressible() {
+            String contentType = getContentType();
+            if (contentType == null || containsHeader(HttpHeaders.CONTENT_LENGTH)) {
+                return false;
+            }
+            MimeType type = MimeTypeUtils.parseMimeType(contentType);
+            return mimeTypes.stream().anyMatch(mimeType -> mimeType.isCompatibleWith(type));
+        }
+    }
+}
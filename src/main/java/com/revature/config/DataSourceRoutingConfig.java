@@ -0,0 +1,57 @@
+package com.revature.config;
+
+import com.revature.datasource.ReadYourWritesTracker;
+import com.revature.datasource.ReplicaRoutingDataSource;
+import com.revature.datasource.RoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(RoutingProperties.class)
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             RoutingProperties properties,
+                                                             ReadYourWritesTracker readYourWritesTracker) {
+        List<HikariDataSource> replicas = properties.getReplicas().stream().map(replica -> {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            dataSource.setPoolName("replica-" + replica.getUrl());
+            return dataSource;
+        }).toList();
+
+        ReplicaRoutingDataSource routingDataSource =
+                new ReplicaRoutingDataSource(primaryDataSource, replicas, properties, readYourWritesTracker);
+        routingDataSource.checkReplicaLag();
+        return routingDataSource;
+    }
+
+    // Lazy connections defer routing until the first statement, when the read-only flag is already bound
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,23 @@
+package com.revature.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// With spring.main.lazy-initialization (the fast-start profile) beans are created on first use. Beans that do
+// background work must still start with the context: @Scheduled methods are only registered once their bean
+// exists, and lifecycle beans would never be started.
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> SmartLifecycle.class.isAssignableFrom(beanType)
+                || !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+package com.revature.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+// Non-blocking connections for the reactive read endpoints (/api/reactive/**). Boot's R2DBC auto-configuration is
+// deliberately not on the classpath: it would compete with JPA for the transaction manager. The pool connects to
+// app.reactive.url, or by default to the database of spring.datasource.url.
+@Configuration
+public class ReactiveDatabaseConfig {
+
+    // Not a default candidate: Boot's DataSource auto-configuration backs off when it sees a ConnectionFactory bean
+    @Bean(destroyMethod = "dispose", defaultCandidate = false)
+    public ConnectionPool reactiveConnectionPool(DataSourceProperties dataSourceProperties,
+                                                 @Value("${app.reactive.url:}") String url,
+                                                 @Value("${app.reactive.pool.max-size:10}") int maxSize,
+                                                 @Value("${app.reactive.pool.max-idle-time:10m}") Duration maxIdleTime,
+                                                 @Value("${app.reactive.pool.max-acquire-time:5s}") Duration maxAcquireTime) {
+        String r2dbcUrl = StringUtils.hasText(url) ? url : toR2dbcUrl(dataSourceProperties.determineUrl());
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(r2dbcUrl).mutate();
+        if (dataSourceProperties.determineUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword());
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("reactive")
+                .initialSize(0)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(@Qualifier("reactiveConnectionPool") ConnectionPool reactiveConnectionPool) {
+        return DatabaseClient.create(reactiveConnectionPool);
+    }
+
+    // jdbc:postgresql://host:port/db?jdbcOnlyOptions -> r2dbc:postgresql://host:port/db
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith("jdbc:postgresql:")) {
+            throw new IllegalStateException("Set app.reactive.url; cannot derive it from " + jdbcUrl);
+        }
+        String url = "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+}
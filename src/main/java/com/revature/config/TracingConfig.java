@@ -0,0 +1,37 @@
+package com.revature.config;
+
+import com.revature.tracing.StatementCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class TracingConfig {
+
+    // Wraps the "dataSource" bean (Hikari, or the lazy proxy over the routing DataSource when routing is on), so it
+    // sees Hibernate's and JdbcTemplate's statements alike. Ordered first, so VirtualThreadConfig's concurrency limit
+    // wraps this rather than the other way round.
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new StatementCountingPostProcessor();
+    }
+
+    private static final class StatementCountingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+                return bean;
+            }
+            return new StatementCountingDataSource(dataSource);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
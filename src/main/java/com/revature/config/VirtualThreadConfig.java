@@ -0,0 +1,54 @@
+package com.revature.config;
+
+import com.revature.datasource.ConcurrencyLimitingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Execution mode switch: spring.threads.virtual.enabled=true (on Java 21+) runs every request on its own virtual
+// thread instead of Tomcat's bounded pool. Nothing then caps how many handlers reach for a connection at once, so
+// the application DataSource is wrapped to admit no more callers than the pool holds.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    // Outermost wrapper, applied after TracingConfig's statement counter
+    @Bean
+    static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new ConcurrencyLimitingPostProcessor(environment);
+    }
+
+    private static final class ConcurrencyLimitingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private ConcurrencyLimitingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+                return bean;
+            }
+            int maxConcurrency = environment.getProperty("app.threads.virtual.max-database-concurrency",
+                    Integer.class, environment.getProperty("spring.datasource.hikari.maximum-pool-size",
+                            Integer.class, 10));
+            Duration acquireTimeout = environment.getProperty("app.threads.virtual.database-acquire-timeout",
+                    Duration.class, Duration.ofSeconds(30));
+            return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, acquireTimeout);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.revature.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.DeserializationConfig;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.MapperFeature;
+import tools.jackson.databind.SerializationConfig;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.databind.cfg.EnumFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+// Binary encodings of every response body for clients that ask for them with Accept: application/cbor or
+// application/x-jackson-smile. They carry the same structure and annotations as the JSON, which stays the default
+// for clients that accept anything. Request bodies may be sent in either format too.
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final CBORMapper cborMapper;
+    private final SmileMapper smileMapper;
+
+    public WebMvcConfig(CBORMapper cborMapper, JsonMapper jsonMapper) {
+        this.cborMapper = cborMapper;
+        this.smileMapper = smileMapper(jsonMapper);
+    }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        builder.withCborConverter(new JacksonCborHttpMessageConverter(cborMapper))
+                .withSmileConverter(new JacksonSmileHttpMessageConverter(smileMapper));
+    }
+
+    // Boot only configures JSON and CBOR mappers, so Smile takes the modules, features and defaults of the JSON one
+    // and spring.jackson.* applies to all three
+    public static SmileMapper smileMapper(JsonMapper jsonMapper) {
+        SerializationConfig serialization = jsonMapper.serializationConfig();
+        DeserializationConfig deserialization = jsonMapper.deserializationConfig();
+        SmileMapper.Builder builder = SmileMapper.builder().addModules(jsonMapper.registeredModules());
+        for (MapperFeature feature : MapperFeature.values()) {
+            builder.configure(feature, serialization.isEnabled(feature));
+        }
+        for (SerializationFeature feature : SerializationFeature.values()) {
+            builder.configure(feature, serialization.isEnabled(feature));
+        }
+        for (DeserializationFeature feature : DeserializationFeature.values()) {
+            builder.configure(feature, deserialization.isEnabled(feature));
+        }
+        for (DateTimeFeature feature : DateTimeFeature.values()) {
+            builder.configure(feature, serialization.isEnabled(feature));
+        }
+        for (EnumFeature feature : EnumFeature.values()) {
+            builder.configure(feature, serialization.isEnabled(feature));
+        }
+        return builder.changeDefaultPropertyInclusion(inclusion -> serialization.getDefaultPropertyInclusion())
+                .defaultDateFormat(serialization.getDateFormat())
+                .defaultTimeZone(serialization.getTimeZone())
+                .defaultLocale(serialization.getLocale())
+                .build();
+    }
+}
@@ -1,13 +1,20 @@
 package com.revature.controller;
 
+import com.revature.audit.AuditLog;
+import com.revature.audit.AuditRecord;
+import com.revature.dto.AdminStatsResponse;
 import com.revature.dto.ApiResponse;
 import com.revature.entity.User;
 import com.revature.service.AdminService;
+import com.revature.service.AdminStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +24,12 @@ import java.util.Map;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
 
+    private static final int MAX_AUDIT_RECORDS = 10_000;
+    private static final int MAX_STATS_DAYS = 366;
+
     private final AdminService adminService;
+    private final AuditLog auditLog;
+    private final AdminStatsService adminStatsService;
 
     @GetMapping("/users")
     public ResponseEntity<ApiResponse<List<User>>> getAllUsers() {
@@ -43,6 +55,30 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("Post deleted successfully", null));
     }
 
+    @GetMapping("/cache/users")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getUserCacheStatistics() {
+        return ResponseEntity.ok(ApiResponse.success(adminService.getUserCacheStatistics()));
+    }
+
+    // Totals and per-day changes of users, banned users, posts and comments, answered from memory
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<AdminStatsResponse>> getStats(@RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(ApiResponse.success(
+                adminStatsService.getStats(Math.max(1, Math.min(days, MAX_STATS_DAYS)))));
+    }
+
+    // Oldest first; defaults to the last 24 hours
+    @GetMapping("/audit")
+    public ResponseEntity<ApiResponse<List<AuditRecord>>> getAuditLog(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "1000") int limit) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        List<AuditRecord> records = auditLog.query(start, end, Math.max(1, Math.min(limit, MAX_AUDIT_RECORDS)));
+        return ResponseEntity.ok(ApiResponse.success(records));
+    }
+
     @PutMapping("/users/{id}/role")
     public ResponseEntity<ApiResponse<User>> changeUserRole(
             @PathVariable Long id,
@@ -0,0 +1,48 @@
+package com.revature.controller;
+
+import com.revature.dto.ApiResponse;
+import com.revature.dto.AuthorProfileResponse;
+import com.revature.service.AuthorService;
+import com.revature.service.FollowService;
+import com.revature.service.PostViewCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/authors")
+@RequiredArgsConstructor
+public class AuthorController {
+
+    private final AuthorService authorService;
+    private final PostViewCounter postViewCounter;
+    private final FollowService followService;
+
+    @GetMapping("/{username}")
+    public ResponseEntity<ApiResponse<AuthorProfileResponse>> getProfile(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        AuthorProfileResponse profile = authorService.getProfile(username, page, size);
+        profile.getPosts().forEach(postViewCounter::withPendingViews);
+        return ResponseEntity.ok(ApiResponse.success(profile));
+    }
+
+    @PostMapping("/{username}/follow")
+    public ResponseEntity<ApiResponse<Void>> follow(
+            @PathVariable String username,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        followService.follow(userDetails.getUsername(), username);
+        return ResponseEntity.ok(ApiResponse.success("Now following " + username, null));
+    }
+
+    @DeleteMapping("/{username}/follow")
+    public ResponseEntity<ApiResponse<Void>> unfollow(
+            @PathVariable String username,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        followService.unfollow(userDetails.getUsername(), username);
+        return ResponseEntity.ok(ApiResponse.success("Unfollowed " + username, null));
+    }
+}
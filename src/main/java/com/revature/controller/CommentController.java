@@ -3,13 +3,24 @@ package com.revature.controller;
 import com.revature.dto.ApiResponse;
 import com.revature.dto.CommentRequest;
 import com.revature.dto.CommentResponse;
+import com.revature.dto.CommentThreadPage;
+import com.revature.service.CommentIngestionService;
 import com.revature.service.CommentService;
+import com.revature.service.CommentStreamService;
+import com.revature.service.IdempotencyService;
+import com.revature.service.RenderedHtmlService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.util.HtmlUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -17,15 +28,26 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CommentController {
 
+    private static final int MAX_THREAD_PAGE_SIZE = 500;
+
     private final CommentService commentService;
+    private final CommentIngestionService commentIngestionService;
+    private final CommentStreamService commentStreamService;
+    private final RenderedHtmlService renderedHtmlService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/posts/{postId}/comments")
     public ResponseEntity<ApiResponse<CommentResponse>> addComment(
             @PathVariable Long postId,
-            @Valid @RequestBody CommentRequest request) {
-        CommentResponse comment = commentService.addComment(postId, request);
+            @Valid @RequestBody CommentRequest request,
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(name = PostController.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        IdempotencyService.Outcome<CommentResponse> outcome = idempotencyService.execute(idempotencyKey,
+                userDetails.getUsername(), "add-comment:" + postId, request,
+                () -> commentIngestionService.addComment(postId, request));
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new ApiResponse<>(true, "Comment added successfully", comment));
+                .headers(headers -> PostController.replayedHeader(headers, outcome))
+                .body(new ApiResponse<>(true, "Comment added successfully", outcome.result()));
     }
 
     @GetMapping("/posts/{postId}/comments")
@@ -35,6 +57,49 @@ public class CommentController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Comments retrieved successfully", comments));
     }
 
+    @GetMapping(path = "/posts/{postId}/comments", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<String> getCommentsByPostHtml(@PathVariable Long postId) {
+        StringBuilder html = new StringBuilder();
+        for (CommentResponse comment : commentService.getCommentsByPostId(postId)) {
+            html.append("<article class=\"comment\" id=\"comment-").append(comment.getId())
+                    .append("\" data-author=\"").append(HtmlUtils.htmlEscape(comment.getAuthor().getUsername()))
+                    .append("\">\n")
+                    .append(renderedHtmlService.render(comment.getContent()))
+                    .append("</article>\n");
+        }
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(html.toString());
+    }
+
+    // Threads in depth-first order, each comment with its depth and reply count
+    @GetMapping("/posts/{postId}/comments/thread")
+    public ResponseEntity<ApiResponse<CommentThreadPage>> getThread(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        CommentThreadPage page = commentService.getThread(postId, after,
+                Math.max(1, Math.min(limit, MAX_THREAD_PAGE_SIZE)));
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/comments/{id}/replies")
+    public ResponseEntity<ApiResponse<CommentThreadPage>> getReplies(
+            @PathVariable Long id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        CommentThreadPage page = commentService.getReplies(id, after,
+                Math.max(1, Math.min(limit, MAX_THREAD_PAGE_SIZE)));
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping(path = "/posts/{postId}/comments/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComments(
+            @PathVariable Long postId,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return commentStreamService.subscribe(postId, lastEventId);
+    }
+
     @PutMapping("/comments/{id}")
     public ResponseEntity<ApiResponse<CommentResponse>> updateComment(
             @PathVariable Long id,
@@ -1,16 +1,30 @@
 package com.revature.controller;
 
 import com.revature.dto.ApiResponse;
+import com.revature.dto.DraftPatchRequest;
+import com.revature.dto.DraftVersionResponse;
 import com.revature.dto.PostRequest;
+import com.revature.dto.TrendingPostResponse;
 import com.revature.entity.Post;
+import com.revature.service.IdempotencyService;
 import com.revature.service.PostService;
+import com.revature.service.PostViewCounter;
+import com.revature.service.RenderedHtmlService;
+import com.revature.service.TrendingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -18,26 +32,59 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PostController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final PostService postService;
+    private final TrendingService trendingService;
+    private final PostViewCounter postViewCounter;
+    private final RenderedHtmlService renderedHtmlService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<ApiResponse<List<Post>>> getAllPublishedPosts() {
         List<Post> posts = postService.getAllPublishedPosts();
+        posts.forEach(postViewCounter::withPendingViews);
         return ResponseEntity.ok(ApiResponse.success(posts));
     }
 
+    @GetMapping("/trending")
+    public ResponseEntity<ApiResponse<List<TrendingPostResponse>>> getTrendingPosts() {
+        return ResponseEntity.ok(ApiResponse.success(trendingService.getTrendingPosts()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<Post>> getPostById(@PathVariable Long id) {
         Post post = postService.getPostById(id);
-        return ResponseEntity.ok(ApiResponse.success(post));
+        postViewCounter.recordView(id);
+        return ResponseEntity.ok(ApiResponse.success(postViewCounter.withPendingViews(post)));
+    }
+
+    @GetMapping(path = "/{id}", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<StreamingResponseBody> getPostHtml(@PathVariable Long id) {
+        RenderedHtmlService.HtmlBody html = renderedHtmlService.postHtml(id);
+        postViewCounter.recordView(id);
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            html.writeTo(writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(body);
     }
 
     @PostMapping
     public ResponseEntity<ApiResponse<Post>> createPost(
             @Valid @RequestBody PostRequest request,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        Post post = postService.createPost(request, userDetails.getUsername());
-        return ResponseEntity.ok(ApiResponse.success("Post created successfully", post));
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        IdempotencyService.Outcome<Post> outcome = idempotencyService.execute(idempotencyKey,
+                userDetails.getUsername(), "create-post", request,
+                () -> postService.createPost(request, userDetails.getUsername()));
+        return ResponseEntity.ok()
+                .headers(headers -> replayedHeader(headers, outcome))
+                .body(ApiResponse.success("Post created successfully", outcome.result()));
     }
 
     @PutMapping("/{id}")
@@ -49,6 +96,15 @@ public class PostController {
         return ResponseEntity.ok(ApiResponse.success("Post updated successfully", post));
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<DraftVersionResponse>> patchDraft(
+            @PathVariable Long id,
+            @Valid @RequestBody DraftPatchRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        DraftVersionResponse draft = postService.patchDraft(id, request, userDetails.getUsername());
+        return ResponseEntity.ok(ApiResponse.success("Draft saved", draft));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deletePost(
             @PathVariable Long id,
@@ -64,4 +120,10 @@ public class PostController {
         Post post = postService.publishPost(id, userDetails.getUsername());
         return ResponseEntity.ok(ApiResponse.success("Post published successfully", post));
     }
+
+    static void replayedHeader(HttpHeaders headers, IdempotencyService.Outcome<?> outcome) {
+        if (outcome.replayed()) {
+            headers.set(IDEMPOTENT_REPLAYED, "true");
+        }
+    }
 }
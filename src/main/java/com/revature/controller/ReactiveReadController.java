@@ -0,0 +1,63 @@
+package com.revature.controller;
+
+import com.revature.dto.ApiResponse;
+import com.revature.dto.CommentResponse;
+import com.revature.entity.Post;
+import com.revature.service.PostViewCounter;
+import com.revature.service.ReactiveReadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Same reads as PostController and CommentController, served asynchronously: the request thread is released
+// once the query is sent, and no JDBC connection is involved. Feeds can also be streamed as NDJSON
+// (Accept: application/x-ndjson), one object per line as rows arrive.
+@RestController
+@RequestMapping("/api/reactive")
+@RequiredArgsConstructor
+public class ReactiveReadController {
+
+    private final ReactiveReadService reactiveReadService;
+    private final PostViewCounter postViewCounter;
+
+    @GetMapping("/posts")
+    public Mono<ResponseEntity<ApiResponse<List<Post>>>> getAllPublishedPosts() {
+        return reactiveReadService.getAllPublishedPosts().collectList()
+                .map(posts -> ResponseEntity.ok(ApiResponse.success(posts)));
+    }
+
+    @GetMapping(path = "/posts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Post> streamPublishedPosts() {
+        return reactiveReadService.getAllPublishedPosts();
+    }
+
+    @GetMapping("/posts/{id}")
+    public Mono<ResponseEntity<ApiResponse<Post>>> getPostById(@PathVariable Long id) {
+        // Only a post that was found is viewed; recording never touches the database, so it can run on the
+        // driver's thread
+        return reactiveReadService.getPostById(id)
+                .map(post -> {
+                    postViewCounter.recordView(id);
+                    return ResponseEntity.ok(ApiResponse.success(postViewCounter.withPendingViews(post)));
+                });
+    }
+
+    @GetMapping("/posts/{postId}/comments")
+    public Mono<ResponseEntity<ApiResponse<List<CommentResponse>>>> getCommentsByPost(@PathVariable Long postId) {
+        return reactiveReadService.getCommentsByPostId(postId).collectList()
+                .map(comments -> ResponseEntity.ok(new ApiResponse<>(true, "Comments retrieved successfully", comments)));
+    }
+
+    @GetMapping(path = "/posts/{postId}/comments", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CommentResponse> streamCommentsByPost(@PathVariable Long postId) {
+        return reactiveReadService.getCommentsByPostId(postId);
+    }
+}
@@ -0,0 +1,35 @@
+package com.revature.controller;
+
+import com.revature.dto.ApiResponse;
+import com.revature.entity.Post;
+import com.revature.service.PostViewCounter;
+import com.revature.service.TimelineService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/timeline")
+@RequiredArgsConstructor
+public class TimelineController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final TimelineService timelineService;
+    private final PostViewCounter postViewCounter;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<Post>>> getTimeline(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        List<Post> posts = timelineService.getTimeline(userDetails.getUsername(), Math.max(page, 0),
+                Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        posts.forEach(postViewCounter::withPendingViews);
+        return ResponseEntity.ok(ApiResponse.success(posts));
+    }
+}
@@ -0,0 +1,134 @@
+package com.revature.datasource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Admits at most as many callers as the pool has connections; the rest wait in FIFO order on a semaphore, which
+// parks a virtual thread without holding its carrier, instead of all of them spinning through the pool's
+// handoff queue. A permit is held from getConnection until the connection is closed.
+//
+// The permit belongs to the calling thread, not to the connection: a thread that already holds one (e.g. a
+// REQUIRES_NEW transaction or a JdbcTemplate call outside the surrounding JPA transaction) gets its further
+// connections without waiting. Otherwise a full house of callers that each want a second connection would wait on
+// each other until the acquire timeout. The nested connection still comes from the pool, which fails on its own
+// connection timeout if it is exhausted.
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+    private final ThreadLocal<AtomicInteger> held = new ThreadLocal<>();
+
+    public ConcurrencyLimitingDataSource(DataSource target, int maxConcurrency, Duration acquireTimeout) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        AtomicInteger connections = admit();
+        try {
+            return limited(obtainTargetDataSource().getConnection(), connections);
+        } catch (SQLException | RuntimeException e) {
+            release(connections);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        AtomicInteger connections = admit();
+        try {
+            return limited(obtainTargetDataSource().getConnection(username, password), connections);
+        } catch (SQLException | RuntimeException e) {
+            release(connections);
+            throw e;
+        }
+    }
+
+    public int inUse() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    // Counts the open connections of the permit's thread. Once it reaches zero the permit is gone, even if the last
+    // connection was closed on another thread, and the next call has to acquire again.
+    private AtomicInteger admit() throws SQLException {
+        AtomicInteger connections = held.get();
+        if (connections != null && connections.getAndUpdate(n -> n > 0 ? n + 1 : n) > 0) {
+            return connections;
+        }
+        acquire();
+        connections = new AtomicInteger(1);
+        held.set(connections);
+        return connections;
+    }
+
+    private void release(AtomicInteger connections) {
+        if (connections.decrementAndGet() == 0) {
+            if (held.get() == connections) {
+                held.remove();
+            }
+            permits.release();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No database connection available within "
+                        + Duration.ofNanos(acquireTimeoutNanos) + " (" + permits.getQueueLength() + " waiting)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted waiting for a database connection", e);
+        }
+    }
+
+    private Connection limited(Connection target, AtomicInteger connections) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return target;
+                        case "close":
+                            try {
+                                target.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    release(connections);
+                                }
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+}
@@ -0,0 +1,49 @@
+package com.revature.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Remembers who wrote recently so their reads stay on the primary until replicas have caught up. Bounded: with more
+// than MAX_TRACKED_USERS writers in one window, some of them are forgotten and read from replicas again early.
+@Component
+public class ReadYourWritesTracker {
+
+    static final int MAX_TRACKED_USERS = 100_000;
+
+    private final Cache<String, Boolean> recentWriters;
+
+    @Autowired
+    public ReadYourWritesTracker(@Value("${app.datasource.routing.read-your-writes-window:10s}") Duration window) {
+        this(window, Ticker.systemTicker());
+    }
+
+    ReadYourWritesTracker(Duration window, Ticker ticker) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(MAX_TRACKED_USERS)
+                .ticker(ticker)
+                .build();
+    }
+
+    public void markWrite(String username) {
+        recentWriters.put(username, Boolean.TRUE);
+    }
+
+    public boolean currentUserWroteRecently() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && recentWriters.getIfPresent(authentication.getName()) != null;
+    }
+
+    long trackedUsers() {
+        recentWriters.cleanUp();
+        return recentWriters.estimatedSize();
+    }
+}
@@ -0,0 +1,122 @@
+package com.revature.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends read-only transactions to a healthy replica and everything else to the primary
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END""";
+
+    private final List<HikariDataSource> replicas;
+    private volatile boolean[] healthy;
+    private final RoutingProperties.Strategy strategy;
+    private final Duration maxReplicaLag;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    RoutingProperties properties, ReadYourWritesTracker readYourWritesTracker) {
+        this.replicas = replicas;
+        this.healthy = new boolean[replicas.size()];
+        Arrays.fill(this.healthy, true);
+        this.strategy = properties.getStrategy();
+        this.maxReplicaLag = properties.getMaxReplicaLag();
+        this.readYourWritesTracker = readYourWritesTracker;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readYourWritesTracker.currentUserWroteRecently()) {
+            return PRIMARY;
+        }
+        Integer replica = strategy == RoutingProperties.Strategy.LEAST_LOADED ? leastLoaded() : roundRobin();
+        return replica != null ? replica : PRIMARY;
+    }
+
+    private Integer roundRobin() {
+        boolean[] healthy = this.healthy;
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (healthy[candidate]) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private Integer leastLoaded() {
+        boolean[] healthy = this.healthy;
+        Integer best = null;
+        int bestActive = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            if (!healthy[i] || replicas.get(i).getHikariPoolMXBean() == null) {
+                continue;
+            }
+            int active = replicas.get(i).getHikariPoolMXBean().getActiveConnections();
+            if (active < bestActive) {
+                best = i;
+                bestActive = active;
+            }
+        }
+        return best;
+    }
+
+    // Replicas lagging more than the configured bound, or unreachable, receive no reads until they recover
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-interval:5000}")
+    public void checkReplicaLag() {
+        boolean[] previous = healthy;
+        boolean[] current = new boolean[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean replicaHealthy;
+            try (Connection connection = replicas.get(i).getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                rs.next();
+                replicaHealthy = rs.getDouble(1) * 1000 <= maxReplicaLag.toMillis();
+            } catch (Exception e) {
+                replicaHealthy = false;
+            }
+            if (previous[i] != replicaHealthy) {
+                logger.warn("Replica " + replicas.get(i).getJdbcUrl() + (replicaHealthy ? " is back in rotation"
+                        : " exceeded the replica lag bound or is unreachable, routing its reads to the primary"));
+            }
+            current[i] = replicaHealthy;
+        }
+        healthy = current;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
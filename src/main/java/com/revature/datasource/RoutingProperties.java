@@ -0,0 +1,30 @@
+package com.revature.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("app.datasource.routing")
+public class RoutingProperties {
+
+    private boolean enabled = false;
+    private Strategy strategy = Strategy.ROUND_ROBIN;
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+    private List<Replica> replicas = new ArrayList<>();
+
+    public enum Strategy {
+        ROUND_ROBIN, LEAST_LOADED
+    }
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
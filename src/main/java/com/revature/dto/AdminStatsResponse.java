@@ -0,0 +1,31 @@
+package com.revature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminStatsResponse {
+    private long users;
+    private long bannedUsers;
+    private long posts;
+    private long comments;
+    // Newest first; each day's net change (created minus deleted)
+    private List<DailyStats> days;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DailyStats {
+        private LocalDate day;
+        private long users;
+        private long bannedUsers;
+        private long posts;
+        private long comments;
+    }
+}
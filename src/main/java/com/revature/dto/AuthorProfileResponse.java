@@ -0,0 +1,35 @@
+package com.revature.dto;
+
+import com.revature.entity.Post;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorProfileResponse {
+    private Long id;
+    private String username;
+    private LocalDateTime memberSince;
+    private StatsResponse stats;
+    private List<Post> posts;
+    private int page;
+    private int size;
+    private long totalPages;
+    private boolean hasNext;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatsResponse {
+        private long posts;
+        private long publishedPosts;
+        private long commentsReceived;
+        private long followers;
+        private LocalDateTime lastActivityAt;
+    }
+}
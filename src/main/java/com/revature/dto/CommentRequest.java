@@ -14,5 +14,8 @@ public class CommentRequest {
     @NotBlank(message = "Comment content cannot be empty")
     @Size(min = 1, max = 5000, message = "Comment must be between 1 and 5000 characters")
     private String content;
+
+    // The comment this one replies to, on the same post; absent for a top-level comment
+    private Long parentId;
 }
 
@@ -1,5 +1,6 @@
 package com.revature.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -13,6 +14,8 @@ public class CommentResponse {
     private String content;
     private UserResponse author;
     private Long postId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long parentId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -0,0 +1,35 @@
+package com.revature.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Comments in depth-first thread order; nextCursor, passed back as "after", continues where the page ended and is
+// null on the last page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentThreadPage {
+    private List<ThreadedComment> comments;
+    private String nextCursor;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ThreadedComment {
+        private Long id;
+        private String content;
+        private CommentResponse.UserResponse author;
+        private Long postId;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long parentId;
+        private int depth;
+        private int replyCount;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+}
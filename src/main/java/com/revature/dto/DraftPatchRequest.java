@@ -0,0 +1,38 @@
+package com.revature.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// A text diff against the body at baseVersion: each edit replaces `delete` characters at `offset` with `insert`.
+// Offsets refer to the base text, in characters, and edits are sorted and do not overlap.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DraftPatchRequest {
+
+    @NotNull(message = "Base version is required")
+    private Long baseVersion;
+
+    @NotNull(message = "Edits are required")
+    private List<@Valid Edit> edits;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Edit {
+
+        @Min(value = 0, message = "Offset cannot be negative")
+        private int offset;
+
+        @Min(value = 0, message = "Delete cannot be negative")
+        private int delete;
+
+        private String insert = "";
+    }
+}
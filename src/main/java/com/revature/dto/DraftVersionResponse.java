@@ -0,0 +1,14 @@
+package com.revature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DraftVersionResponse {
+    private Long postId;
+    private Long version;
+    private Integer length;
+}
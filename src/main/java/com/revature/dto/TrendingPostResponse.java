@@ -0,0 +1,16 @@
+package com.revature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingPostResponse {
+    private Long id;
+    private String title;
+    private String authorUsername;
+    private long recentComments;
+    private double score;
+}
@@ -0,0 +1,41 @@
+package com.revature.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Read side of author_stats; rows are only changed by AuthorStatsService's atomic increments
+@Entity
+@Immutable
+@Table(name = "author_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorStats {
+
+    @Id
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(nullable = false)
+    private Long posts = 0L;
+
+    @Column(name = "published_posts", nullable = false)
+    private Long publishedPosts = 0L;
+
+    @Column(name = "comments_received", nullable = false)
+    private Long commentsReceived = 0L;
+
+    @Column(nullable = false)
+    private Long followers = 0L;
+
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+}
@@ -43,6 +43,16 @@ public class Comment {
     @JsonIgnoreProperties({ "author", "content" })
     private Post post;
 
+    @Column(name = "parent_id", updatable = false)
+    private Long parentId;
+
+    // Set by the database on insert: the thread path down to this comment, and how many replies it has below it
+    @Column(nullable = false, insertable = false, updatable = false)
+    private String path;
+
+    @Column(name = "reply_count", nullable = false, insertable = false, updatable = false)
+    private Integer replyCount;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
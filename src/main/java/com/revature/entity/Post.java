@@ -1,6 +1,7 @@
 package com.revature.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -24,9 +25,16 @@ public class Post {
     @Column(nullable = false)
     private String title;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    // Kept in post_bodies (PostBodyStore) and only filled when a single post is returned
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String content;
 
+    // Version of the content, the base for draft autosave patches; filled along with content
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long bodyVersion;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     @JsonIgnoreProperties({"posts", "password", "email", "createdAt", "isBanned"})
@@ -42,4 +50,8 @@ public class Post {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    // Written only by PostViewCounter's batched flush, so saving a post never overwrites it
+    @Column(name = "view_count", nullable = false, insertable = false, updatable = false)
+    private Long viewCount = 0L;
 }
@@ -0,0 +1,15 @@
+package com.revature.event;
+
+import com.revature.dto.CommentResponse;
+
+// Published once a comment change is durable: after commit, or after the write-behind batch containing it
+public record CommentEvent(Type type, CommentResponse comment) {
+
+    public enum Type {
+        ADDED, UPDATED, DELETED
+    }
+
+    public Long postId() {
+        return comment.getPostId();
+    }
+}
@@ -0,0 +1,279 @@
+package com.revature.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+// Applies a published invalidation to this instance's subscribers as soon as its transaction commits, and
+// collects the ids per topic until the next flush, which sends them to the other instances in as few messages
+// as possible. A burst of writes to the same rows becomes one id in one message; a topic with more than
+// max-pending-ids ids is sent as "invalidate all" instead. Subclasses only move payloads between instances.
+@Slf4j
+public abstract class CoalescingInvalidationBus implements InvalidationBus, SmartLifecycle {
+
+    // NOTIFY payloads must be shorter than 8000 bytes; ids and topic names are ASCII
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+    private static final String ALL = "*";
+
+    private record Listener(LongConsumer invalidate, Runnable invalidateAll) {
+    }
+
+    private static final class PendingIds {
+
+        private final Set<Long> ids = new HashSet<>();
+        private boolean all;
+    }
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<InvalidationTopic, List<Listener>> listeners = new EnumMap<>(InvalidationTopic.class);
+    private final Map<InvalidationTopic, PendingIds> pending = new ConcurrentHashMap<>();
+    private final long flushIntervalNanos;
+    private final int maxPendingIds;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    protected CoalescingInvalidationBus(Duration flushInterval, int maxPendingIds) {
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxPendingIds = maxPendingIds;
+        for (InvalidationTopic topic : InvalidationTopic.values()) {
+            listeners.put(topic, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    @Override
+    public void publish(InvalidationTopic topic, long id) {
+        afterCommit(() -> {
+            invalidate(topic, id);
+            pending.compute(topic, (t, ids) -> {
+                PendingIds result = ids != null ? ids : new PendingIds();
+                if (!result.all) {
+                    result.ids.add(id);
+                    if (result.ids.size() > maxPendingIds) {
+                        result.all = true;
+                        result.ids.clear();
+                    }
+                }
+                return result;
+            });
+        });
+    }
+
+    @Override
+    public void subscribe(InvalidationTopic topic, LongConsumer invalidate, Runnable invalidateAll) {
+        listeners.get(topic).add(new Listener(invalidate, invalidateAll));
+    }
+
+    // Sends the given payload to every other instance
+    protected abstract void send(String payload) throws Exception;
+
+    protected abstract void open();
+
+    protected abstract void close();
+
+    // Called by subclasses with a payload from any instance; this instance's own payloads are ignored
+    protected void receive(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.startsWith(nodeId + "|")) {
+            return;
+        }
+        for (String section : payload.substring(separator + 1).split(";")) {
+            int colon = section.indexOf(':');
+            InvalidationTopic topic;
+            try {
+                topic = InvalidationTopic.valueOf(section.substring(0, colon));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                // Sent by an instance that knows more topics than this one
+                log.warn("Ignoring unknown invalidation section {}", section);
+                continue;
+            }
+            String ids = section.substring(colon + 1);
+            if (ids.equals(ALL)) {
+                invalidateAll(topic);
+                continue;
+            }
+            for (String id : ids.split(",")) {
+                invalidate(topic, Long.parseLong(id));
+            }
+        }
+    }
+
+    // For subclasses that may have missed payloads, e.g. while reconnecting
+    protected void invalidateEverything() {
+        for (InvalidationTopic topic : InvalidationTopic.values()) {
+            invalidateAll(topic);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        open();
+        flusher = new Thread(this::flushLoop, getClass().getSimpleName() + "-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server has finished its graceful shutdown, so the last writes are still sent
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    void flush() {
+        Map<InvalidationTopic, PendingIds> taken = new EnumMap<>(InvalidationTopic.class);
+        PayloadWriter writer = new PayloadWriter(nodeId);
+        for (InvalidationTopic topic : InvalidationTopic.values()) {
+            PendingIds ids = pending.remove(topic);
+            if (ids == null) {
+                continue;
+            }
+            taken.put(topic, ids);
+            if (ids.all) {
+                writer.add(topic, ALL);
+            } else {
+                ids.ids.forEach(id -> writer.add(topic, Long.toString(id)));
+            }
+        }
+        for (String payload : writer.finish()) {
+            try {
+                send(payload);
+            } catch (Exception e) {
+                // Requeued whole; resending ids that did go out is harmless
+                log.warn("Could not send cache invalidations, retrying with the next flush", e);
+                taken.forEach((topic, ids) -> pending.merge(topic, ids, CoalescingInvalidationBus::mergeIds));
+                return;
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            flush();
+        }
+        flush();
+    }
+
+    private void invalidate(InvalidationTopic topic, long id) {
+        for (Listener listener : listeners.get(topic)) {
+            try {
+                listener.invalidate().accept(id);
+            } catch (RuntimeException e) {
+                log.error("Could not invalidate {} {}", topic, id, e);
+            }
+        }
+    }
+
+    private void invalidateAll(InvalidationTopic topic) {
+        for (Listener listener : listeners.get(topic)) {
+            try {
+                listener.invalidateAll().run();
+            } catch (RuntimeException e) {
+                log.error("Could not invalidate all of {}", topic, e);
+            }
+        }
+    }
+
+    private static PendingIds mergeIds(PendingIds current, PendingIds requeued) {
+        current.all |= requeued.all;
+        if (current.all) {
+            current.ids.clear();
+        } else {
+            current.ids.addAll(requeued.ids);
+        }
+        return current;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // "<node>|TOPIC:1,2,3;TOPIC:*", split into payloads of at most MAX_PAYLOAD_LENGTH characters
+    private static final class PayloadWriter {
+
+        private final String header;
+        private final List<String> payloads = new ArrayList<>();
+        private StringBuilder current;
+        private InvalidationTopic currentTopic;
+
+        PayloadWriter(String nodeId) {
+            this.header = nodeId + "|";
+        }
+
+        void add(InvalidationTopic topic, String id) {
+            if (current != null && current.length() + topic.name().length() + id.length() + 2 > MAX_PAYLOAD_LENGTH) {
+                payloads.add(current.toString());
+                current = null;
+            }
+            if (current == null) {
+                current = new StringBuilder(header);
+                currentTopic = null;
+            }
+            if (topic == currentTopic) {
+                current.append(',');
+            } else {
+                if (currentTopic != null) {
+                    current.append(';');
+                }
+                current.append(topic.name()).append(':');
+                currentTopic = topic;
+            }
+            current.append(id);
+        }
+
+        List<String> finish() {
+            if (current != null) {
+                payloads.add(current.toString());
+            }
+            return payloads;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.revature.invalidation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Delivers to every other started in-memory bus in this JVM: a single instance, or several application
+// contexts standing in for a cluster in tests
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "in-memory")
+public class InMemoryInvalidationBus extends CoalescingInvalidationBus {
+
+    private static final Set<InMemoryInvalidationBus> NODES = ConcurrentHashMap.newKeySet();
+
+    public InMemoryInvalidationBus(@Value("${app.invalidation.flush-interval:50ms}") Duration flushInterval,
+                                   @Value("${app.invalidation.max-pending-ids:10000}") int maxPendingIds) {
+        super(flushInterval, maxPendingIds);
+    }
+
+    @Override
+    protected void send(String payload) {
+        NODES.forEach(node -> node.receive(payload));
+    }
+
+    @Override
+    protected void open() {
+        NODES.add(this);
+    }
+
+    @Override
+    protected void close() {
+        NODES.remove(this);
+    }
+}
@@ -0,0 +1,13 @@
+package com.revature.invalidation;
+
+import java.util.function.LongConsumer;
+
+// Broadcasts "this entity changed" to the in-memory caches of every instance, including this one
+public interface InvalidationBus {
+
+    // Takes effect once the current transaction commits, or immediately outside one
+    void publish(InvalidationTopic topic, long id);
+
+    // invalidateAll is called when this instance may have missed invalidations, e.g. after a lost connection
+    void subscribe(InvalidationTopic topic, LongConsumer invalidate, Runnable invalidateAll);
+}
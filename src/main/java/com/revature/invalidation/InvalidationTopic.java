@@ -0,0 +1,9 @@
+package com.revature.invalidation;
+
+// What an invalidated id refers to; each topic is one kind of entity cached in memory on every instance
+public enum InvalidationTopic {
+    USER,
+    POST,
+    AUTHOR_STATS,
+    TIMELINE
+}
@@ -0,0 +1,127 @@
+package com.revature.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Sends invalidations with NOTIFY on the primary and receives them on a dedicated LISTEN connection, outside
+// the pool so it never holds a pooled connection or is retired by it. Notifications sent while that connection
+// is down are lost, so every subscribed cache is cleared once it is back.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationBus extends CoalescingInvalidationBus {
+
+    static final String CHANNEL = "cache_invalidation";
+    private static final int POLL_MILLIS = 500;
+    // A connection that silently died would otherwise just keep returning no notifications
+    private static final long VALIDATION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long reconnectBackoffMillis;
+
+    private volatile boolean listening;
+    private Thread listener;
+
+    public PostgresInvalidationBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                   @Value("${app.invalidation.flush-interval:50ms}") Duration flushInterval,
+                                   @Value("${app.invalidation.max-pending-ids:10000}") int maxPendingIds,
+                                   @Value("${app.invalidation.reconnect-backoff:1s}") Duration reconnectBackoff) {
+        super(flushInterval, maxPendingIds);
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = dataSourceProperties.determineUrl();
+        this.username = dataSourceProperties.determineUsername();
+        this.password = dataSourceProperties.determinePassword();
+        this.reconnectBackoffMillis = reconnectBackoff.toMillis();
+    }
+
+    // Outside a transaction, so it goes to the primary and is delivered at once
+    @Override
+    protected void send(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+    }
+
+    @Override
+    protected void open() {
+        listening = true;
+        listener = new Thread(this::listenLoop, "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    protected void close() {
+        listening = false;
+        try {
+            listener.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        boolean missedNotifications = false;
+        while (listening) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (missedNotifications) {
+                    log.info("Listening on {} again, clearing all invalidated caches", CHANNEL);
+                    invalidateEverything();
+                    missedNotifications = false;
+                }
+                poll(connection);
+            } catch (SQLException e) {
+                missedNotifications = true;
+                if (listening) {
+                    log.warn("Lost the {} listener connection, reconnecting in {}ms: {}", CHANNEL,
+                            reconnectBackoffMillis, e.getMessage());
+                    sleep(reconnectBackoffMillis);
+                }
+            }
+        }
+    }
+
+    private void poll(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long lastValidated = System.nanoTime();
+        while (listening) {
+            PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+            if (notifications != null && notifications.length > 0) {
+                for (PGNotification notification : notifications) {
+                    receive(notification.getParameter());
+                }
+                lastValidated = System.nanoTime();
+            } else if (System.nanoTime() - lastValidated > VALIDATION_INTERVAL_NANOS) {
+                if (!connection.isValid(1)) {
+                    throw new SQLException("LISTEN connection is no longer valid");
+                }
+                lastValidated = System.nanoTime();
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.revature.repository;
+
+import com.revature.entity.AuthorStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AuthorStatsRepository extends JpaRepository<AuthorStats, Long> {
+}
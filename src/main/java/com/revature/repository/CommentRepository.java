@@ -1,6 +1,7 @@
 package com.revature.repository;
 
 import com.revature.entity.Comment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,7 +10,10 @@ import java.util.List;
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(attributePaths = "author")
     List<Comment> findByPostIdOrderByCreatedAtDesc(Long postId);
 
     List<Comment> findByAuthorId(Long authorId);
+
+    long countByPostId(Long postId);
 }
@@ -0,0 +1,95 @@
+package com.revature.repository;
+
+import com.revature.dto.CommentResponse;
+import com.revature.dto.CommentThreadPage;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Threads read as ranges of idx_comments_post_path. Paths (see V9) sort depth-first, each id taking 19 digits and a
+// separator, so a page is the next rows after a cursor path, and a subtree everything between its root's path and
+// that path followed by '/', the character after '.'.
+@Repository
+public class CommentThreadStore {
+
+    // Keeps the longest path well inside a B-tree index entry
+    public static final int MAX_DEPTH = 64;
+
+    private static final int SEGMENT_LENGTH = 20;
+
+    static final String THREAD_SQL = """
+            SELECT c.id, c.content, c.post_id, c.parent_id, c.path, c.reply_count, c.created_at, c.updated_at,
+                   u.id AS author_id, u.username
+            FROM comments c JOIN users u ON u.id = c.author_id
+            WHERE c.post_id = ? AND c.path > ?
+            ORDER BY c.path
+            LIMIT ?""";
+
+    static final String SUBTREE_SQL = """
+            SELECT c.id, c.content, c.post_id, c.parent_id, c.path, c.reply_count, c.created_at, c.updated_at,
+                   u.id AS author_id, u.username
+            FROM comments c JOIN users u ON u.id = c.author_id
+            WHERE c.post_id = ? AND c.path > ? AND c.path < ?
+            ORDER BY c.path
+            LIMIT ?""";
+
+    // A new reply locks its ancestors before it is counted (see V9), so with the root locked none can join the
+    // subtree until the caller's transaction ends
+    static final String LOCK_SQL = "SELECT id FROM comments WHERE id = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CommentThreadStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // All of a post's comments, threads in the order they were started and replies below their parents
+    public CommentThreadPage thread(Long postId, String after, int limit) {
+        return page(jdbcTemplate.query(THREAD_SQL, (rs, row) -> toComment(rs), postId,
+                after != null ? after : "", limit), limit);
+    }
+
+    // The replies below a comment at every depth, in the same order
+    public CommentThreadPage replies(Long postId, String rootPath, String after, int limit) {
+        String from = after != null && after.compareTo(rootPath) > 0 ? after : rootPath;
+        return page(jdbcTemplate.query(SUBTREE_SQL, (rs, row) -> toComment(rs), postId, from, rootPath + "/",
+                limit), limit);
+    }
+
+    // Every reply below a comment, with the comment locked in the caller's transaction, e.g. before deleting it
+    public List<CommentThreadPage.ThreadedComment> lockReplies(Long commentId, Long postId, String rootPath) {
+        jdbcTemplate.queryForList(LOCK_SQL, Long.class, commentId);
+        return jdbcTemplate.query(SUBTREE_SQL, (rs, row) -> toComment(rs).comment(), postId, rootPath,
+                rootPath + "/", Integer.MAX_VALUE);
+    }
+
+    public static int depth(String path) {
+        return (path.length() + 1) / SEGMENT_LENGTH - 1;
+    }
+
+    private static CommentThreadPage page(List<Row> rows, int limit) {
+        return new CommentThreadPage(rows.stream().map(Row::comment).toList(),
+                rows.size() == limit ? rows.get(rows.size() - 1).path() : null);
+    }
+
+    private static Row toComment(ResultSet rs) throws SQLException {
+        String path = rs.getString("path");
+        return new Row(path, new CommentThreadPage.ThreadedComment(
+                rs.getLong("id"),
+                rs.getString("content"),
+                new CommentResponse.UserResponse(rs.getLong("author_id"), rs.getString("username")),
+                rs.getLong("post_id"),
+                rs.getObject("parent_id", Long.class),
+                depth(path),
+                rs.getInt("reply_count"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class)));
+    }
+
+    private record Row(String path, CommentThreadPage.ThreadedComment comment) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.revature.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+// Text as stored in bytea columns: UTF-8, deflated once past a size threshold when that saves space.
+// The driver reads the stored bytes whole. decode() inflates them straight to chars, skipping a byte array of the
+// inflated UTF-8, but still builds the whole String; writeTo streams the text, so only the stored bytes are held.
+public record CompressedText(short encoding, int originalLength, byte[] data) {
+
+    public static final short RAW = 0;
+    public static final short DEFLATE = 1;
+
+    public static CompressedText of(String text, int compressionThreshold, int compressionLevel) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= compressionThreshold) {
+            byte[] deflated = deflate(utf8, compressionLevel);
+            if (deflated.length < utf8.length) {
+                return new CompressedText(DEFLATE, text.length(), deflated);
+            }
+        }
+        return new CompressedText(RAW, text.length(), utf8);
+    }
+
+    public String decode() {
+        if (encoding == RAW) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        StringWriter text = new StringWriter(originalLength);
+        inflateTo(text);
+        return text.toString();
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        if (encoding == RAW) {
+            writer.write(new String(data, StandardCharsets.UTF_8));
+        } else {
+            inflateTo(writer);
+        }
+    }
+
+    private void inflateTo(Writer out) {
+        try (Reader reader = new InputStreamReader(new InflaterInputStream(new ByteArrayInputStream(data)),
+                StandardCharsets.UTF_8)) {
+            char[] buffer = new char[Math.min(originalLength + 1, 8192)];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not inflate stored text", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] utf8, int level) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 3);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
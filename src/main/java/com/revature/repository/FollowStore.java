@@ -0,0 +1,80 @@
+package com.revature.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+@Repository
+public class FollowStore {
+
+    static final String FOLLOWERS_SQL = "SELECT follower_id FROM follows WHERE followee_id = ?";
+
+    static final String TIMELINE_SQL = """
+            SELECT p.id, p.created_at FROM follows f
+            JOIN posts p ON p.author_id = f.followee_id AND p.published
+            WHERE f.follower_id = ?
+            ORDER BY p.created_at DESC, p.id DESC
+            LIMIT ?""";
+
+    static final String POPULAR_FOLLOWEES_SQL = """
+            SELECT f.followee_id FROM follows f
+            JOIN author_stats s ON s.author_id = f.followee_id
+            WHERE f.follower_id = ? AND s.followers >= ?""";
+
+    static final String POSTS_BY_AUTHORS_SQL = """
+            SELECT id, created_at FROM posts WHERE author_id = ANY (?::bigint[]) AND published
+            ORDER BY created_at DESC, id DESC
+            LIMIT ?""";
+
+    // Timelines order posts by creation time, then id
+    public record TimelinePost(long postId, LocalDateTime createdAt) {
+    }
+
+    private static final RowMapper<TimelinePost> TIMELINE_POST = (rs, rowNum) ->
+            new TimelinePost(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FollowStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean follow(Long followerId, Long followeeId) {
+        return jdbcTemplate.update("INSERT INTO follows (follower_id, followee_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                followerId, followeeId) == 1;
+    }
+
+    public boolean unfollow(Long followerId, Long followeeId) {
+        return jdbcTemplate.update("DELETE FROM follows WHERE follower_id = ? AND followee_id = ?",
+                followerId, followeeId) == 1;
+    }
+
+    public void forEachFollower(Long followeeId, LongConsumer action) {
+        jdbcTemplate.query(FOLLOWERS_SQL,
+                (RowCallbackHandler) rs -> action.accept(rs.getLong(1)), followeeId);
+    }
+
+    // Newest published posts of everyone the user follows, for rebuilding a timeline
+    public List<TimelinePost> timelinePosts(Long followerId, int limit) {
+        return jdbcTemplate.query(TIMELINE_SQL, TIMELINE_POST, followerId, limit);
+    }
+
+    public long[] popularFolloweeIds(Long followerId, long minFollowers) {
+        return toArray(jdbcTemplate.queryForList(POPULAR_FOLLOWEES_SQL, Long.class, followerId, minFollowers));
+    }
+
+    public List<TimelinePost> publishedPostsByAuthors(long[] authorIds, int limit) {
+        return jdbcTemplate.query(POSTS_BY_AUTHORS_SQL, TIMELINE_POST,
+                Arrays.stream(authorIds).boxed().toArray(Long[]::new), limit);
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
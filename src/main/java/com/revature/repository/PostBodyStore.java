@@ -0,0 +1,80 @@
+package com.revature.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+// Stores post bodies in post_bodies, deflated once they pass the size threshold (see CompressedText). Bodies are
+// read back as whole Strings
+@Repository
+public class PostBodyStore {
+
+    // The new version is above both the stored one and minVersion, which callers use to skip past versions
+    // handed out for autosaved drafts that were never written
+    static final String UPSERT_SQL = """
+            INSERT INTO post_bodies (post_id, encoding, original_length, body, version) VALUES (?, ?, ?, ?, ? + 1)
+            ON CONFLICT (post_id) DO UPDATE SET encoding = EXCLUDED.encoding,
+                original_length = EXCLUDED.original_length, body = EXCLUDED.body,
+                version = GREATEST(post_bodies.version + 1, EXCLUDED.version)
+            RETURNING version""";
+
+    static final String FIND_VERSIONED_SQL =
+            "SELECT encoding, original_length, body, version FROM post_bodies WHERE post_id = ?";
+
+    // Compare-and-set on the version, so a write based on a stale body never lands
+    static final String REPLACE_SQL = """
+            UPDATE post_bodies SET encoding = ?, original_length = ?, body = ?, version = ?
+            WHERE post_id = ? AND version = ?""";
+
+    public record VersionedBody(String content, long version) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int compressionThreshold;
+    private final int compressionLevel;
+
+    public PostBodyStore(JdbcTemplate jdbcTemplate,
+                         @Value("${app.posts.body.compression-threshold:4096}") int compressionThreshold,
+                         @Value("${app.posts.body.compression-level:1}") int compressionLevel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compressionThreshold = compressionThreshold;
+        this.compressionLevel = compressionLevel;
+    }
+
+    // Returns the version of the body now stored
+    public long save(Long postId, String content) {
+        return save(postId, content, 0);
+    }
+
+    public long save(Long postId, String content, long minVersion) {
+        CompressedText body = CompressedText.of(content, compressionThreshold, compressionLevel);
+        return jdbcTemplate.queryForObject(UPSERT_SQL, Long.class,
+                postId, body.encoding(), body.originalLength(), body.data(), minVersion);
+    }
+
+    public boolean replace(Long postId, String content, long expectedVersion, long newVersion) {
+        CompressedText body = CompressedText.of(content, compressionThreshold, compressionLevel);
+        return jdbcTemplate.update(REPLACE_SQL, body.encoding(), body.originalLength(), body.data(), newVersion,
+                postId, expectedVersion) == 1;
+    }
+
+    public Optional<String> find(Long postId) {
+        return Optional.ofNullable(jdbcTemplate.query(
+                "SELECT encoding, original_length, body FROM post_bodies WHERE post_id = ?",
+                rs -> rs.next()
+                        ? new CompressedText(rs.getShort("encoding"), rs.getInt("original_length"), rs.getBytes("body")).decode()
+                        : null,
+                postId));
+    }
+
+    public Optional<VersionedBody> findVersioned(Long postId) {
+        return Optional.ofNullable(jdbcTemplate.query(FIND_VERSIONED_SQL,
+                rs -> rs.next()
+                        ? new VersionedBody(new CompressedText(rs.getShort("encoding"), rs.getInt("original_length"),
+                                rs.getBytes("body")).decode(), rs.getLong("version"))
+                        : null,
+                postId));
+    }
+}
@@ -0,0 +1,55 @@
+package com.revature.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public class PostRenderStore {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO post_renders (post_id, renderer_version, content_hash, encoding, original_length, html, rendered_at)
+            VALUES (?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (post_id) DO UPDATE SET renderer_version = EXCLUDED.renderer_version,
+                content_hash = EXCLUDED.content_hash, encoding = EXCLUDED.encoding,
+                original_length = EXCLUDED.original_length, html = EXCLUDED.html, rendered_at = EXCLUDED.rendered_at""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int compressionThreshold;
+    private final int compressionLevel;
+
+    public PostRenderStore(JdbcTemplate jdbcTemplate,
+                           @Value("${app.posts.body.compression-threshold:4096}") int compressionThreshold,
+                           @Value("${app.posts.body.compression-level:1}") int compressionLevel) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compressionThreshold = compressionThreshold;
+        this.compressionLevel = compressionLevel;
+    }
+
+    public void save(Long postId, int rendererVersion, String contentHash, String html) {
+        CompressedText stored = CompressedText.of(html, compressionThreshold, compressionLevel);
+        jdbcTemplate.update(UPSERT_SQL, postId, rendererVersion, contentHash, stored.encoding(),
+                stored.originalLength(), stored.data());
+    }
+
+    public Optional<CompressedText> find(Long postId, int rendererVersion) {
+        return Optional.ofNullable(jdbcTemplate.query(
+                "SELECT encoding, original_length, html FROM post_renders WHERE post_id = ? AND renderer_version = ?",
+                rs -> rs.next()
+                        ? new CompressedText(rs.getShort("encoding"), rs.getInt("original_length"), rs.getBytes("html"))
+                        : null,
+                postId, rendererVersion));
+    }
+
+    public Optional<String> findContentHash(Long postId, int rendererVersion) {
+        return jdbcTemplate.queryForList(
+                "SELECT content_hash FROM post_renders WHERE post_id = ? AND renderer_version = ?",
+                String.class, postId, rendererVersion).stream().findFirst();
+    }
+
+    public void delete(Long postId) {
+        jdbcTemplate.update("DELETE FROM post_renders WHERE post_id = ?", postId);
+    }
+}
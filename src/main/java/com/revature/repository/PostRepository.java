@@ -1,8 +1,12 @@
 package com.revature.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,9 +14,21 @@ import com.revature.entity.Post;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
+    @EntityGraph(attributePaths = "author")
     List<Post> findByPublishedTrueOrderByCreatedAtDesc();
 
+    @EntityGraph(attributePaths = "author")
     List<Post> findByAuthorIdOrderByCreatedAtDesc(Long authorId);
 
+    @EntityGraph(attributePaths = "author")
+    Slice<Post> findByAuthorIdAndPublishedTrueOrderByCreatedAtDesc(Long authorId, Pageable pageable);
+
     Optional<Post> findByIdAndAuthorId(Long id, Long authorId);
+
+    @EntityGraph(attributePaths = "author")
+    List<Post> findByIdInAndPublishedTrue(Collection<Long> ids);
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Optional<Post> findById(Long id);
 }
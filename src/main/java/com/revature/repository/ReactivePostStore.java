@@ -0,0 +1,116 @@
+package com.revature.repository;
+
+import com.revature.dto.CommentResponse;
+import com.revature.entity.Post;
+import com.revature.entity.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+// Non-blocking counterparts of the post and comment read queries. Rows are mapped to the same shapes the servlet
+// endpoints return and emitted as they are decoded, so a connection is held only while a query is streaming.
+@Repository
+public class ReactivePostStore {
+
+    static final String PUBLISHED_POSTS_SQL = """
+            SELECT p.id, p.title, p.published, p.created_at, p.updated_at, p.view_count,
+                   u.id AS author_id, u.username, u.role
+            FROM posts p JOIN users u ON u.id = p.author_id
+            WHERE p.published
+            ORDER BY p.created_at DESC""";
+
+    // One round trip where the servlet path needs two: the body comes along from post_bodies
+    static final String POST_WITH_BODY_SQL = """
+            SELECT p.id, p.title, p.published, p.created_at, p.updated_at, p.view_count,
+                   u.id AS author_id, u.username, u.role, b.encoding, b.original_length, b.body, b.version
+            FROM posts p JOIN users u ON u.id = p.author_id
+            LEFT JOIN post_bodies b ON b.post_id = p.id
+            WHERE p.id = $1""";
+
+    static final String COMMENTS_SQL = """
+            SELECT c.id, c.content, c.post_id, c.parent_id, c.created_at, c.updated_at, u.id AS author_id, u.username
+            FROM comments c JOIN users u ON u.id = c.author_id
+            WHERE c.post_id = $1
+            ORDER BY c.created_at DESC""";
+
+    static final String POST_EXISTS_SQL = "SELECT 1 FROM posts WHERE id = $1";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactivePostStore(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Post> findPublished() {
+        return databaseClient.sql(PUBLISHED_POSTS_SQL)
+                .map(ReactivePostStore::toPost)
+                .all();
+    }
+
+    // The row is mapped on the driver's event loop, but the body is decoded on boundedElastic: inflating a few hundred
+    // KB there would hold up every other query on that loop
+    public Mono<Post> findWithBody(Long postId) {
+        return databaseClient.sql(POST_WITH_BODY_SQL)
+                .bind(0, postId)
+                .map(row -> {
+                    Post post = toPost(row);
+                    Short encoding = row.get("encoding", Short.class);
+                    post.setBodyVersion(encoding == null ? 0L : row.get("version", Long.class));
+                    return new StoredPost(post, encoding == null ? null : new CompressedText(encoding,
+                            row.get("original_length", Integer.class), row.get("body", byte[].class)));
+                })
+                .one()
+                .publishOn(Schedulers.boundedElastic())
+                .map(stored -> {
+                    stored.post().setContent(stored.body() == null ? "" : stored.body().decode());
+                    return stored.post();
+                });
+    }
+
+    public Flux<CommentResponse> findComments(Long postId) {
+        return databaseClient.sql(COMMENTS_SQL)
+                .bind(0, postId)
+                .map(row -> new CommentResponse(
+                        row.get("id", Long.class),
+                        row.get("content", String.class),
+                        new CommentResponse.UserResponse(row.get("author_id", Long.class), row.get("username", String.class)),
+                        row.get("post_id", Long.class),
+                        row.get("parent_id", Long.class),
+                        row.get("created_at", LocalDateTime.class),
+                        row.get("updated_at", LocalDateTime.class)))
+                .all();
+    }
+
+    public Mono<Boolean> exists(Long postId) {
+        return databaseClient.sql(POST_EXISTS_SQL)
+                .bind(0, postId)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    private record StoredPost(Post post, CompressedText body) {
+    }
+
+    private static Post toPost(Readable row) {
+        User author = new User();
+        author.setId(row.get("author_id", Long.class));
+        author.setUsername(row.get("username", String.class));
+        author.setRole(User.Role.valueOf(row.get("role", String.class)));
+
+        Post post = new Post();
+        post.setId(row.get("id", Long.class));
+        post.setTitle(row.get("title", String.class));
+        post.setPublished(row.get("published", Boolean.class));
+        post.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        post.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        post.setViewCount(row.get("view_count", Long.class));
+        post.setAuthor(author);
+        return post;
+    }
+}
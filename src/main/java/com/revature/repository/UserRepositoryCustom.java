@@ -0,0 +1,10 @@
+package com.revature.repository;
+
+import com.revature.entity.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    Optional<User> findByUsername(String username);
+}
@@ -1,7 +1,9 @@
 package com.revature.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Serializer;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,19 +14,28 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.ServiceLoader;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenProvider {
 
-    @Value("${jwt.secret:mySecretKeyForJWTTokenGenerationMustBeLongEnoughForHS256Algorithm}")
-    private String secret;
+    private final SecretKey signingKey;
+    private final Long expiration;
+    // jjwt looks up its JSON support through one ServiceLoader shared by all threads for every builder and parser
+    // not given it explicitly, and that lookup fails intermittently under concurrent requests. Resolved once here.
+    private final Serializer<Map<String, ?>> serializer;
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @SuppressWarnings("unchecked")
+    public JwtTokenProvider(
+            @Value("${jwt.secret:mySecretKeyForJWTTokenGenerationMustBeLongEnoughForHS256Algorithm}") String secret,
+            @Value("${jwt.expiration:86400000}") Long expiration) { // 24 hours in milliseconds
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.expiration = expiration;
+        this.serializer = ServiceLoader.load(Serializer.class).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No JWT JSON serializer on the classpath"));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -41,7 +52,8 @@ public class JwtTokenProvider {
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
+                .json(serializer)
                 .compact();
     }
 
@@ -59,11 +71,7 @@ public class JwtTokenProvider {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -1,8 +1,11 @@
 package com.revature.security;
 
 import com.revature.entity.User;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
 import com.revature.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,11 +15,19 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 
 @Service
-@RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Users come from the second-level cache, so bans, role changes and deletes made on another instance
+    // have to be evicted here
+    public UserDetailsServiceImpl(UserRepository userRepository, EntityManagerFactory entityManagerFactory,
+                                  InvalidationBus invalidationBus) {
+        this.userRepository = userRepository;
+        Cache cache = entityManagerFactory.getCache();
+        invalidationBus.subscribe(InvalidationTopic.USER, id -> cache.evict(User.class, id), () -> cache.evict(User.class));
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -1,11 +1,23 @@
 package com.revature.service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.revature.audit.AuditAction;
+import com.revature.audit.AuditLog;
 import com.revature.entity.User;
 import com.revature.exception.ResourceNotFoundException;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.CommentRepository;
 import com.revature.repository.PostRepository;
 import com.revature.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.stereotype.Service;
 
 import lombok.RequiredArgsConstructor;
@@ -17,6 +29,12 @@ public class AdminService {
 
     private final UserRepository userRepository;
     private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditLog auditLog;
+    private final InvalidationBus invalidationBus;
+    private final AdminStatsService adminStatsService;
+    private final AuthorStatsService authorStatsService;
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -26,20 +44,36 @@ public class AdminService {
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException ("User", "id", userId));
+        adminStatsService.userDeleted(userId, Boolean.TRUE.equals(user.getIsBanned()));
         userRepository.delete(user);
+        invalidationBus.publish(InvalidationTopic.USER, userId);
+        auditLog.record(AuditAction.USER_DELETED, userId, user.getUsername());
     }
 
     @Transactional
     public void banUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        boolean wasBanned = Boolean.TRUE.equals(user.getIsBanned());
         user.setIsBanned(true);
         userRepository.save(user);
+        if (!wasBanned) {
+            adminStatsService.userBanned();
+        }
+        invalidationBus.publish(InvalidationTopic.USER, userId);
+        auditLog.record(AuditAction.USER_BANNED, userId, user.getUsername());
     }
 
     @Transactional
     public void deleteAnyPost(Long postId) {
+        postRepository.findById(postId).ifPresent(post -> {
+            long comments = commentRepository.countByPostId(postId);
+            authorStatsService.postDeleted(post.getAuthor().getId(), post.getPublished(), comments);
+            adminStatsService.postDeleted(comments);
+        });
         postRepository.deleteById(postId);
+        invalidationBus.publish(InvalidationTopic.POST, postId);
+        auditLog.record(AuditAction.POST_DELETED_BY_ADMIN, postId, null);
     }
 
     @Transactional
@@ -48,10 +82,37 @@ public class AdminService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
         try {
+            User.Role previous = user.getRole();
             user.setRole(User.Role.valueOf(role.toUpperCase()));
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            invalidationBus.publish(InvalidationTopic.USER, userId);
+            auditLog.record(AuditAction.USER_ROLE_CHANGED, userId, previous + " -> " + saved.getRole());
+            return saved;
         } catch (IllegalArgumentException e) {
             throw new RuntimeException("Invalid role: " + role);
         }
     }
+
+    public Map<String, Object> getUserCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CacheRegionStatistics entities = statistics.getDomainDataRegionStatistics(User.CACHE_REGION);
+        NaturalIdStatistics naturalIds = statistics.getNaturalIdStatistics(User.class.getName());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        stats.put("entityHits", entities.getHitCount());
+        stats.put("entityMisses", entities.getMissCount());
+        stats.put("entityPuts", entities.getPutCount());
+        stats.put("entityHitRate", hitRate(entities.getHitCount(), entities.getMissCount()));
+        stats.put("naturalIdHits", naturalIds.getCacheHitCount());
+        stats.put("naturalIdMisses", naturalIds.getCacheMissCount());
+        stats.put("naturalIdPuts", naturalIds.getCachePutCount());
+        stats.put("naturalIdHitRate", hitRate(naturalIds.getCacheHitCount(), naturalIds.getCacheMissCount()));
+        stats.put("naturalIdQueries", naturalIds.getExecutionCount());
+        return stats;
+    }
+
+    private double hitRate(long hits, long misses) {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
 }
@@ -0,0 +1,382 @@
+package com.revature.service;
+
+import com.revature.dto.AdminStatsResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Admin dashboard counts, served from memory: the admin_daily_stats rollup as of the last checkpoint plus the
+// changes this instance has counted since. The write paths report changes after they commit; each checkpoint adds
+// them to the rollup and reloads it, picking up other instances' changes. Changes counted but not yet checkpointed
+// are lost if the process dies; the reconciliation at startup books the difference on the current day. It is skipped
+// while another instance has checkpointed within the last few intervals, as that instance's uncheckpointed changes
+// are already in the tables and would be counted twice.
+@Slf4j
+@Service
+public class AdminStatsService implements SmartLifecycle {
+
+    private static final String CHECKPOINT_SQL = """
+            INSERT INTO admin_daily_stats (day, users, banned_users, posts, comments)
+            SELECT * FROM unnest(?::date[], ?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[])
+            ON CONFLICT (day) DO UPDATE SET
+                users = admin_daily_stats.users + EXCLUDED.users,
+                banned_users = admin_daily_stats.banned_users + EXCLUDED.banned_users,
+                posts = admin_daily_stats.posts + EXCLUDED.posts,
+                comments = admin_daily_stats.comments + EXCLUDED.comments""";
+
+    private static final String LOAD_SQL = "SELECT day, users, banned_users, posts, comments FROM admin_daily_stats";
+
+    // One statement, so the table counts and the rollup come from the same snapshot
+    private static final String RECONCILE_SQL = """
+            INSERT INTO admin_daily_stats AS s (day, users, banned_users, posts, comments)
+            SELECT ?::date, a.users - r.users, a.banned_users - r.banned_users, a.posts - r.posts, a.comments - r.comments
+            FROM (SELECT (SELECT count(*) FROM users) AS users,
+                         (SELECT count(*) FROM users WHERE is_banned) AS banned_users,
+                         (SELECT count(*) FROM posts) AS posts,
+                         (SELECT count(*) FROM comments) AS comments) a,
+                 (SELECT coalesce(sum(users), 0) AS users, coalesce(sum(banned_users), 0) AS banned_users,
+                         coalesce(sum(posts), 0) AS posts, coalesce(sum(comments), 0) AS comments
+                  FROM admin_daily_stats) r
+            WHERE (a.users, a.banned_users, a.posts, a.comments) <> (r.users, r.banned_users, r.posts, r.comments)
+            ON CONFLICT (day) DO UPDATE SET
+                users = s.users + EXCLUDED.users,
+                banned_users = s.banned_users + EXCLUDED.banned_users,
+                posts = s.posts + EXCLUDED.posts,
+                comments = s.comments + EXCLUDED.comments""";
+
+    // Other instances that checkpointed within the window, i.e. may have changes the tables have and the rollup lacks
+    private static final String OTHER_LIVE_INSTANCES_SQL = """
+            SELECT count(*) FROM admin_stats_instances
+            WHERE instance_id <> ? AND checkpointed_at > now() - ? * interval '1 millisecond'""";
+
+    private static final String HEARTBEAT_SQL = """
+            INSERT INTO admin_stats_instances (instance_id, checkpointed_at) VALUES (?, now())
+            ON CONFLICT (instance_id) DO UPDATE SET checkpointed_at = EXCLUDED.checkpointed_at""";
+
+    // Instances that stopped without removing themselves
+    private static final String EXPIRE_INSTANCES_SQL =
+            "DELETE FROM admin_stats_instances WHERE checkpointed_at < now() - interval '1 day'";
+
+    private static final String REMOVE_INSTANCE_SQL = "DELETE FROM admin_stats_instances WHERE instance_id = ?";
+
+    // Everything a user's deletion cascades to: their posts, and their comments, all comments on their posts and the
+    // replies below their comments (through parent_id, see V9), each counted once
+    private static final String USER_CONTENT_SQL = """
+            SELECT (SELECT count(*) FROM posts WHERE author_id = ?),
+                   (SELECT count(*) FROM (
+                        SELECT id FROM comments WHERE author_id = ?
+                        UNION
+                        SELECT c.id FROM comments c JOIN posts p ON p.id = c.post_id WHERE p.author_id = ?
+                        UNION
+                        SELECT r.id FROM comments a
+                        JOIN comments r ON r.post_id = a.post_id AND r.path > a.path AND r.path < a.path || '/'
+                        WHERE a.author_id = ?) deleted)""";
+
+    // Checkpoints an instance may miss, e.g. to a slow database, before it no longer counts as live
+    private static final int LIVENESS_INTERVALS = 3;
+
+    private static final int USERS = 0;
+    private static final int BANNED_USERS = 1;
+    private static final int POSTS = 2;
+    private static final int COMMENTS = 3;
+
+    private static final class Changes {
+
+        private final LongAdder[] counts = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder()};
+    }
+
+    // The rollup as last read with its sums, and changes taken out of pending but not yet part of it
+    private record View(Map<LocalDate, long[]> rollup, long[] rollupTotals, Map<LocalDate, long[]> checkpointing) {
+
+        View withCheckpointing(Map<LocalDate, long[]> changes) {
+            return new View(rollup, rollupTotals, changes);
+        }
+
+        // The rollup with checkpointed changes added locally, for when it cannot be read back
+        View plus(Map<LocalDate, long[]> changes) {
+            Map<LocalDate, long[]> days = new HashMap<>();
+            rollup.forEach((day, counts) -> days.put(day, counts.clone()));
+            long[] totals = rollupTotals.clone();
+            changes.forEach((day, counts) -> {
+                add(days.computeIfAbsent(day, d -> new long[4]), counts);
+                add(totals, counts);
+            });
+            return new View(days, totals, Map.of());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean reconcileOnStartup;
+    private final long livenessMillis;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<LocalDate, Changes> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private volatile View view = new View(Map.of(), new long[4], Map.of());
+    private volatile boolean running;
+
+    public AdminStatsService(JdbcTemplate jdbcTemplate,
+                             @Value("${app.admin.stats.reconcile-on-startup:true}") boolean reconcileOnStartup,
+                             @Value("${app.admin.stats.checkpoint-interval:10000}") Duration checkpointInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reconcileOnStartup = reconcileOnStartup;
+        this.livenessMillis = checkpointInterval.toMillis() * LIVENESS_INTERVALS;
+    }
+
+    @PostConstruct
+    void load() {
+        if (reconcileOnStartup) {
+            jdbcTemplate.update(EXPIRE_INSTANCES_SQL);
+            long others = jdbcTemplate.queryForObject(OTHER_LIVE_INSTANCES_SQL, Long.class, instanceId, livenessMillis);
+            if (others > 0) {
+                log.info("Not reconciling admin stats: {} other instances may have changes not checkpointed yet",
+                        others);
+            } else if (jdbcTemplate.update(RECONCILE_SQL, LocalDate.now()) > 0) {
+                log.info("Admin stats rollup differed from the tables; booked the difference on {}", LocalDate.now());
+            }
+        }
+        jdbcTemplate.update(HEARTBEAT_SQL, instanceId);
+        view = readRollup();
+    }
+
+    public void userRegistered() {
+        record(USERS, 1);
+    }
+
+    public void userBanned() {
+        record(BANNED_USERS, 1);
+    }
+
+    // Called before the delete, while the user's posts and comments can still be counted
+    public void userDeleted(Long userId, boolean banned) {
+        record(jdbcTemplate.queryForObject(USER_CONTENT_SQL,
+                (rs, row) -> new long[] {-1, banned ? -1 : 0, -rs.getLong(1), -rs.getLong(2)},
+                userId, userId, userId, userId));
+    }
+
+    public void postCreated() {
+        record(POSTS, 1);
+    }
+
+    public void postDeleted(long comments) {
+        long[] changes = new long[4];
+        changes[POSTS] = -1;
+        changes[COMMENTS] = -comments;
+        record(changes);
+    }
+
+    public void commentsAdded(long comments) {
+        record(COMMENTS, comments);
+    }
+
+    public void commentsDeleted(long comments) {
+        record(COMMENTS, -comments);
+    }
+
+    // Current totals and the net change on each of the last `days` days, newest first
+    public AdminStatsResponse getStats(int days) {
+        View current = view;
+        long[] totals = current.rollupTotals().clone();
+        current.checkpointing().values().forEach(counts -> add(totals, counts));
+        pending.values().forEach(changes -> add(totals, sums(changes)));
+
+        List<AdminStatsResponse.DailyStats> daily = new ArrayList<>(days);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < days; i++) {
+            LocalDate day = today.minusDays(i);
+            long[] counts = new long[4];
+            add(counts, current.rollup().get(day));
+            add(counts, current.checkpointing().get(day));
+            Changes changes = pending.get(day);
+            if (changes != null) {
+                add(counts, sums(changes));
+            }
+            daily.add(new AdminStatsResponse.DailyStats(day, counts[USERS], counts[BANNED_USERS], counts[POSTS],
+                    counts[COMMENTS]));
+        }
+        return new AdminStatsResponse(totals[USERS], totals[BANNED_USERS], totals[POSTS], totals[COMMENTS], daily);
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin.stats.checkpoint-interval:10000}")
+    public void checkpoint() {
+        checkpoint(true);
+    }
+
+    // reload picks up the other instances' changes; at shutdown nobody reads them any more
+    private void checkpoint(boolean reload) {
+        checkpointLock.lock();
+        try {
+            Map<LocalDate, long[]> drained = new HashMap<>();
+            pending.forEach((day, changes) -> {
+                long[] counts = new long[4];
+                boolean changed = false;
+                for (int i = 0; i < counts.length; i++) {
+                    // sumThenReset never loses a concurrent change: it is either in this checkpoint or the next
+                    counts[i] = changes.counts[i].sumThenReset();
+                    changed |= counts[i] != 0;
+                }
+                if (changed) {
+                    drained.put(day, counts);
+                } else if (!day.equals(LocalDate.now())) {
+                    pending.remove(day, changes);
+                    // A change that raced the removal of a past day is carried over
+                    long[] late = sums(changes);
+                    if (late[USERS] != 0 || late[BANNED_USERS] != 0 || late[POSTS] != 0 || late[COMMENTS] != 0) {
+                        add(pending.computeIfAbsent(day, d -> new Changes()), late);
+                    }
+                }
+            });
+            view = view.withCheckpointing(drained);
+
+            if (!drained.isEmpty()) {
+                List<Map.Entry<LocalDate, long[]>> entries = new ArrayList<>(drained.entrySet());
+                try {
+                    jdbcTemplate.update(CHECKPOINT_SQL,
+                            entries.stream().map(entry -> entry.getKey().toString()).toArray(String[]::new),
+                            column(entries, USERS), column(entries, BANNED_USERS), column(entries, POSTS),
+                            column(entries, COMMENTS));
+                } catch (DataAccessException e) {
+                    log.warn("Could not checkpoint admin stats for {} days, retrying next interval: {}",
+                            drained.size(), e.getMessage());
+                    drained.forEach((day, counts) -> add(pending.computeIfAbsent(day, d -> new Changes()), counts));
+                    view = view.withCheckpointing(Map.of());
+                    return;
+                }
+            }
+            if (!reload) {
+                // Everything this instance counted is in the rollup now
+                try {
+                    jdbcTemplate.update(REMOVE_INSTANCE_SQL, instanceId);
+                } catch (DataAccessException e) {
+                    log.warn("Could not deregister from admin stats, expires in {} ms: {}", livenessMillis,
+                            e.getMessage());
+                }
+                return;
+            }
+            try {
+                jdbcTemplate.update(HEARTBEAT_SQL, instanceId);
+                view = readRollup();
+            } catch (DataAccessException e) {
+                log.warn("Could not reload the admin stats rollup: {}", e.getMessage());
+                view = view.plus(drained);
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Writes what is left without reloading, and touches the database only if something is left. An instance that
+    // stops with nothing pending stays listed until it expires from the liveness window.
+    @Override
+    public void stop() {
+        running = false;
+        if (hasPending()) {
+            checkpoint(false);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server and the write-behind queue, which still reports the comments it writes on its way
+    // down, and before the datasource is closed
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 8192;
+    }
+
+    private boolean hasPending() {
+        for (Changes changes : pending.values()) {
+            long[] counts = sums(changes);
+            if (counts[USERS] != 0 || counts[BANNED_USERS] != 0 || counts[POSTS] != 0 || counts[COMMENTS] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void record(int counter, long delta) {
+        long[] changes = new long[4];
+        changes[counter] = delta;
+        record(changes);
+    }
+
+    // Counted once the caller's transaction commits, so rolled back writes never show up
+    private void record(long[] changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(pending.computeIfAbsent(LocalDate.now(), day -> new Changes()), changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(pending.computeIfAbsent(LocalDate.now(), day -> new Changes()), changes);
+            }
+        });
+    }
+
+    private View readRollup() {
+        Map<LocalDate, long[]> rollup = new HashMap<>();
+        long[] totals = new long[4];
+        jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+            long[] counts = {rs.getLong("users"), rs.getLong("banned_users"), rs.getLong("posts"),
+                    rs.getLong("comments")};
+            rollup.put(rs.getDate("day").toLocalDate(), counts);
+            add(totals, counts);
+        });
+        return new View(rollup, totals, Map.of());
+    }
+
+    private static Long[] column(List<Map.Entry<LocalDate, long[]>> entries, int counter) {
+        return entries.stream().map(entry -> entry.getValue()[counter]).toArray(Long[]::new);
+    }
+
+    private static long[] sums(Changes changes) {
+        long[] counts = new long[4];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = changes.counts[i].sum();
+        }
+        return counts;
+    }
+
+    private static void add(long[] target, long[] counts) {
+        if (counts != null) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] += counts[i];
+            }
+        }
+    }
+
+    private static void add(Changes target, long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                target.counts[i].add(counts[i]);
+            }
+        }
+    }
+}
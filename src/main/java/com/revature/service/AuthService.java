@@ -23,6 +23,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final AdminStatsService adminStatsService;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -42,6 +43,7 @@ public class AuthService {
         user.setIsBanned(false);
 
         userRepository.save(user);
+        adminStatsService.userRegistered();
 
         return new AuthResponse(null, user.getUsername(), user.getEmail(), user.getRole().name());
     }
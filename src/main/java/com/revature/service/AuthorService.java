@@ -0,0 +1,48 @@
+package com.revature.service;
+
+import com.revature.dto.AuthorProfileResponse;
+import com.revature.entity.AuthorStats;
+import com.revature.entity.Post;
+import com.revature.entity.User;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class AuthorService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final UserRepository userRepository;
+    private final PostService postService;
+    private final AuthorStatsService authorStatsService;
+
+    @Transactional(readOnly = true)
+    public AuthorProfileResponse getProfile(String username, int page, int size) {
+        User author = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        AuthorStats stats = authorStatsService.getStats(author.getId());
+        // A slice skips the COUNT query; the page total comes from the maintained published count
+        Slice<Post> posts = postService.getPublishedPostsByAuthor(author.getId(), PageRequest.of(Math.max(page, 0), pageSize));
+
+        AuthorProfileResponse response = new AuthorProfileResponse();
+        response.setId(author.getId());
+        response.setUsername(author.getUsername());
+        response.setMemberSince(author.getCreatedAt());
+        response.setStats(new AuthorProfileResponse.StatsResponse(stats.getPosts(), stats.getPublishedPosts(),
+                stats.getCommentsReceived(), stats.getFollowers(), stats.getLastActivityAt()));
+        response.setPosts(posts.getContent());
+        response.setPage(posts.getNumber());
+        response.setSize(pageSize);
+        response.setTotalPages((stats.getPublishedPosts() + pageSize - 1) / pageSize);
+        response.setHasNext(posts.hasNext());
+        return response;
+    }
+}
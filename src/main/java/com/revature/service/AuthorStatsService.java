@@ -0,0 +1,213 @@
+package com.revature.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revature.entity.AuthorStats;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.AuthorStatsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Keeps author_stats current with atomic increments from the post and comment write paths (inside their
+// transactions) and serves it from a cache that is invalidated, on every instance, once those transactions commit
+@Service
+public class AuthorStatsService {
+
+    // Rows are upserted, and so locked, in author_id order: two transactions that change the same authors then take
+    // their row locks in the same order instead of deadlocking, e.g. two users commenting on each other's posts
+    private static final String UPSERT_SQL = """
+            INSERT INTO author_stats AS s (author_id, posts, published_posts, comments_received, last_activity_at)
+            SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[], ?::timestamp[]) ORDER BY 1
+            ON CONFLICT (author_id) DO UPDATE SET
+                posts = s.posts + EXCLUDED.posts,
+                published_posts = s.published_posts + EXCLUDED.published_posts,
+                comments_received = s.comments_received + EXCLUDED.comments_received,
+                last_activity_at = GREATEST(s.last_activity_at, EXCLUDED.last_activity_at)""";
+
+    // The post authors resolved from the post ids and the commenters, merged per author and upserted in order too
+    private static final String COMMENTS_ADDED_SQL = """
+            INSERT INTO author_stats AS s (author_id, comments_received, last_activity_at)
+            SELECT author_id, sum(comments_received), max(last_activity_at) FROM (
+                SELECT p.author_id, c.comments AS comments_received, NULL::timestamp AS last_activity_at
+                FROM unnest(?::bigint[], ?::bigint[]) AS c (post_id, comments) JOIN posts p ON p.id = c.post_id
+                UNION ALL
+                SELECT a.author_id, 0, a.commented_at
+                FROM unnest(?::bigint[], ?::timestamp[]) AS a (author_id, commented_at)
+            ) changes
+            GROUP BY author_id ORDER BY author_id
+            ON CONFLICT (author_id) DO UPDATE SET
+                comments_received = s.comments_received + EXCLUDED.comments_received,
+                last_activity_at = GREATEST(s.last_activity_at, EXCLUDED.last_activity_at)
+            RETURNING author_id""";
+
+    private static final String FOLLOWERS_SQL = """
+            INSERT INTO author_stats AS s (author_id, followers) VALUES (?, ?)
+            ON CONFLICT (author_id) DO UPDATE SET followers = s.followers + EXCLUDED.followers""";
+
+    // Adds the drift between the counts and the rows as both stood in the statement's snapshot, rather than
+    // assigning the counts, so increments committed while it runs are kept
+    private static final String REBUILD_SQL = """
+            WITH actual AS (
+                SELECT u.id AS author_id,
+                       COALESCE(p.posts, 0) AS posts,
+                       COALESCE(p.published_posts, 0) AS published_posts,
+                       COALESCE(r.comments_received, 0) AS comments_received,
+                       COALESCE(f.followers, 0) AS followers
+                FROM users u
+                LEFT JOIN (SELECT author_id, count(*) AS posts, count(*) FILTER (WHERE published) AS published_posts
+                           FROM posts GROUP BY author_id) p ON p.author_id = u.id
+                LEFT JOIN (SELECT p.author_id, count(*) AS comments_received
+                           FROM comments c JOIN posts p ON p.id = c.post_id GROUP BY p.author_id) r ON r.author_id = u.id
+                LEFT JOIN (SELECT followee_id, count(*) AS followers FROM follows GROUP BY followee_id) f
+                       ON f.followee_id = u.id),
+            drift AS (
+                SELECT a.author_id,
+                       a.posts - s.posts AS posts,
+                       a.published_posts - s.published_posts AS published_posts,
+                       a.comments_received - s.comments_received AS comments_received,
+                       a.followers - s.followers AS followers
+                FROM actual a JOIN author_stats s ON s.author_id = a.author_id
+                WHERE (a.posts, a.published_posts, a.comments_received, a.followers)
+                      IS DISTINCT FROM (s.posts, s.published_posts, s.comments_received, s.followers))
+            UPDATE author_stats s SET posts = s.posts + d.posts,
+                                      published_posts = s.published_posts + d.published_posts,
+                                      comments_received = s.comments_received + d.comments_received,
+                                      followers = s.followers + d.followers
+            FROM drift d
+            WHERE s.author_id = d.author_id""";
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private record Change(Long authorId, long posts, long publishedPosts, long commentsReceived,
+                          LocalDateTime activityAt) {
+    }
+
+    private final AuthorStatsRepository authorStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationBus invalidationBus;
+    private final Cache<Long, AuthorStats> cache;
+    // Bumped by every invalidation of a key in the stripe, so a load that overlapped one is not left in the cache
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public AuthorStatsService(AuthorStatsRepository authorStatsRepository, JdbcTemplate jdbcTemplate,
+                              InvalidationBus invalidationBus,
+                              @Value("${app.authors.stats-cache.ttl:10m}") Duration cacheTtl,
+                              @Value("${app.authors.stats-cache.max-size:10000}") long cacheMaxSize) {
+        this.authorStatsRepository = authorStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBus = invalidationBus;
+        this.cache = Caffeine.newBuilder().expireAfterWrite(cacheTtl).maximumSize(cacheMaxSize).build();
+        invalidationBus.subscribe(InvalidationTopic.AUTHOR_STATS, this::invalidate, this::invalidateAll);
+    }
+
+    // A load that started before an invalidation may have read the row before the change committed. Such a load is
+    // still returned but not kept: it is put, then dropped again if the generation moved since it started
+    @Transactional(readOnly = true)
+    public AuthorStats getStats(Long authorId) {
+        AuthorStats cached = cache.getIfPresent(authorId);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generations.get(stripe(authorId));
+        AuthorStats stats = authorStatsRepository.findById(authorId)
+                .orElseGet(() -> new AuthorStats(authorId, 0L, 0L, 0L, 0L, null));
+        cache.put(authorId, stats);
+        if (generations.get(stripe(authorId)) != generation) {
+            cache.asMap().remove(authorId, stats);
+        }
+        return stats;
+    }
+
+    public void postCreated(Long authorId, boolean published, LocalDateTime at) {
+        increment(authorId, 1, published ? 1 : 0, 0, at);
+    }
+
+    public void postPublicationChanged(Long authorId, boolean wasPublished, boolean published, LocalDateTime activityAt) {
+        increment(authorId, 0, Boolean.compare(published, wasPublished), 0, activityAt);
+    }
+
+    public void postDeleted(Long authorId, boolean wasPublished, long comments) {
+        increment(authorId, -1, wasPublished ? -1 : 0, -comments, null);
+    }
+
+    public void commentAdded(Long postAuthorId, Long commenterId, LocalDateTime at) {
+        if (postAuthorId.equals(commenterId)) {
+            increment(postAuthorId, 0, 0, 1, at);
+        } else {
+            upsert(List.of(new Change(postAuthorId, 0, 0, 1, null), new Change(commenterId, 0, 0, 0, at)));
+        }
+    }
+
+    // A deleted comment takes its replies with it
+    public void commentDeleted(Long postAuthorId, long comments) {
+        increment(postAuthorId, 0, 0, -comments, null);
+    }
+
+    public void followersChanged(Long authorId, long delta) {
+        jdbcTemplate.update(FOLLOWERS_SQL, authorId, delta);
+        invalidationBus.publish(InvalidationTopic.AUTHOR_STATS, authorId);
+    }
+
+    // Write-behind batches only know post ids: one statement for the batch, authors resolved in SQL
+    public void commentsAdded(Map<Long, Long> commentsByPost, Map<Long, LocalDateTime> lastCommentByAuthor) {
+        List<Long> authors = jdbcTemplate.queryForList(COMMENTS_ADDED_SQL, Long.class,
+                commentsByPost.keySet().toArray(Long[]::new), commentsByPost.values().toArray(Long[]::new),
+                lastCommentByAuthor.keySet().toArray(Long[]::new),
+                lastCommentByAuthor.values().stream().map(AuthorStatsService::timestamp).toArray(String[]::new));
+        authors.forEach(authorId -> invalidationBus.publish(InvalidationTopic.AUTHOR_STATS, authorId));
+    }
+
+    // Corrects drift from changes that bypass the write paths, e.g. cascading deletes of a banned user's comments
+    @Scheduled(cron = "${app.authors.stats-rebuild-cron:0 30 4 * * *}")
+    public void rebuild() {
+        jdbcTemplate.update(REBUILD_SQL);
+        invalidateAll();
+    }
+
+    // The generation moves before the entry goes, which is what getStats relies on
+    private void invalidate(long authorId) {
+        generations.incrementAndGet(stripe(authorId));
+        cache.invalidate(authorId);
+    }
+
+    private void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(long authorId) {
+        return (int) Math.floorMod(authorId, (long) GENERATION_STRIPES);
+    }
+
+    private void increment(Long authorId, long posts, long publishedPosts, long commentsReceived, LocalDateTime activityAt) {
+        upsert(List.of(new Change(authorId, posts, publishedPosts, commentsReceived, activityAt)));
+    }
+
+    // At most one change per author, as a row can only be upserted once per statement
+    private void upsert(List<Change> changes) {
+        jdbcTemplate.update(UPSERT_SQL, changes.stream().map(Change::authorId).toArray(Long[]::new),
+                changes.stream().map(Change::posts).toArray(Long[]::new),
+                changes.stream().map(Change::publishedPosts).toArray(Long[]::new),
+                changes.stream().map(Change::commentsReceived).toArray(Long[]::new),
+                changes.stream().map(change -> timestamp(change.activityAt())).toArray(String[]::new));
+        changes.forEach(change -> invalidationBus.publish(InvalidationTopic.AUTHOR_STATS, change.authorId()));
+    }
+
+    private static String timestamp(LocalDateTime at) {
+        return at != null ? Timestamp.valueOf(at).toString() : null;
+    }
+
+}
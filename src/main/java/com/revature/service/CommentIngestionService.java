@@ -0,0 +1,80 @@
+package com.revature.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revature.datasource.ReadYourWritesTracker;
+import com.revature.dto.CommentRequest;
+import com.revature.dto.CommentResponse;
+import com.revature.entity.User;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.PostRepository;
+import com.revature.repository.UserRepository;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Entry point for new comments: queues them for batched insertion when write-behind is enabled,
+// otherwise (or when the queue is full) falls back to the transactional CommentService path
+@Service
+public class CommentIngestionService {
+
+    private final CommentService commentService;
+    private final CommentWriteBehindQueue writeBehindQueue;
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    // A viral post receives most of the comments, so its existence check is answered from memory until the post's
+    // deletion arrives on the invalidation bus. A comment accepted before that, or racing the deletion, gets its 201
+    // and is then dropped by the writer, as if it had been written and deleted with the post.
+    private final Cache<Long, Boolean> knownPosts = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .build();
+
+    public CommentIngestionService(CommentService commentService, CommentWriteBehindQueue writeBehindQueue,
+                                   UserRepository userRepository, PostRepository postRepository,
+                                   ReadYourWritesTracker readYourWritesTracker, InvalidationBus invalidationBus) {
+        this.commentService = commentService;
+        this.writeBehindQueue = writeBehindQueue;
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+        invalidationBus.subscribe(InvalidationTopic.POST, knownPosts::invalidate, knownPosts::invalidateAll);
+    }
+
+    public CommentResponse addComment(Long postId, CommentRequest request) {
+        if (!writeBehindQueue.isEnabled()) {
+            return commentService.addComment(postId, request);
+        }
+        // A reply needs its parent's path, so it is written at once, after the parent's batch has landed
+        if (request.getParentId() != null) {
+            writeBehindQueue.awaitWritten(request.getParentId());
+            return commentService.addComment(postId, request);
+        }
+
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User author = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+
+        if (knownPosts.getIfPresent(postId) == null) {
+            if (!postRepository.existsById(postId)) {
+                throw new ResourceNotFoundException("Post", "id", postId);
+            }
+            knownPosts.put(postId, Boolean.TRUE);
+        }
+
+        CommentWriteBehindQueue.PendingComment pending = new CommentWriteBehindQueue.PendingComment(
+                writeBehindQueue.nextId(), request.getContent(), author.getId(), author.getUsername(), postId,
+                LocalDateTime.now());
+        if (!writeBehindQueue.offer(pending)) {
+            return commentService.addComment(postId, request);
+        }
+        readYourWritesTracker.markWrite(username);
+        return pending.toResponse();
+    }
+}
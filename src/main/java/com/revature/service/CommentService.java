@@ -1,29 +1,47 @@
 package com.revature.service;
 
+import com.revature.audit.AuditAction;
+import com.revature.audit.AuditLog;
+import com.revature.datasource.ReadYourWritesTracker;
 import com.revature.dto.CommentRequest;
 import com.revature.dto.CommentResponse;
+import com.revature.dto.CommentThreadPage;
 import com.revature.entity.Comment;
 import com.revature.entity.Post;
 import com.revature.entity.User;
+import com.revature.event.CommentEvent;
 import com.revature.exception.ResourceNotFoundException;
 import com.revature.repository.CommentRepository;
+import com.revature.repository.CommentThreadStore;
 import com.revature.repository.PostRepository;
 import com.revature.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
 
+    private static final Pattern CURSOR = Pattern.compile("[0-9.]{1,2000}");
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthorStatsService authorStatsService;
+    private final AdminStatsService adminStatsService;
+    private final AuditLog auditLog;
+    private final CommentThreadStore commentThreadStore;
 
     @Transactional
     public CommentResponse addComment(Long postId, CommentRequest request) {
@@ -38,9 +56,27 @@ public class CommentService {
         comment.setContent(request.getContent());
         comment.setAuthor(author);
         comment.setPost(post);
+        if (request.getParentId() != null) {
+            Comment parent = commentRepository.findById(request.getParentId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", request.getParentId()));
+            if (!parent.getPost().getId().equals(postId)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Replies must be on the same post as the comment they answer");
+            }
+            if (CommentThreadStore.depth(parent.getPath()) + 1 > CommentThreadStore.MAX_DEPTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Replies can be nested at most " + CommentThreadStore.MAX_DEPTH + " levels deep");
+            }
+            comment.setParentId(parent.getId());
+        }
 
         Comment savedComment = commentRepository.save(comment);
-        return mapToResponse(savedComment);
+        authorStatsService.commentAdded(post.getAuthor().getId(), author.getId(), savedComment.getCreatedAt());
+        adminStatsService.commentsAdded(1);
+        readYourWritesTracker.markWrite(username);
+        CommentResponse response = mapToResponse(savedComment);
+        eventPublisher.publishEvent(new CommentEvent(CommentEvent.Type.ADDED, response));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -55,6 +91,21 @@ public class CommentService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public CommentThreadPage getThread(Long postId, String after, int limit) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
+        return commentThreadStore.thread(postId, cursor(after), limit);
+    }
+
+    @Transactional(readOnly = true)
+    public CommentThreadPage getReplies(Long commentId, String after, int limit) {
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", commentId));
+        return commentThreadStore.replies(comment.getPost().getId(), comment.getPath(), cursor(after), limit);
+    }
+
     @Transactional
     public CommentResponse updateComment(Long commentId, CommentRequest request) {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
@@ -69,7 +120,10 @@ public class CommentService {
 
         comment.setContent(request.getContent());
         Comment updatedComment = commentRepository.save(comment);
-        return mapToResponse(updatedComment);
+        readYourWritesTracker.markWrite(username);
+        CommentResponse response = mapToResponse(updatedComment);
+        eventPublisher.publishEvent(new CommentEvent(CommentEvent.Type.UPDATED, response));
+        return response;
     }
 
     @Transactional
@@ -88,14 +142,31 @@ public class CommentService {
             throw new SecurityException("You can only delete your own comments");
         }
 
+        // The parent_id cascade deletes the replies with it; each one is counted, audited and announced
+        List<CommentThreadPage.ThreadedComment> replies = commentThreadStore.lockReplies(commentId,
+                comment.getPost().getId(), comment.getPath());
+        CommentResponse response = mapToResponse(comment);
+        authorStatsService.commentDeleted(comment.getPost().getAuthor().getId(), 1 + replies.size());
+        adminStatsService.commentsDeleted(1 + replies.size());
         commentRepository.delete(comment);
+        auditLog.record(AuditAction.COMMENT_DELETED, commentId, "post " + response.getPostId());
+        for (CommentThreadPage.ThreadedComment reply : replies) {
+            auditLog.record(AuditAction.COMMENT_DELETED, reply.getId(),
+                    "post " + response.getPostId() + ", reply below comment " + commentId);
+        }
+        readYourWritesTracker.markWrite(username);
+        eventPublisher.publishEvent(new CommentEvent(CommentEvent.Type.DELETED, response));
+        replies.forEach(reply -> eventPublisher.publishEvent(new CommentEvent(CommentEvent.Type.DELETED,
+                new CommentResponse(reply.getId(), reply.getContent(), reply.getAuthor(), reply.getPostId(),
+                        reply.getParentId(), reply.getCreatedAt(), reply.getUpdatedAt()))));
     }
 
-    private CommentResponse mapToResponse(Comment comment) {
+    CommentResponse mapToResponse(Comment comment) {
         CommentResponse response = new CommentResponse();
         response.setId(comment.getId());
         response.setContent(comment.getContent());
         response.setPostId(comment.getPost().getId());
+        response.setParentId(comment.getParentId());
         response.setCreatedAt(comment.getCreatedAt());
         response.setUpdatedAt(comment.getUpdatedAt());
 
@@ -106,4 +177,11 @@ public class CommentService {
 
         return response;
     }
+
+    private static String cursor(String after) {
+        if (after != null && !CURSOR.matcher(after).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        return after;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+package com.revature.service;
+
+import com.revature.event.CommentEvent;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.repository.PostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+// Fans comment events out to SSE subscribers of a post. Each event is serialized once into a frame shared by
+// every subscriber; each subscriber drains its own bounded queue on the dispatcher pool, and a subscriber whose
+// queue overflows is disconnected so it reconnects with Last-Event-ID and replays from the post's recent frames.
+// Event ids are "<instance>-<sequence>": an id from before a restart, from another instance or from a topic that
+// has since been forgotten cannot be resumed from, and gets a reset instead of a silent gap.
+@Slf4j
+@Service
+public class CommentStreamService implements DisposableBean {
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    // Sent instead of a replay the server can no longer provide; the client refetches the comment list
+    private static final Set<DataWithMediaType> RESET = SseEmitter.event().name("reset").data("").build();
+
+    private final PostRepository postRepository;
+    private final JsonMapper jsonMapper;
+    private final int replayBufferSize;
+    private final int subscriberQueueCapacity;
+    private final long emitterTimeoutMillis;
+    private final ExecutorService dispatcher;
+    private final long idleTopicTimeoutNanos;
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong eventIds = new AtomicLong();
+    private final Map<Long, Topic> topics = new ConcurrentHashMap<>();
+
+    public CommentStreamService(PostRepository postRepository, JsonMapper jsonMapper,
+                                @Value("${app.comments.stream.replay-buffer-size:256}") int replayBufferSize,
+                                @Value("${app.comments.stream.subscriber-queue-capacity:64}") int subscriberQueueCapacity,
+                                @Value("${app.comments.stream.timeout:30m}") Duration emitterTimeout,
+                                @Value("${app.comments.stream.dispatcher-threads:4}") int dispatcherThreads,
+                                @Value("${app.comments.stream.idle-topic-timeout:5m}") Duration idleTopicTimeout) {
+        this.postRepository = postRepository;
+        this.jsonMapper = jsonMapper;
+        this.replayBufferSize = replayBufferSize;
+        this.subscriberQueueCapacity = subscriberQueueCapacity;
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+        this.idleTopicTimeoutNanos = idleTopicTimeout.toNanos();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, runnable -> {
+            Thread thread = new Thread(runnable, "comment-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(Long postId, String lastEventId) {
+        if (!postRepository.existsById(postId)) {
+            throw new ResourceNotFoundException("Post", "id", postId);
+        }
+
+        // Subscribes under the map's lock for the post, which the heartbeat takes to forget an idle topic, so a
+        // subscriber never lands on a topic that is no longer in the map. Anything published before the topic
+        // existed was not kept for it.
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        topics.compute(postId, (id, current) -> {
+            Topic topic = current != null ? current : new Topic(eventIds.get());
+            topic.subscribe(new Subscriber(topic, emitter), lastEventId);
+            return topic;
+        });
+        return emitter;
+    }
+
+    // Only posts somebody watches have a topic. Every event takes an id all the same, under the map's lock for the
+    // post, so a topic created after it counts it as one it cannot replay.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentEvent(CommentEvent event) {
+        topics.compute(event.postId(), (postId, topic) -> {
+            long id = eventIds.incrementAndGet();
+            if (topic != null) {
+                topic.publish(new Frame(id, SseEmitter.event()
+                        .id(instance + "-" + id)
+                        .name("comment-" + event.type().name().toLowerCase(Locale.ROOT))
+                        .data(jsonMapper.writeValueAsString(event.comment()), MediaType.APPLICATION_JSON)
+                        .build()));
+            }
+            return topic;
+        });
+    }
+
+    public int subscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.subscribers.size()).sum();
+    }
+
+    int topicCount() {
+        return topics.size();
+    }
+
+    // Keeps proxies from closing idle streams, surfaces dead connections, and forgets topics nobody watches
+    @Scheduled(fixedRateString = "${app.comments.stream.heartbeat-interval:15000}")
+    public void heartbeat() {
+        Frame heartbeat = new Frame(0, HEARTBEAT);
+        topics.forEach((postId, topic) -> {
+            if (topic.subscribers.isEmpty()) {
+                if (topic.idleSince == 0) {
+                    topic.idleSince = System.nanoTime();
+                } else if (System.nanoTime() - topic.idleSince >= idleTopicTimeoutNanos) {
+                    // Checked again under the lock subscribe takes, in case somebody subscribed in the meantime
+                    topics.computeIfPresent(postId, (id, current) ->
+                            current == topic && current.subscribers.isEmpty() ? null : current);
+                }
+                return;
+            }
+            topic.idleSince = 0;
+            topic.subscribers.forEach(subscriber -> subscriber.enqueue(heartbeat));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        topics.values().forEach(topic -> topic.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        dispatcher.shutdownNow();
+    }
+
+    // The sequence number of an id this instance handed out, or -1 for any other value
+    private long sequenceOf(String lastEventId) {
+        String prefix = instance + "-";
+        if (!lastEventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId.substring(prefix.length()));
+            return sequence >= 0 && sequence <= eventIds.get() ? sequence : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Frame(long id, Set<DataWithMediaType> data) {
+    }
+
+    private class Topic {
+
+        private final Frame[] recent = new Frame[replayBufferSize];
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private long appended;
+        // Frames up to this id are not in recent, having been overwritten or published before the topic existed
+        private long evictedUpTo;
+        private volatile long idleSince;
+
+        Topic(long createdAfter) {
+            this.evictedUpTo = createdAfter;
+        }
+
+        // Publishing and subscribing share the lock, so a new subscriber sees each frame exactly once
+        void publish(Frame frame) {
+            lock.lock();
+            try {
+                int slot = (int) (appended++ % recent.length);
+                if (recent[slot] != null) {
+                    evictedUpTo = recent[slot].id();
+                }
+                recent[slot] = frame;
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.enqueue(frame);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void subscribe(Subscriber subscriber, String lastEventIdHeader) {
+            lock.lock();
+            try {
+                subscribers.add(subscriber);
+                subscriber.enqueue(new Frame(0, HEARTBEAT));
+                if (lastEventIdHeader == null) {
+                    return;
+                }
+                long lastEventId = sequenceOf(lastEventIdHeader);
+                List<Frame> missed = new ArrayList<>();
+                for (long i = Math.max(0, appended - recent.length); i < appended; i++) {
+                    Frame frame = recent[(int) (i % recent.length)];
+                    if (frame.id() > lastEventId) {
+                        missed.add(frame);
+                    }
+                }
+                if (lastEventId < evictedUpTo || missed.size() >= subscriberQueueCapacity) {
+                    subscriber.enqueue(new Frame(0, RESET));
+                } else {
+                    missed.forEach(subscriber::enqueue);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private class Subscriber {
+
+        private final Topic topic;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Frame> queue = new ArrayBlockingQueue<>(subscriberQueueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(Topic topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+            emitter.onCompletion(this::remove);
+            emitter.onTimeout(this::close);
+            emitter.onError(error -> close());
+        }
+
+        void enqueue(Frame frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                // Too slow to keep up: the client reconnects and resumes from the replay buffer
+                log.debug("Disconnecting slow comment stream subscriber after {} queued events", queue.size());
+                close();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Frame frame;
+                while (!closed && (frame = queue.poll()) != null) {
+                    emitter.send(frame.data());
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void close() {
+            if (!closed) {
+                closed = true;
+                remove();
+                emitter.complete();
+            }
+        }
+
+        private void remove() {
+            closed = true;
+            topic.subscribers.remove(this);
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.revature.service;
+
+import com.revature.dto.CommentResponse;
+import com.revature.event.CommentEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Buffers validated comments in memory and inserts them in JDBC batches from a single writer thread.
+// Ids come from the comments identity sequence in blocks, so the id handed to the client is the real one.
+// Failures the database may not repeat (lost connections, pool timeouts, serialization failures) are retried with
+// backoff for as long as the application runs; a row the database rejects is dropped. That happens to a comment
+// whose post was deleted after it was accepted, which leaves the same state as the deletion's cascade would have.
+@Slf4j
+@Component
+public class CommentWriteBehindQueue implements SmartLifecycle {
+
+    // A retried insert may find its row already written by an attempt whose acknowledgement was lost
+    private static final String INSERT_SQL = """
+            INSERT INTO comments (id, content, author_id, post_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (id) DO NOTHING""";
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('comments', 'id')) FROM generate_series(1, ?)";
+    private static final long STOP_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long INITIAL_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+    // Once stopping, a database that stays unreachable must not hold up the shutdown indefinitely
+    private static final int MAX_ATTEMPTS_WHEN_STOPPING = 3;
+
+    public record PendingComment(Long id, String content, Long authorId, String authorUsername, Long postId,
+                                 LocalDateTime createdAt) {
+
+        public CommentResponse toResponse() {
+            CommentResponse response = new CommentResponse();
+            response.setId(id);
+            response.setContent(content);
+            response.setPostId(postId);
+            response.setCreatedAt(createdAt);
+            response.setUpdatedAt(createdAt);
+            response.setAuthor(new CommentResponse.UserResponse(authorId, authorUsername));
+            return response;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthorStatsService authorStatsService;
+    private final AdminStatsService adminStatsService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<PendingComment> queue;
+    private final ArrayDeque<Long> reservedIds = new ArrayDeque<>();
+    // Guards reservedIds; a lock rather than a monitor because refilling it queries the database
+    private final ReentrantLock idLock = new ReentrantLock();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    // Accepted and not yet written (or dropped), for replies that arrive before their parent has landed
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public CommentWriteBehindQueue(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                                   AuthorStatsService authorStatsService, AdminStatsService adminStatsService,
+                                   @Value("${app.comments.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${app.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${app.comments.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${app.comments.write-behind.flush-interval:5ms}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.authorStatsService = authorStatsService;
+        this.adminStatsService = adminStatsService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Long nextId() {
+        idLock.lock();
+        try {
+            if (reservedIds.isEmpty()) {
+                reservedIds.addAll(jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, batchSize));
+            }
+            return reservedIds.poll();
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    // False when the queue is full or shutting down; the caller then writes synchronously
+    public boolean offer(PendingComment comment) {
+        if (!running) {
+            return false;
+        }
+        queuedIds.add(comment.id());
+        if (!queue.offer(comment)) {
+            queuedIds.remove(comment.id());
+            return false;
+        }
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    // Blocks until the comment is written, if it is still queued
+    public void awaitWritten(Long id) {
+        if (queuedIds.contains(id)) {
+            flush();
+        }
+    }
+
+    // Blocks until everything accepted so far has been written (or dropped as unwritable)
+    public void flush() {
+        long target = accepted.get();
+        while (completed.get() < target && writer != null && writer.isAlive()) {
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "comment-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything that raced the shutdown flag is written here on the stopping thread
+        List<PendingComment> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            write(remaining);
+            remaining.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops after the web server has finished its graceful shutdown, so in-flight requests can still enqueue
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Comment write-behind batch of {} failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Waits up to the flush interval for the batch to fill, returning early once it is full or the queue stops
+    private void fillBatch(List<PendingComment> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            PendingComment next = queue.poll(Math.min(remaining, STOP_CHECK_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    // Counted as completed once its stats and events are out too, so flush() returns with them visible
+    private void write(List<PendingComment> batch) {
+        try {
+            List<PendingComment> written = insert(batch);
+            updateAuthorStats(written);
+            adminStatsService.commentsAdded(written.size());
+            written.forEach(comment ->
+                    eventPublisher.publishEvent(new CommentEvent(CommentEvent.Type.ADDED, comment.toResponse())));
+        } finally {
+            batch.forEach(comment -> queuedIds.remove(comment.id()));
+            completed.addAndGet(batch.size());
+        }
+    }
+
+    // Returns the comments now stored
+    private List<PendingComment> insert(List<PendingComment> batch) {
+        List<PendingComment> written = new ArrayList<>(batch.size());
+        List<PendingComment> remaining = batch;
+        int attempts = 0;
+        while (!remaining.isEmpty()) {
+            try {
+                insertBatch(remaining);
+                written.addAll(remaining);
+                return written;
+            } catch (DataAccessException e) {
+                if (isRetryable(e)) {
+                    if (!backOff(++attempts, remaining, e)) {
+                        return written;
+                    }
+                    continue;
+                }
+            }
+            // One bad row must not lose the rest of the batch
+            List<PendingComment> retry = new ArrayList<>();
+            for (PendingComment comment : remaining) {
+                try {
+                    insertBatch(List.of(comment));
+                    written.add(comment);
+                } catch (DataAccessException e) {
+                    if (isRetryable(e)) {
+                        retry.add(comment);
+                    } else {
+                        log.warn("Dropping queued comment {} on post {}, rejected by the database: {}",
+                                comment.id(), comment.postId(), e.getMessage());
+                    }
+                }
+            }
+            remaining = retry;
+            if (!remaining.isEmpty() && !backOff(++attempts, remaining, null)) {
+                return written;
+            }
+        }
+        return written;
+    }
+
+    private void insertBatch(List<PendingComment> comments) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, comments, comments.size(), (ps, comment) -> {
+            Timestamp createdAt = Timestamp.valueOf(comment.createdAt());
+            ps.setLong(1, comment.id());
+            ps.setString(2, comment.content());
+            ps.setLong(3, comment.authorId());
+            ps.setLong(4, comment.postId());
+            ps.setTimestamp(5, createdAt);
+            ps.setTimestamp(6, createdAt);
+        });
+    }
+
+    // Resource failures cover a connection that could not be obtained or was lost on the way
+    static boolean isRetryable(DataAccessException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    // False when the comments are given up on: the writer was interrupted, or it is stopping and out of attempts
+    private boolean backOff(int attempts, List<PendingComment> comments, DataAccessException cause) {
+        if (!running && attempts >= MAX_ATTEMPTS_WHEN_STOPPING || Thread.currentThread().isInterrupted()) {
+            log.error("Dropping {} queued comments after {} attempts, ids {}", comments.size(), attempts,
+                    comments.stream().map(PendingComment::id).toList(), cause);
+            return false;
+        }
+        long backoff = Math.min(INITIAL_BACKOFF_NANOS << Math.min(attempts - 1, 16), MAX_BACKOFF_NANOS);
+        log.warn("Could not write {} queued comments (attempt {}), retrying in {} ms{}", comments.size(), attempts,
+                TimeUnit.NANOSECONDS.toMillis(backoff), cause != null ? ": " + cause.getMessage() : "");
+        LockSupport.parkNanos(backoff);
+        return true;
+    }
+
+    private void updateAuthorStats(List<PendingComment> written) {
+        Map<Long, Long> commentsByPost = new HashMap<>();
+        Map<Long, LocalDateTime> lastCommentByAuthor = new HashMap<>();
+        for (PendingComment comment : written) {
+            commentsByPost.merge(comment.postId(), 1L, Long::sum);
+            lastCommentByAuthor.merge(comment.authorId(), comment.createdAt(),
+                    (a, b) -> a.isAfter(b) ? a : b);
+        }
+        try {
+            authorStatsService.commentsAdded(commentsByPost, lastCommentByAuthor);
+        } catch (DataAccessException e) {
+            log.warn("Could not update author stats for {} queued comments: {}", written.size(), e.getMessage());
+        }
+    }
+}
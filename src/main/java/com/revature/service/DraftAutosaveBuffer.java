@@ -0,0 +1,283 @@
+package com.revature.service;
+
+import com.revature.dto.DraftPatchRequest;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.PostBodyStore;
+import com.revature.repository.PostBodyStore.VersionedBody;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Autosaved draft bodies, patched in memory and written to post_bodies once a post's draft has been quiet for
+// quiet-period, or max-delay after its first unsaved change, so a burst of autosaves costs one body write.
+// Every patch gets the next version; a write replaces the stored body only if that is still the version the draft
+// was loaded at, so a full save (PUT, publish) or a patch on another instance always wins over a stale draft.
+// Unsaved drafts are lost if the process dies; shutdown writes them.
+// Drafts live on the instance that took the patch, and only the version of a written draft is in post_bodies. With
+// more than one instance, the load balancer must route a post's PATCHes to the same instance (sticky on the post id):
+// a patch on another instance loads the last written version and gets a 409 until the first one has flushed.
+@Slf4j
+@Component
+public class DraftAutosaveBuffer {
+
+    private static final class Draft {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private String content;
+        private long version;
+        private long persistedVersion;
+        private long firstChangeNanos;
+        private long lastChangeNanos;
+        private boolean removed;
+        // Set while a full save of the post is in flight; a fence stands in for a post that had no draft
+        private boolean replacing;
+        private boolean fence;
+
+        Draft(VersionedBody stored) {
+            this.content = stored.content();
+            this.version = stored.version();
+            this.persistedVersion = stored.version();
+        }
+
+        Draft() {
+            this.replacing = true;
+            this.fence = true;
+        }
+
+        boolean dirty() {
+            return version != persistedVersion;
+        }
+    }
+
+    private final PostBodyStore postBodyStore;
+    private final long quietPeriodNanos;
+    private final long maxDelayNanos;
+    private final int maxBufferedDrafts;
+    private final Map<Long, Draft> drafts = new ConcurrentHashMap<>();
+
+    public DraftAutosaveBuffer(PostBodyStore postBodyStore, InvalidationBus invalidationBus,
+                               @Value("${app.posts.autosave.quiet-period:5s}") Duration quietPeriod,
+                               @Value("${app.posts.autosave.max-delay:30s}") Duration maxDelay,
+                               @Value("${app.posts.autosave.max-buffered-drafts:10000}") int maxBufferedDrafts) {
+        this.postBodyStore = postBodyStore;
+        this.quietPeriodNanos = quietPeriod.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.maxBufferedDrafts = maxBufferedDrafts;
+        // A deleted post's draft has nothing left to save. Without ids, drafts of deleted posts fail their
+        // compare-and-set at the next flush and are dropped there.
+        invalidationBus.subscribe(InvalidationTopic.POST, postId -> remove(postId), () -> { });
+    }
+
+    public VersionedBody apply(Long postId, long baseVersion, List<DraftPatchRequest.Edit> edits) {
+        while (true) {
+            Draft draft = drafts.get(postId);
+            if (draft == null) {
+                Draft loaded = new Draft(postBodyStore.findVersioned(postId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId)));
+                Draft existing = drafts.putIfAbsent(postId, loaded);
+                draft = existing != null ? existing : loaded;
+            }
+            draft.lock.lock();
+            try {
+                if (draft.removed) {
+                    continue;
+                }
+                if (draft.replacing) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "The post is being saved");
+                }
+                if (baseVersion != draft.version) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Draft is at version " + draft.version + ", not " + baseVersion);
+                }
+                draft.content = applyEdits(draft.content, edits);
+                long now = System.nanoTime();
+                if (!draft.dirty()) {
+                    draft.firstChangeNanos = now;
+                }
+                draft.lastChangeNanos = now;
+                draft.version++;
+                if (drafts.size() > maxBufferedDrafts) {
+                    // Over the bound: written through, and dropped from memory at the next flush
+                    persist(postId, draft);
+                }
+                return new VersionedBody(draft.content, draft.version);
+            } finally {
+                draft.lock.unlock();
+            }
+        }
+    }
+
+    // The latest draft of a post, saved or not, while it is held in memory
+    public Optional<VersionedBody> pending(Long postId) {
+        Draft draft = drafts.get(postId);
+        if (draft == null) {
+            return Optional.empty();
+        }
+        draft.lock.lock();
+        try {
+            return draft.removed || draft.fence ? Optional.empty()
+                    : Optional.of(new VersionedBody(draft.content, draft.version));
+        } finally {
+            draft.lock.unlock();
+        }
+    }
+
+    // Hands a full save (PUT, publish) the post's draft if it has unsaved changes. Until the caller's transaction
+    // completes, patches get a 409; the draft is dropped once it commits and left as it was if it rolls back.
+    public Optional<VersionedBody> replace(Long postId) {
+        while (true) {
+            Draft draft = drafts.computeIfAbsent(postId, id -> new Draft());
+            draft.lock.lock();
+            try {
+                if (draft.removed) {
+                    continue;
+                }
+                draft.replacing = true;
+                afterCompletion(committed -> {
+                    draft.lock.lock();
+                    try {
+                        if (committed || draft.fence) {
+                            draft.removed = true;
+                            drafts.remove(postId, draft);
+                        } else {
+                            draft.replacing = false;
+                        }
+                    } finally {
+                        draft.lock.unlock();
+                    }
+                });
+                return draft.dirty() ? Optional.of(new VersionedBody(draft.content, draft.version)) : Optional.empty();
+            } finally {
+                draft.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        return drafts.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.posts.autosave.flush-interval:1000}")
+    public void flush() {
+        flush(false);
+    }
+
+    // Runs after the web server has stopped taking requests and before the datasource is closed
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush(true);
+    }
+
+    private void flush(boolean everything) {
+        long now = System.nanoTime();
+        drafts.forEach((postId, draft) -> {
+            draft.lock.lock();
+            try {
+                if (draft.removed || draft.replacing) {
+                    return;
+                }
+                if (draft.dirty()) {
+                    boolean due = everything || now - draft.lastChangeNanos >= quietPeriodNanos
+                            || now - draft.firstChangeNanos >= maxDelayNanos;
+                    if (!due || !persist(postId, draft)) {
+                        return;
+                    }
+                }
+                // Saved drafts leave memory; the next patch reads the body back once
+                draft.removed = true;
+                drafts.remove(postId, draft);
+            } finally {
+                draft.lock.unlock();
+            }
+        });
+    }
+
+    // Called with the draft's lock held
+    private boolean persist(Long postId, Draft draft) {
+        try {
+            if (!postBodyStore.replace(postId, draft.content, draft.persistedVersion, draft.version)) {
+                log.info("Dropping the autosaved draft of post {} at version {}: the stored body was replaced",
+                        postId, draft.version);
+                draft.removed = true;
+                drafts.remove(postId, draft);
+                return false;
+            }
+            draft.persistedVersion = draft.version;
+            return true;
+        } catch (DataAccessException e) {
+            log.warn("Could not save the autosaved draft of post {}, retrying next interval: {}", postId,
+                    e.getMessage());
+            return false;
+        }
+    }
+
+    private Draft remove(Long postId) {
+        Draft draft = drafts.remove(postId);
+        if (draft != null) {
+            draft.lock.lock();
+            try {
+                draft.removed = true;
+            } finally {
+                draft.lock.unlock();
+            }
+        }
+        return draft;
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    static String applyEdits(String base, List<DraftPatchRequest.Edit> edits) {
+        StringBuilder result = new StringBuilder(base.length());
+        int position = 0;
+        for (DraftPatchRequest.Edit edit : edits) {
+            long end = (long) edit.getOffset() + edit.getDelete();
+            if (edit.getOffset() < position || end > base.length()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Edits must be sorted, must not overlap and must lie within the base text");
+            }
+            if (splitsSurrogatePair(base, edit.getOffset()) || splitsSurrogatePair(base, (int) end)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Edits must not split a character outside the BMP");
+            }
+            result.append(base, position, edit.getOffset());
+            if (edit.getInsert() != null) {
+                result.append(edit.getInsert());
+            }
+            position = (int) end;
+        }
+        return result.append(base, position, base.length()).toString();
+    }
+
+    private static boolean splitsSurrogatePair(String text, int index) {
+        return index > 0 && index < text.length() && Character.isHighSurrogate(text.charAt(index - 1))
+                && Character.isLowSurrogate(text.charAt(index));
+    }
+}
@@ -0,0 +1,49 @@
+package com.revature.service;
+
+import com.revature.entity.User;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.repository.FollowStore;
+import com.revature.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+@RequiredArgsConstructor
+public class FollowService {
+
+    private final UserRepository userRepository;
+    private final FollowStore followStore;
+    private final AuthorStatsService authorStatsService;
+    private final TimelineService timelineService;
+
+    @Transactional
+    public void follow(String followerUsername, String followeeUsername) {
+        User follower = findUser(followerUsername);
+        User followee = findUser(followeeUsername);
+        if (follower.getId().equals(followee.getId())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "You cannot follow yourself");
+        }
+        if (followStore.follow(follower.getId(), followee.getId())) {
+            authorStatsService.followersChanged(followee.getId(), 1);
+            timelineService.followsChanged(follower.getId());
+        }
+    }
+
+    @Transactional
+    public void unfollow(String followerUsername, String followeeUsername) {
+        User follower = findUser(followerUsername);
+        User followee = findUser(followeeUsername);
+        if (followStore.unfollow(follower.getId(), followee.getId())) {
+            authorStatsService.followersChanged(followee.getId(), -1);
+            timelineService.followsChanged(follower.getId());
+        }
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+    }
+}
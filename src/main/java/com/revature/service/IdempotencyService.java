@@ -0,0 +1,126 @@
+package com.revature.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Remembers the result of a create request per (user, operation, Idempotency-Key), so a client retry gets the
+// original response instead of a second row. A duplicate that arrives while the first is still running waits
+// for its result. Failed attempts are forgotten, so they can be retried with the same key.
+@Service
+public class IdempotencyService {
+
+    private record Key(String username, String operation, String idempotencyKey) {
+    }
+
+    // The fingerprint, a SHA-256 of the request as JSON, catches a key reused for a different request body. The
+    // weight estimates the entry's heap: the stored result carries what the request sent, e.g. a post's body.
+    private record Attempt(byte[] fingerprint, int weight, CompletableFuture<Object> result) {
+    }
+
+    public record Outcome<T>(T result, boolean replayed) {
+    }
+
+    private static final Object FAILED = new Object();
+
+    // The key, the future and the rest of the stored result, beyond what the request sent
+    private static final int ENTRY_OVERHEAD_BYTES = 1024;
+
+    private final JsonMapper jsonMapper;
+    private final Cache<Key, Attempt> attempts;
+    private final long inFlightTimeoutMillis;
+
+    public IdempotencyService(JsonMapper jsonMapper,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.max-size:64MB}") DataSize maxSize,
+                              @Value("${app.idempotency.in-flight-timeout:30s}") Duration inFlightTimeout) {
+        this.jsonMapper = jsonMapper;
+        this.attempts = Caffeine.newBuilder().expireAfterWrite(ttl)
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Attempt attempt) -> attempt.weight())
+                .build();
+        this.inFlightTimeoutMillis = inFlightTimeout.toMillis();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String idempotencyKey, String username, String operation, Object request,
+                                  Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new Outcome<>(action.get(), false);
+        }
+        Key key = new Key(username, operation, idempotencyKey);
+        Attempt mine = attempt(request);
+        while (true) {
+            Attempt existing = attempts.asMap().putIfAbsent(key, mine);
+            if (existing == null) {
+                return new Outcome<>(run(key, mine, action), false);
+            }
+            if (!MessageDigest.isEqual(existing.fingerprint(), mine.fingerprint())) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_CONTENT,
+                        "Idempotency-Key was already used for a different request");
+            }
+            Object result = await(existing);
+            if (result != FAILED) {
+                return new Outcome<>((T) result, true);
+            }
+            // The first attempt failed and was removed; try to become the one that runs it
+        }
+    }
+
+    long storedKeys() {
+        attempts.cleanUp();
+        return attempts.estimatedSize();
+    }
+
+    private <T> T run(Key key, Attempt attempt, Supplier<T> action) {
+        try {
+            T result = action.get();
+            attempt.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            attempts.asMap().remove(key, attempt);
+            attempt.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object await(Attempt attempt) {
+        try {
+            return attempt.result().get(inFlightTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return FAILED;
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still in progress");
+        }
+    }
+
+    private Attempt attempt(Object request) {
+        byte[] json = jsonMapper.writeValueAsBytes(request);
+        try {
+            return new Attempt(MessageDigest.getInstance("SHA-256").digest(json),
+                    (int) Math.min(Integer.MAX_VALUE, (long) json.length + ENTRY_OVERHEAD_BYTES),
+                    new CompletableFuture<>());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
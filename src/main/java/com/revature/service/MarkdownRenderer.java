@@ -0,0 +1,38 @@
+package com.revature.service;
+
+import org.commonmark.node.Link;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.DefaultUrlSanitizer;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Markdown to sanitized HTML: raw HTML in the source is escaped, and link/image URLs are limited to safe schemes
+@Component
+public class MarkdownRenderer {
+
+    // Bump whenever the output changes, so persisted renders from the previous version are ignored
+    public static final int VERSION = 2;
+
+    private final Parser parser = Parser.builder().build();
+    private final HtmlRenderer renderer = HtmlRenderer.builder()
+            .escapeHtml(true)
+            .sanitizeUrls(true)
+            // The default list also allows data:, which can carry HTML or script-bearing SVG
+            .urlSanitizer(new DefaultUrlSanitizer(List.of("http", "https", "mailto")))
+            .attributeProviderFactory(context -> (node, tagName, attributes) -> {
+                if (node instanceof Link) {
+                    attributes.put("rel", "nofollow noopener");
+                }
+            })
+            .build();
+
+    public String render(String markdown) {
+        return renderer.render(parser.parse(markdown));
+    }
+
+    public void render(String markdown, Appendable out) {
+        renderer.render(parser.parse(markdown), out);
+    }
+}
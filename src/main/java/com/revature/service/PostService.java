@@ -1,38 +1,78 @@
 package com.revature.service;
 
+import com.revature.audit.AuditAction;
+import com.revature.audit.AuditLog;
+import com.revature.datasource.ReadYourWritesTracker;
+import com.revature.dto.DraftPatchRequest;
+import com.revature.dto.DraftVersionResponse;
 import com.revature.dto.PostRequest;
 import com.revature.entity.Post;
 import com.revature.entity.User;
 import com.revature.exception.ResourceNotFoundException;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.CommentRepository;
+import com.revature.repository.PostBodyStore;
+import com.revature.repository.PostBodyStore.VersionedBody;
 import com.revature.repository.PostRepository;
 import com.revature.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
 
     private final PostRepository postRepository;
+    private final PostBodyStore postBodyStore;
+    private final DraftAutosaveBuffer draftAutosaveBuffer;
     private final UserRepository userRepository;
-
+    private final CommentRepository commentRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AuthorStatsService authorStatsService;
+    private final AdminStatsService adminStatsService;
+    private final RenderedHtmlService renderedHtmlService;
+    private final TimelineService timelineService;
+    private final AuditLog auditLog;
+    private final InvalidationBus invalidationBus;
+
+    @Transactional(readOnly = true)
     public List<Post> getAllPublishedPosts() {
         return postRepository.findByPublishedTrueOrderByCreatedAtDesc();
     }
 
+    @Transactional(readOnly = true)
     public Post getPostById(Long id) {
-        return postRepository.findById(id)
+        Post post = postRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException ("Post", "id", id));
+        VersionedBody body = draftAutosaveBuffer.pending(id)
+                .or(() -> postBodyStore.findVersioned(id))
+                .orElse(new VersionedBody("", 0));
+        post.setContent(body.content());
+        post.setBodyVersion(body.version());
+        return post;
     }
 
+    @Transactional(readOnly = true)
     public List<Post> getPostsByAuthor(Long authorId) {
         return postRepository.findByAuthorIdOrderByCreatedAtDesc(authorId);
     }
 
+    @Transactional(readOnly = true)
+    public Slice<Post> getPublishedPostsByAuthor(Long authorId, Pageable pageable) {
+        return postRepository.findByAuthorIdAndPublishedTrueOrderByCreatedAtDesc(authorId, pageable);
+    }
+
     @Transactional
     public Post createPost(PostRequest request, String username) {
         User author = userRepository.findByUsername(username)
@@ -44,7 +84,16 @@ public class PostService {
         post.setPublished(request.getPublished() != null ? request.getPublished() : false);
         post.setAuthor(author);
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        savedPost.setBodyVersion(postBodyStore.save(savedPost.getId(), request.getContent()));
+        if (savedPost.getPublished()) {
+            renderedHtmlService.postContentChanged(savedPost.getId(), request.getContent(), true);
+            timelineService.postPublished(savedPost);
+        }
+        authorStatsService.postCreated(author.getId(), savedPost.getPublished(), savedPost.getCreatedAt());
+        adminStatsService.postCreated();
+        readYourWritesTracker.markWrite(username);
+        return savedPost;
     }
 
     @Transactional
@@ -59,13 +108,49 @@ public class PostService {
             throw new AccessDeniedException ("You don't have permission to update this post");
         }
 
+        boolean wasPublished = post.getPublished();
         post.setTitle(request.getTitle());
         post.setContent(request.getContent());
         if (request.getPublished() != null) {
             post.setPublished(request.getPublished());
         }
 
-        return postRepository.save(post);
+        Post updatedPost = postRepository.save(post);
+        // Replaces any autosaved draft, and skips the versions handed out for it
+        long draftVersion = draftAutosaveBuffer.replace(id).map(VersionedBody::version).orElse(0L);
+        updatedPost.setBodyVersion(postBodyStore.save(id, request.getContent(), draftVersion));
+        renderedHtmlService.postContentChanged(id, request.getContent(), updatedPost.getPublished());
+        if (!wasPublished && updatedPost.getPublished()) {
+            timelineService.postPublished(updatedPost);
+        } else if (wasPublished && !updatedPost.getPublished()) {
+            invalidationBus.publish(InvalidationTopic.POST, id);
+        }
+        boolean byAuthor = post.getAuthor().getId().equals(user.getId());
+        authorStatsService.postPublicationChanged(post.getAuthor().getId(), wasPublished, updatedPost.getPublished(),
+                byAuthor ? LocalDateTime.now() : null);
+        readYourWritesTracker.markWrite(username);
+        return updatedPost;
+    }
+
+    // Autosave: applies a diff to the unpublished post's latest draft, buffered by DraftAutosaveBuffer
+    @Transactional
+    public DraftVersionResponse patchDraft(Long id, DraftPatchRequest request, String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+
+        Post post = postRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", id));
+
+        if (!post.getAuthor().getId().equals(user.getId()) && user.getRole() != User.Role.ADMIN) {
+            throw new AccessDeniedException("You don't have permission to update this post");
+        }
+        if (post.getPublished()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Published posts are updated with PUT");
+        }
+
+        VersionedBody draft = draftAutosaveBuffer.apply(id, request.getBaseVersion(), request.getEdits());
+        readYourWritesTracker.markWrite(username);
+        return new DraftVersionResponse(id, draft.version(), draft.content().length());
     }
 
     @Transactional
@@ -80,7 +165,13 @@ public class PostService {
             throw new AccessDeniedException("You don't have permission to delete this post");
         }
 
+        long comments = commentRepository.countByPostId(id);
+        authorStatsService.postDeleted(post.getAuthor().getId(), post.getPublished(), comments);
+        adminStatsService.postDeleted(comments);
         postRepository.delete(post);
+        invalidationBus.publish(InvalidationTopic.POST, id);
+        auditLog.record(AuditAction.POST_DELETED, id, post.getTitle());
+        readYourWritesTracker.markWrite(username);
     }
 
     @Transactional
@@ -95,7 +186,18 @@ public class PostService {
             throw new AccessDeniedException("You don't have permission to publish this post");
         }
 
+        boolean wasPublished = post.getPublished();
         post.setPublished(true);
-        return postRepository.save(post);
+        Post publishedPost = postRepository.save(post);
+        Optional<VersionedBody> draft = draftAutosaveBuffer.replace(id);
+        draft.ifPresent(body -> postBodyStore.save(id, body.content(), body.version()));
+        String content = draft.map(VersionedBody::content).orElseGet(() -> postBodyStore.find(id).orElse(""));
+        renderedHtmlService.postContentChanged(id, content, true);
+        if (!wasPublished) {
+            timelineService.postPublished(publishedPost);
+        }
+        authorStatsService.postPublicationChanged(user.getId(), wasPublished, true, LocalDateTime.now());
+        readYourWritesTracker.markWrite(username);
+        return publishedPost;
     }
 }
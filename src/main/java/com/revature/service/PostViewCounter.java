@@ -0,0 +1,124 @@
+package com.revature.service;
+
+import com.revature.entity.Post;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Counts post views in memory and adds them to posts.view_count with one UPDATE per flush interval,
+// so reading a post never becomes a write
+@Slf4j
+@Component
+public class PostViewCounter {
+
+    private static final String FLUSH_SQL = """
+            UPDATE posts p SET view_count = p.view_count + d.delta
+            FROM unnest(?::bigint[], ?::bigint[]) AS d(id, delta)
+            WHERE p.id = d.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskScheduler taskScheduler;
+    private final int maxTrackedPosts;
+    // One striped counter per post, so views of a hot post don't contend on a single map entry. Flush removes a
+    // counter and then takes its sum; a view that landed on a counter after it was removed is moved over by
+    // recordView, and sumThenReset hands each view to exactly one of the two.
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    // Views taken out of pending by the flush in progress, still shown until its UPDATE commits
+    private volatile Map<Long, Long> flushing = Map.of();
+    // Not synchronized: a virtual thread blocked on the UPDATE inside a monitor would pin its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean earlyFlushScheduled = new AtomicBoolean();
+
+    public PostViewCounter(JdbcTemplate jdbcTemplate, TaskScheduler taskScheduler,
+                           @Value("${app.posts.view-count.max-tracked-posts:100000}") int maxTrackedPosts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskScheduler = taskScheduler;
+        this.maxTrackedPosts = maxTrackedPosts;
+    }
+
+    public void recordView(Long postId) {
+        LongAdder views = pending.computeIfAbsent(postId, id -> new LongAdder());
+        views.increment();
+        while (pending.get(postId) != views) {
+            long missed = views.sumThenReset();
+            if (missed == 0) {
+                break;
+            }
+            views = pending.computeIfAbsent(postId, id -> new LongAdder());
+            views.add(missed);
+        }
+        // A full map is flushed early on the scheduler, never on the request thread
+        if (pending.size() > maxTrackedPosts && earlyFlushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                earlyFlushScheduled.set(false);
+                flush();
+            }, Instant.now());
+        }
+    }
+
+    public long pendingViews(Long postId) {
+        LongAdder views = pending.get(postId);
+        return (views != null ? views.sum() : 0) + flushing.getOrDefault(postId, 0L);
+    }
+
+    // Adds views not yet flushed, so responses show persisted plus pending
+    public Post withPendingViews(Post post) {
+        post.setViewCount(post.getViewCount() + pendingViews(post.getId()));
+        return post;
+    }
+
+    @Scheduled(fixedDelayString = "${app.posts.view-count.flush-interval:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Long> taken = new ConcurrentHashMap<>();
+            flushing = taken;
+            List<Long> ids = new ArrayList<>();
+            List<Long> deltas = new ArrayList<>();
+            for (Long postId : pending.keySet()) {
+                LongAdder views = pending.remove(postId);
+                long delta = views != null ? views.sumThenReset() : 0;
+                if (delta != 0) {
+                    taken.put(postId, delta);
+                    ids.add(postId);
+                    deltas.add(delta);
+                }
+            }
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            try {
+                jdbcTemplate.update(FLUSH_SQL, ids.toArray(Long[]::new), deltas.toArray(Long[]::new));
+            } catch (DataAccessException e) {
+                log.warn("Could not flush {} post view counts, retrying next interval: {}", ids.size(), e.getMessage());
+                for (int i = 0; i < ids.size(); i++) {
+                    pending.computeIfAbsent(ids.get(i), id -> new LongAdder()).add(deltas.get(i));
+                }
+            }
+        } finally {
+            flushing = Map.of();
+            flushLock.unlock();
+        }
+    }
+
+    // Runs after the web server has stopped taking requests and before the datasource is closed
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,47 @@
+package com.revature.service;
+
+import com.revature.dto.CommentResponse;
+import com.revature.entity.Post;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.repository.ReactivePostStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// The read side of PostService and CommentService on the non-blocking driver, for /api/reactive/**
+@Service
+@RequiredArgsConstructor
+public class ReactiveReadService {
+
+    private final ReactivePostStore reactivePostStore;
+    private final PostViewCounter postViewCounter;
+    private final DraftAutosaveBuffer draftAutosaveBuffer;
+
+    public Flux<Post> getAllPublishedPosts() {
+        return reactivePostStore.findPublished().map(postViewCounter::withPendingViews);
+    }
+
+    // Views are left to the caller, which records this one first
+    public Mono<Post> getPostById(Long id) {
+        return reactivePostStore.findWithBody(id)
+                .map(post -> {
+                    // An autosaved draft not yet written is newer than the stored body
+                    draftAutosaveBuffer.pending(id).ifPresent(draft -> {
+                        post.setContent(draft.content());
+                        post.setBodyVersion(draft.version());
+                    });
+                    return post;
+                })
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Post", "id", id)));
+    }
+
+    // Existence is only checked when there are no comments, which saves the query for every other post
+    public Flux<CommentResponse> getCommentsByPostId(Long postId) {
+        return reactivePostStore.findComments(postId)
+                .switchIfEmpty(reactivePostStore.exists(postId)
+                        .flatMapMany(exists -> exists
+                                ? Flux.empty()
+                                : Flux.error(new ResourceNotFoundException("Post", "id", postId))));
+    }
+}
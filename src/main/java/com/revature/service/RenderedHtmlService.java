@@ -0,0 +1,107 @@
+package com.revature.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.repository.CompressedText;
+import com.revature.repository.PostBodyStore;
+import com.revature.repository.PostRenderStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+
+// Serves the HTML representation of posts and comments. Published posts are rendered once when their
+// content is written and read back from post_renders; everything else goes through an in-memory cache
+// keyed by content hash and bounded by total characters. Documents too large to cache are rendered
+// straight into the response instead of being built up as a String first.
+@Service
+public class RenderedHtmlService {
+
+    @FunctionalInterface
+    public interface HtmlBody {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    private final MarkdownRenderer markdownRenderer;
+    private final PostBodyStore postBodyStore;
+    private final PostRenderStore postRenderStore;
+    private final DraftAutosaveBuffer draftAutosaveBuffer;
+    private final boolean persistOnPublish;
+    private final int maxCachedLength;
+    private final Cache<String, String> cache;
+
+    public RenderedHtmlService(MarkdownRenderer markdownRenderer, PostBodyStore postBodyStore,
+                               PostRenderStore postRenderStore, DraftAutosaveBuffer draftAutosaveBuffer,
+                               @Value("${app.render.persist-on-publish:true}") boolean persistOnPublish,
+                               @Value("${app.render.cache.max-chars:16000000}") long cacheMaxChars,
+                               @Value("${app.render.cache.max-entry-chars:262144}") int maxCachedLength) {
+        this.markdownRenderer = markdownRenderer;
+        this.postBodyStore = postBodyStore;
+        this.postRenderStore = postRenderStore;
+        this.draftAutosaveBuffer = draftAutosaveBuffer;
+        this.persistOnPublish = persistOnPublish;
+        this.maxCachedLength = maxCachedLength;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxChars)
+                .weigher((String hash, String html) -> html.length())
+                .build();
+    }
+
+    public String render(String markdown) {
+        if (markdown.length() > maxCachedLength) {
+            return markdownRenderer.render(markdown);
+        }
+        return cache.get(contentHash(markdown), hash -> markdownRenderer.render(markdown));
+    }
+
+    // Resolved eagerly so a missing post is still a 404; the returned body only writes
+    public HtmlBody postHtml(Long postId) {
+        Optional<CompressedText> persisted = postRenderStore.find(postId, MarkdownRenderer.VERSION);
+        if (persisted.isPresent()) {
+            return persisted.get()::writeTo;
+        }
+        String markdown = draftAutosaveBuffer.pending(postId).map(PostBodyStore.VersionedBody::content)
+                .or(() -> postBodyStore.find(postId))
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
+        if (markdown.length() > maxCachedLength) {
+            return writer -> markdownRenderer.render(markdown, writer);
+        }
+        String html = render(markdown);
+        return writer -> writer.write(html);
+    }
+
+    // Called by the post write paths inside their transaction, so the stored render commits with the content
+    public void postContentChanged(Long postId, String markdown, boolean published) {
+        if (!persistOnPublish) {
+            return;
+        }
+        if (!published) {
+            postRenderStore.delete(postId);
+            return;
+        }
+        String hash = contentHash(markdown);
+        if (!Objects.equals(postRenderStore.findContentHash(postId, MarkdownRenderer.VERSION).orElse(null), hash)) {
+            String html = markdown.length() > maxCachedLength
+                    ? markdownRenderer.render(markdown)
+                    : cache.get(hash, h -> markdownRenderer.render(markdown));
+            postRenderStore.save(postId, MarkdownRenderer.VERSION, hash, html);
+        }
+    }
+
+    static String contentHash(String markdown) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(markdown.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
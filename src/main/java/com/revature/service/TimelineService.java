@@ -0,0 +1,268 @@
+package com.revature.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.revature.entity.Post;
+import com.revature.entity.User;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.FollowStore;
+import com.revature.repository.FollowStore.TimelinePost;
+import com.revature.repository.PostRepository;
+import com.revature.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Home timelines: the newest published posts of the authors a user follows, as bounded ring buffers of post ids.
+// Publishing pushes the id into the timeline of every follower that has one in memory (fan-out on write).
+// Authors with more followers than fan-out-max-followers are skipped there and merged in at read time instead
+// (fan-out on read). A timeline that is not in memory, e.g. after a restart or eviction, is rebuilt from the
+// database on its owner's next read. Pushes only reach the timelines held by the publishing instance; other
+// instances show the post once their copy expires (ttl).
+@Service
+public class TimelineService {
+
+    // Newest first: later creation time, then larger id
+    static final Comparator<TimelinePost> NEWEST_FIRST =
+            Comparator.comparing(TimelinePost::createdAt).thenComparingLong(TimelinePost::postId).reversed();
+
+    static final class Timeline {
+
+        private final long[] postIds;
+        // Creation times in epoch microseconds, the precision of the column
+        private final long[] createdAt;
+        // Followees whose posts are merged in on read rather than pushed
+        private final long[] pulledAuthorIds;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int head;
+        private int size;
+
+        Timeline(int capacity, List<TimelinePost> newestFirst, long[] pulledAuthorIds) {
+            this.postIds = new long[capacity];
+            this.createdAt = new long[capacity];
+            this.pulledAuthorIds = pulledAuthorIds;
+            for (int i = Math.min(newestFirst.size(), capacity) - 1; i >= 0; i--) {
+                push(newestFirst.get(i));
+            }
+        }
+
+        // Pushes arrive in commit order, not creation order, e.g. a draft published after newer posts: the post is
+        // inserted behind the newer ones, and dropped if a full timeline holds only newer posts
+        void push(TimelinePost post) {
+            long postId = post.postId();
+            long micros = toMicros(post.createdAt());
+            lock.lock();
+            try {
+                if (size == postIds.length && !isNewer(micros, postId, oldest())) {
+                    return;
+                }
+                head = (head + 1) % postIds.length;
+                size = Math.min(size + 1, postIds.length);
+                int slot = head;
+                for (int i = 1; i < size; i++) {
+                    int previous = Math.floorMod(slot - 1, postIds.length);
+                    if (isNewer(micros, postId, previous)) {
+                        break;
+                    }
+                    postIds[slot] = postIds[previous];
+                    createdAt[slot] = createdAt[previous];
+                    slot = previous;
+                }
+                postIds[slot] = postId;
+                createdAt[slot] = micros;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<TimelinePost> newest(int limit) {
+            lock.lock();
+            try {
+                List<TimelinePost> result = new ArrayList<>(Math.min(limit, size));
+                for (int i = 0; i < Math.min(limit, size); i++) {
+                    int slot = Math.floorMod(head - i, postIds.length);
+                    result.add(new TimelinePost(postIds[slot], fromMicros(createdAt[slot])));
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int oldest() {
+            return Math.floorMod(head - size + 1, postIds.length);
+        }
+
+        private boolean isNewer(long micros, long postId, int slot) {
+            return micros != createdAt[slot] ? micros > createdAt[slot] : postId > postIds[slot];
+        }
+
+        private static long toMicros(LocalDateTime time) {
+            return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+        }
+
+        private static LocalDateTime fromMicros(long micros) {
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+        }
+    }
+
+    private final FollowStore followStore;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final AuthorStatsService authorStatsService;
+    private final InvalidationBus invalidationBus;
+    private final int capacity;
+    private final long fanOutMaxFollowers;
+    private final Cache<Long, Timeline> timelines;
+
+    public TimelineService(FollowStore followStore, PostRepository postRepository, UserRepository userRepository,
+                           AuthorStatsService authorStatsService, InvalidationBus invalidationBus,
+                           @Value("${app.timeline.capacity:800}") int capacity,
+                           @Value("${app.timeline.fan-out-max-followers:10000}") long fanOutMaxFollowers,
+                           @Value("${app.timeline.max-cached-users:100000}") long maxCachedUsers,
+                           @Value("${app.timeline.ttl:30m}") Duration ttl) {
+        this.followStore = followStore;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.authorStatsService = authorStatsService;
+        this.invalidationBus = invalidationBus;
+        this.capacity = capacity;
+        this.fanOutMaxFollowers = fanOutMaxFollowers;
+        // The TTL bounds drift from pushes that raced a rebuild
+        this.timelines = Caffeine.newBuilder().maximumSize(maxCachedUsers).expireAfterWrite(ttl).build();
+        invalidationBus.subscribe(InvalidationTopic.TIMELINE, timelines::invalidate, timelines::invalidateAll);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Post> getTimeline(String username, int page, int size) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        return getTimeline(user.getId(), page, size);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Post> getTimeline(Long userId, int page, int size) {
+        // In long, as page * size overflows an int for large pages
+        if ((long) page * size >= capacity) {
+            return List.of();
+        }
+        int start = page * size;
+        int end = (int) Math.min((long) start + size, capacity);
+        Timeline timeline = timelines.get(userId, this::build);
+        List<TimelinePost> pushed = timeline.newest(end);
+        List<TimelinePost> pulled = timeline.pulledAuthorIds.length == 0
+                ? List.of()
+                : followStore.publishedPostsByAuthors(timeline.pulledAuthorIds, end);
+        List<Long> ids = merge(pushed, pulled, end);
+        if (start >= ids.size()) {
+            return List.of();
+        }
+
+        List<Long> pageIds = ids.subList(start, ids.size());
+        Map<Long, Post> posts = postRepository.findByIdInAndPublishedTrue(pageIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        // Deleted or unpublished posts simply drop out of the page
+        return pageIds.stream().map(posts::get).filter(Objects::nonNull).toList();
+    }
+
+    // Called inside the publishing transaction; followers are read now and pushed to once it commits
+    public void postPublished(Post post) {
+        Long authorId = post.getAuthor().getId();
+        TimelinePost published = new TimelinePost(post.getId(), post.getCreatedAt());
+        if (timelines.estimatedSize() == 0
+                || authorStatsService.getStats(authorId).getFollowers() > fanOutMaxFollowers) {
+            return;
+        }
+        LongList followers = new LongList();
+        followStore.forEachFollower(authorId, followerId -> {
+            if (timelines.getIfPresent(followerId) != null) {
+                followers.add(followerId);
+            }
+        });
+        afterCommit(() -> {
+            for (int i = 0; i < followers.size; i++) {
+                Timeline timeline = timelines.getIfPresent(followers.values[i]);
+                if (timeline != null) {
+                    timeline.push(published);
+                }
+            }
+        });
+    }
+
+    // A changed follow set changes which authors are pushed and pulled; rebuilt on next read, on any instance
+    public void followsChanged(Long userId) {
+        invalidationBus.publish(InvalidationTopic.TIMELINE, userId);
+    }
+
+    private Timeline build(Long userId) {
+        // Pulled from half the push limit up, so authors near the limit are covered by both paths (merge dedupes)
+        return new Timeline(capacity, followStore.timelinePosts(userId, capacity),
+                followStore.popularFolloweeIds(userId, fanOutMaxFollowers / 2));
+    }
+
+    // Both inputs are newest first by NEWEST_FIRST; a post in both, or pushed twice, is kept once
+    static List<Long> merge(List<TimelinePost> pushed, List<TimelinePost> pulled, int limit) {
+        List<Long> merged = new ArrayList<>(Math.min(limit, pushed.size() + pulled.size()));
+        Set<Long> seen = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < pushed.size() || j < pulled.size())) {
+            TimelinePost next;
+            if (j >= pulled.size() || (i < pushed.size() && NEWEST_FIRST.compare(pushed.get(i), pulled.get(j)) <= 0)) {
+                next = pushed.get(i++);
+            } else {
+                next = pulled.get(j++);
+            }
+            if (seen.add(next.postId())) {
+                merged.add(next.postId());
+            }
+        }
+        return merged;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.revature.service;
+
+import com.revature.dto.TrendingPostResponse;
+import com.revature.entity.Post;
+import com.revature.event.CommentEvent;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Ranks posts by recent comment velocity. Comments are counted into per-post ring buffers of time buckets;
+// a scheduled pass scores them with exponential decay, keeps the top K in a heap and publishes an immutable
+// snapshot, so GET /api/posts/trending never touches the database or takes a lock.
+@Service
+public class TrendingService {
+
+    // Served by idx_comments_created_at; checked by QueryPlanRegressionTest
+    public static final String SEED_SQL = """
+            SELECT post_id, floor(extract(epoch FROM created_at) / ?)::bigint AS bucket, count(*) AS comments
+            FROM comments WHERE created_at >= ?
+            GROUP BY post_id, bucket""";
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long bucketSeconds;
+    private final int bucketCount;
+    private final int topK;
+    private final double[] bucketWeights;
+    private final Map<Long, PostWindow> windows = new ConcurrentHashMap<>();
+
+    private volatile List<TrendingPostResponse> snapshot = List.of();
+
+    public TrendingService(PostRepository postRepository, JdbcTemplate jdbcTemplate, InvalidationBus invalidationBus,
+                           @Value("${app.trending.window:1h}") Duration window,
+                           @Value("${app.trending.bucket:1m}") Duration bucket,
+                           @Value("${app.trending.half-life:15m}") Duration halfLife,
+                           @Value("${app.trending.top-k:20}") int topK) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketSeconds = bucket.toSeconds();
+        this.bucketCount = (int) (window.toSeconds() / bucketSeconds);
+        this.topK = topK;
+        // Weight of a bucket by its age in buckets: halves every half-life
+        this.bucketWeights = new double[bucketCount];
+        for (int age = 0; age < bucketCount; age++) {
+            bucketWeights[age] = Math.pow(0.5, (double) age * bucketSeconds / halfLife.toSeconds());
+        }
+        // Deleted or unpublished posts leave the snapshot at once rather than at the next recompute
+        invalidationBus.subscribe(InvalidationTopic.POST, this::removePost, this::recompute);
+    }
+
+    public List<TrendingPostResponse> getTrendingPosts() {
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentEvent(CommentEvent event) {
+        if (event.type() == CommentEvent.Type.ADDED) {
+            record(event.postId(), bucketOf(event.comment().getCreatedAt()), 1);
+        }
+    }
+
+    // Seeds the windows from comments already in the database, so a restart doesn't empty the tab
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long since = currentBucket() - bucketCount + 1;
+        jdbcTemplate.query(SEED_SQL,
+                rs -> {
+                    record(rs.getLong("post_id"), rs.getLong("bucket"), rs.getLong("comments"));
+                },
+                bucketSeconds, Timestamp.valueOf(LocalDateTime.ofEpochSecond(since * bucketSeconds, 0, ZoneOffset.UTC)));
+        recompute();
+    }
+
+    @Scheduled(fixedRateString = "${app.trending.recompute-interval:10000}", initialDelayString = "${app.trending.recompute-interval:10000}")
+    public void recompute() {
+        long now = currentBucket();
+        // Unpublished posts keep their windows, as they may be published later, but must not take a top-K slot:
+        // each round drops the ones the lookup didn't return and refills the heap from the remaining candidates
+        Set<Long> unpublished = new HashSet<>();
+        while (true) {
+            List<Scored> ranked = topScored(now, unpublished);
+            if (ranked.isEmpty()) {
+                snapshot = List.of();
+                return;
+            }
+
+            Map<Long, Post> posts = postRepository.findByIdInAndPublishedTrue(ranked.stream().map(Scored::postId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Post::getId, Function.identity()));
+            if (posts.size() == ranked.size()) {
+                snapshot = ranked.stream()
+                        .map(scored -> {
+                            Post post = posts.get(scored.postId());
+                            return new TrendingPostResponse(post.getId(), post.getTitle(), post.getAuthor().getUsername(),
+                                    scored.comments(), scored.score());
+                        })
+                        .toList();
+                return;
+            }
+            ranked.stream().map(Scored::postId).filter(postId -> !posts.containsKey(postId)).forEach(unpublished::add);
+        }
+    }
+
+    private List<Scored> topScored(long now, Set<Long> excluded) {
+        PriorityQueue<Scored> top = new PriorityQueue<>(topK + 1, Comparator.comparingDouble(Scored::score));
+
+        windows.forEach((postId, window) -> {
+            Scored scored = window.score(postId, now);
+            if (scored.comments() == 0) {
+                windows.remove(postId, window);
+                return;
+            }
+            if (excluded.contains(postId)) {
+                return;
+            }
+            if (top.size() < topK) {
+                top.add(scored);
+            } else if (scored.score() > top.peek().score()) {
+                top.poll();
+                top.add(scored);
+            }
+        });
+
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(Comparator.comparingDouble(Scored::score).reversed());
+        return ranked;
+    }
+
+    private void removePost(long postId) {
+        windows.remove(postId);
+        snapshot = snapshot.stream().filter(post -> post.getId() != postId).toList();
+    }
+
+    private void record(long postId, long bucket, long comments) {
+        if (bucket > currentBucket() - bucketCount) {
+            windows.computeIfAbsent(postId, id -> new PostWindow()).add(bucket, comments);
+        }
+    }
+
+    private long currentBucket() {
+        return bucketOf(LocalDateTime.now());
+    }
+
+    // Timestamps are stored as local date-times, so both sides of the comparison use them as if they were UTC
+    private long bucketOf(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / bucketSeconds;
+    }
+
+    private record Scored(Long postId, long comments, double score) {
+    }
+
+    private class PostWindow {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(bucketCount);
+        private final AtomicLongArray counts = new AtomicLongArray(bucketCount);
+
+        void add(long bucket, long comments) {
+            int slot = (int) (bucket % bucketCount);
+            long current = buckets.get(slot);
+            // First write to a slot in a new bucket recycles it; an increment racing the reset may be lost
+            if (current < bucket && buckets.compareAndSet(slot, current, bucket)) {
+                counts.set(slot, 0);
+            }
+            if (buckets.get(slot) == bucket) {
+                counts.addAndGet(slot, comments);
+            }
+        }
+
+        Scored score(Long postId, long now) {
+            long comments = 0;
+            double score = 0;
+            for (int slot = 0; slot < bucketCount; slot++) {
+                long age = now - buckets.get(slot);
+                if (age >= 0 && age < bucketCount) {
+                    long count = counts.get(slot);
+                    comments += count;
+                    score += count * bucketWeights[(int) age];
+                }
+            }
+            return new Scored(postId, comments, score);
+        }
+    }
+}
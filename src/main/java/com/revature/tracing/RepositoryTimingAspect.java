@@ -0,0 +1,26 @@
+package com.revature.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class RepositoryTimingAspect {
+
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object timeRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+
+        trace.enterRepository();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            trace.exitRepository();
+        }
+    }
+}
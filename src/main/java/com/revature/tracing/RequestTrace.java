@@ -0,0 +1,129 @@
+package com.revature.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long jwtNanos;
+    private long repositoryNanos;
+    private int repositoryCalls;
+    private int repositoryDepth;
+    private long repositoryCallStart;
+    private long serializationStartNanos;
+    private int sqlStatements;
+    private int sqlStatementsBeforeSerialization = -1;
+    private boolean admin;
+    private List<String> capturedStatements;
+
+    public static RequestTrace start() {
+        RequestTrace trace = new RequestTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    // Also keeps the SQL text, used to EXPLAIN what repositories actually execute
+    public static RequestTrace startCapturing() {
+        RequestTrace trace = start();
+        trace.capturedStatements = new ArrayList<>();
+        return trace;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static void recordJwt(long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.jwtNanos += nanos;
+        }
+    }
+
+    public static void markAdmin() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.admin = true;
+        }
+    }
+
+    public static void sqlStatementPrepared(String sql) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.sqlStatements++;
+            if (trace.capturedStatements != null) {
+                trace.capturedStatements.add(sql);
+            }
+        }
+    }
+
+    public static void markSerializationStart() {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null && trace.serializationStartNanos == 0) {
+            trace.serializationStartNanos = System.nanoTime();
+            trace.sqlStatementsBeforeSerialization = trace.sqlStatements;
+        }
+    }
+
+    // Nested repository calls (e.g. a default method delegating to a finder) are only timed once
+    void enterRepository() {
+        if (repositoryDepth++ == 0) {
+            repositoryCallStart = System.nanoTime();
+        }
+    }
+
+    void exitRepository() {
+        if (--repositoryDepth == 0) {
+            repositoryNanos += System.nanoTime() - repositoryCallStart;
+            repositoryCalls++;
+        }
+    }
+
+    public int getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public List<String> getCapturedStatements() {
+        return capturedStatements != null ? capturedStatements : List.of();
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public String toServerTimingHeader() {
+        long end = System.nanoTime();
+        StringBuilder header = new StringBuilder();
+        appendMetric(header, "jwt", jwtNanos, null);
+        appendMetric(header, "repo", repositoryNanos, repositoryCalls + " calls");
+        if (serializationStartNanos != 0) {
+            int lazyStatements = sqlStatements - sqlStatementsBeforeSerialization;
+            appendMetric(header, "ser", end - serializationStartNanos, lazyStatements + " lazy SQL");
+        }
+        header.append(", sql;desc=\"").append(sqlStatements).append(" statements\"");
+        appendMetric(header, "total", end - startNanos, null);
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos, String description) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0));
+        if (description != null) {
+            header.append(";desc=\"").append(description).append('"');
+        }
+    }
+}
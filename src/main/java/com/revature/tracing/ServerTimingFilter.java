@@ -0,0 +1,159 @@
+package com.revature.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String DEBUG_HEADER = "X-Debug-Timing";
+
+    @Value("${app.tracing.debug:false}")
+    private boolean debug;
+
+    @Value("${app.tracing.sql-statement-budget:25}")
+    private int sqlStatementBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            continueAsync(request, response, filterChain);
+            return;
+        }
+        RequestTrace trace = RequestTrace.start();
+        try {
+            // The header has to be added after serialization, so the body of a request that asks for it is buffered,
+            // but only once it turns out to be an admin's: the JWT filter has run by the time the body is written
+            if ((debug || StringUtils.hasText(request.getHeader(DEBUG_HEADER))) && !isStreamed(request)) {
+                TimingResponse wrapper = new TimingResponse(response, trace);
+                try {
+                    filterChain.doFilter(request, wrapper);
+                } finally {
+                    if (debug || trace.isAdmin()) {
+                        wrapper.setHeader("Server-Timing", trace.toServerTimingHeader());
+                    }
+                    if (!isAsyncStarted(request)) {
+                        wrapper.copyBodyToResponse();
+                    }
+                }
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            if (trace.getSqlStatements() > sqlStatementBudget) {
+                logger.warn(String.format("%s %s executed %d SQL statements (budget %d) in %d ms",
+                        request.getMethod(), request.getRequestURI(), trace.getSqlStatements(),
+                        sqlStatementBudget, trace.elapsedNanos() / 1_000_000));
+            }
+            RequestTrace.clear();
+        }
+    }
+
+    // An async response (e.g. the reactive endpoints) is written on its async dispatch, after the initial dispatch
+    // has set the header; only then can a buffered body be copied out. Its timings cover the initial dispatch.
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void continueAsync(HttpServletRequest request, HttpServletResponse response,
+                               FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TimingResponse wrapper = WebUtils.getNativeResponse(response, TimingResponse.class);
+            if (wrapper != null && !isAsyncStarted(request)) {
+                wrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    private boolean isStreamed(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        return accept != null && (accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)
+                || accept.contains(MediaType.APPLICATION_NDJSON_VALUE));
+    }
+
+    // Buffers the body, so the header can still be set once it has been written, if the request is being traced
+    private final class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTrace trace;
+        private ContentCachingResponseWrapper buffer;
+
+        TimingResponse(HttpServletResponse response, RequestTrace trace) {
+            super(response);
+            this.trace = trace;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return buffer() != null ? buffer.getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return buffer() != null ? buffer.getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (buffer != null) {
+                buffer.flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (buffer != null) {
+                buffer.resetBuffer();
+            } else {
+                super.resetBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            if (buffer != null) {
+                buffer.reset();
+            } else {
+                super.reset();
+            }
+        }
+
+        void copyBodyToResponse() throws IOException {
+            if (buffer != null) {
+                buffer.copyBodyToResponse();
+            }
+        }
+
+        // Decided on the first write; the trace of an async dispatch is no longer bound to the thread, so it is
+        // the one the request started with
+        private ContentCachingResponseWrapper buffer() {
+            if (buffer == null && (debug || trace.isAdmin())) {
+                buffer = new ContentCachingResponseWrapper((HttpServletResponse) getResponse());
+            }
+            return buffer;
+        }
+    }
+}
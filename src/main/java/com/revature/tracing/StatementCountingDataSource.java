@@ -0,0 +1,81 @@
+package com.revature.tracing;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+// Counts every statement the application sends over JDBC against the current request's trace, whether it comes
+// from Hibernate or from JdbcTemplate: one per prepared or callable statement (however many batched executions it
+// runs) and one per SQL string executed on a plain statement
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> PREPARING_METHODS = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTING_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection counting(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return target;
+                        default:
+                            if (PREPARING_METHODS.contains(method.getName()) && args != null
+                                    && args[0] instanceof String sql) {
+                                RequestTrace.sqlStatementPrepared(sql);
+                            }
+                            Object result = invoke(target, method, args);
+                            if ("createStatement".equals(method.getName())) {
+                                return countingStatement((Statement) result);
+                            }
+                            return result;
+                    }
+                });
+    }
+
+    private static Statement countingStatement(Statement target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (EXECUTING_METHODS.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                RequestTrace.sqlStatementPrepared(sql);
+            }
+            return invoke(target, method, args);
+        };
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[] {Statement.class}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- Net change per day in the number of users, banned users, posts and comments: rows created (or banned) that day
+-- minus rows deleted (or banned users deleted) that day. Summed over all days they give the current totals.
+-- Written by AdminStatsService's periodic checkpoint; existing rows are backfilled by their creation day, and
+-- current bans, which have no timestamp, on the day of the migration.
+CREATE TABLE IF NOT EXISTS admin_daily_stats (
+    day          DATE PRIMARY KEY,
+    users        BIGINT NOT NULL DEFAULT 0,
+    banned_users BIGINT NOT NULL DEFAULT 0,
+    posts        BIGINT NOT NULL DEFAULT 0,
+    comments     BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO admin_daily_stats (day, users, banned_users, posts, comments)
+SELECT day, sum(users), sum(banned_users), sum(posts), sum(comments)
+FROM (SELECT created_at::date AS day, count(*) AS users, 0 AS banned_users, 0 AS posts, 0 AS comments
+      FROM users GROUP BY 1
+      UNION ALL
+      SELECT current_date, 0, count(*), 0, 0 FROM users WHERE is_banned
+      UNION ALL
+      SELECT created_at::date, 0, 0, count(*), 0 FROM posts GROUP BY 1
+      UNION ALL
+      SELECT created_at::date, 0, 0, 0, count(*) FROM comments GROUP BY 1) counts
+GROUP BY day
+ON CONFLICT (day) DO NOTHING;
@@ -0,0 +1,3 @@
+-- TrendingService.SEED_SQL reads the comments of the last trending window at startup; post_id is included so the
+-- seed is an index-only scan
+CREATE INDEX IF NOT EXISTS idx_comments_created_at ON comments (created_at) INCLUDE (post_id);
@@ -0,0 +1,7 @@
+-- Instances counting admin stats in memory, with the time of their last checkpoint. Until a live instance has
+-- checkpointed, the tables hold changes that are not in admin_daily_stats yet, so AdminStatsService reconciles the
+-- rollup with the tables at startup only when no other instance has checkpointed recently.
+CREATE TABLE IF NOT EXISTS admin_stats_instances (
+    instance_id     TEXT PRIMARY KEY,
+    checkpointed_at TIMESTAMPTZ NOT NULL
+);
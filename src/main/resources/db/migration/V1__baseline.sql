@@ -0,0 +1,33 @@
+-- Schema as previously created from schema.sql; IF NOT EXISTS keeps this safe on existing databases
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(50)  NOT NULL UNIQUE,
+    email      VARCHAR(100) NOT NULL UNIQUE,
+    password   VARCHAR(255) NOT NULL,
+    role       VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN', 'USER')),
+    created_at TIMESTAMP(6) NOT NULL,
+    is_banned  BOOLEAN DEFAULT FALSE
+);
+
+CREATE TABLE IF NOT EXISTS posts (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title      VARCHAR(255) NOT NULL,
+    content    TEXT         NOT NULL,
+    author_id  BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    published  BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    content    TEXT         NOT NULL,
+    author_id  BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    post_id    BIGINT       NOT NULL REFERENCES posts (id) ON DELETE CASCADE,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_posts_created_at ON posts (created_at);
+CREATE INDEX IF NOT EXISTS idx_posts_author_published ON posts (author_id, published);
+CREATE INDEX IF NOT EXISTS idx_comments_post_id ON comments (post_id);
@@ -0,0 +1,17 @@
+-- One index per repository finder; checked by QueryPlanRegressionTest
+
+-- PostRepository.findByPublishedTrueOrderByCreatedAtDesc: only published rows, already in feed order
+CREATE INDEX IF NOT EXISTS idx_posts_published_created_at ON posts (created_at DESC) WHERE published;
+
+-- PostRepository.findByAuthorIdOrderByCreatedAtDesc
+CREATE INDEX IF NOT EXISTS idx_posts_author_created_at ON posts (author_id, created_at DESC);
+
+-- CommentRepository.findByPostIdOrderByCreatedAtDesc, also serves the posts -> comments cascade
+CREATE INDEX IF NOT EXISTS idx_comments_post_created_at ON comments (post_id, created_at DESC);
+
+-- CommentRepository.findByAuthorId, also serves the users -> comments cascade
+CREATE INDEX IF NOT EXISTS idx_comments_author_id ON comments (author_id);
+
+-- Superseded by the indexes above
+DROP INDEX IF EXISTS idx_posts_created_at;
+DROP INDEX IF EXISTS idx_comments_post_id;
@@ -0,0 +1,2 @@
+-- Maintained by PostViewCounter in batched increments, never through the Post entity
+ALTER TABLE posts ADD COLUMN IF NOT EXISTS view_count BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,27 @@
+-- Per-author aggregates kept up to date by the post and comment write paths (AuthorStatsService)
+CREATE TABLE IF NOT EXISTS author_stats (
+    author_id         BIGINT       PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    posts             BIGINT       NOT NULL DEFAULT 0,
+    published_posts   BIGINT       NOT NULL DEFAULT 0,
+    comments_received BIGINT       NOT NULL DEFAULT 0,
+    last_activity_at  TIMESTAMP(6)
+);
+
+INSERT INTO author_stats (author_id, posts, published_posts, comments_received, last_activity_at)
+SELECT u.id,
+       COALESCE(p.posts, 0),
+       COALESCE(p.published_posts, 0),
+       COALESCE(r.comments_received, 0),
+       GREATEST(p.last_post_at, c.last_comment_at)
+FROM users u
+LEFT JOIN (SELECT author_id, count(*) AS posts, count(*) FILTER (WHERE published) AS published_posts,
+                  max(COALESCE(updated_at, created_at)) AS last_post_at
+           FROM posts GROUP BY author_id) p ON p.author_id = u.id
+LEFT JOIN (SELECT p.author_id, count(*) AS comments_received
+           FROM comments c JOIN posts p ON p.id = c.post_id GROUP BY p.author_id) r ON r.author_id = u.id
+LEFT JOIN (SELECT author_id, max(created_at) AS last_comment_at
+           FROM comments GROUP BY author_id) c ON c.author_id = u.id
+ON CONFLICT (author_id) DO NOTHING;
+
+-- PostRepository.findByAuthorIdAndPublishedTrueOrderByCreatedAtDesc: an author's public posts, newest first
+CREATE INDEX IF NOT EXISTS idx_posts_author_published_created_at ON posts (author_id, created_at DESC) WHERE published;
@@ -0,0 +1,18 @@
+-- Post bodies move out of posts so that listing posts or checking ownership never reads them.
+-- encoding: 0 = UTF-8, 1 = deflated UTF-8 (PostBodyStore); original_length is in characters.
+CREATE TABLE IF NOT EXISTS post_bodies (
+    post_id         BIGINT   PRIMARY KEY REFERENCES posts (id) ON DELETE CASCADE,
+    encoding        SMALLINT NOT NULL,
+    original_length INTEGER  NOT NULL,
+    body            BYTEA    NOT NULL
+);
+
+-- Bodies are compressed by the application; stop TOAST from trying again
+ALTER TABLE post_bodies ALTER COLUMN body SET STORAGE EXTERNAL;
+
+-- Existing bodies are copied as-is and get compressed the next time the post is saved
+INSERT INTO post_bodies (post_id, encoding, original_length, body)
+SELECT id, 0, length(content), convert_to(content, 'UTF8') FROM posts
+ON CONFLICT (post_id) DO NOTHING;
+
+ALTER TABLE posts DROP COLUMN content;
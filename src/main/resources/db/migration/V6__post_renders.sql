@@ -0,0 +1,13 @@
+-- Sanitized HTML of published posts, rendered once at publish time (RenderedHtmlService).
+-- Same encoding scheme as post_bodies; renderer_version lets a renderer change ignore older rows.
+CREATE TABLE IF NOT EXISTS post_renders (
+    post_id          BIGINT       PRIMARY KEY REFERENCES posts (id) ON DELETE CASCADE,
+    renderer_version SMALLINT     NOT NULL,
+    content_hash     VARCHAR(64)  NOT NULL,
+    encoding         SMALLINT     NOT NULL,
+    original_length  INTEGER      NOT NULL,
+    html             BYTEA        NOT NULL,
+    rendered_at      TIMESTAMP(6) NOT NULL
+);
+
+ALTER TABLE post_renders ALTER COLUMN html SET STORAGE EXTERNAL;
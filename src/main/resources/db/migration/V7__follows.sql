@@ -0,0 +1,14 @@
+-- Who follows whom. The primary key serves timeline rebuilds (follower -> followees),
+-- idx_follows_followee_follower serves fan-out on publish (followee -> followers).
+CREATE TABLE IF NOT EXISTS follows (
+    follower_id BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    followee_id BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    created_at  TIMESTAMP(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (follower_id, followee_id),
+    CHECK (follower_id <> followee_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_follows_followee_follower ON follows (followee_id, follower_id);
+
+-- Follower counts pick fan-out on write or on read per author (TimelineService)
+ALTER TABLE author_stats ADD COLUMN IF NOT EXISTS followers BIGINT NOT NULL DEFAULT 0;
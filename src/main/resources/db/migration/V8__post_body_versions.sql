@@ -0,0 +1,3 @@
+-- Every write of a post body bumps its version; draft autosave patches (PATCH /api/posts/{id}) state the version
+-- they were made against and are rejected when it is no longer current.
+ALTER TABLE post_bodies ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 1;
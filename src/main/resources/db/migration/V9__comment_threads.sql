@@ -0,0 +1,73 @@
+-- Reply threading. A comment's path is the ids from its thread's root down to itself, each zero-padded to 19 digits
+-- and joined with '.', so a post's comments in path order are depth-first thread order and any subtree is one
+-- contiguous range of idx_comments_post_path. reply_count is the number of replies below a comment at any depth.
+-- Both are maintained by the triggers below, whichever path (JPA, write-behind batches, cascades) writes the rows.
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS parent_id BIGINT REFERENCES comments (id) ON DELETE CASCADE;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS path TEXT COLLATE "C";
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS reply_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE comments SET path = lpad(id::text, 19, '0') WHERE path IS NULL;
+ALTER TABLE comments ALTER COLUMN path SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_comments_post_path ON comments (post_id, path);
+-- For the parent_id cascade when a comment with replies is deleted
+CREATE INDEX IF NOT EXISTS idx_comments_parent_id ON comments (parent_id) WHERE parent_id IS NOT NULL;
+
+CREATE OR REPLACE FUNCTION comments_set_path() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    parent_post_id BIGINT;
+    parent_path    TEXT;
+BEGIN
+    IF NEW.parent_id IS NULL THEN
+        NEW.path := lpad(NEW.id::text, 19, '0');
+    ELSE
+        SELECT post_id, path INTO parent_post_id, parent_path FROM comments WHERE id = NEW.parent_id;
+        IF parent_path IS NULL OR parent_post_id <> NEW.post_id THEN
+            RAISE foreign_key_violation USING MESSAGE =
+                format('comment %s is not a comment on post %s', NEW.parent_id, NEW.post_id);
+        END IF;
+        NEW.path := parent_path || '.' || lpad(NEW.id::text, 19, '0');
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+DROP TRIGGER IF EXISTS comments_set_path ON comments;
+CREATE TRIGGER comments_set_path BEFORE INSERT ON comments
+    FOR EACH ROW EXECUTE FUNCTION comments_set_path();
+
+-- Once per statement: every ancestor of the inserted or deleted rows moves by the number of them below it. Ancestors
+-- are locked in id order first, so concurrent replies in one thread queue up instead of deadlocking. A deleted
+-- subtree arrives as one statement per level of the parent_id cascade; each row is counted once, and updates of
+-- ancestors that are themselves being deleted find nothing.
+CREATE OR REPLACE FUNCTION comments_count_replies() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    direction INTEGER := CASE TG_OP WHEN 'INSERT' THEN 1 ELSE -1 END;
+BEGIN
+    PERFORM 1 FROM comments
+    WHERE id IN (SELECT ancestor::bigint
+                 FROM changed_comments r,
+                      unnest((string_to_array(r.path, '.'))[:cardinality(string_to_array(r.path, '.')) - 1]) ancestor)
+    ORDER BY id
+    FOR UPDATE;
+    IF FOUND THEN
+        UPDATE comments c SET reply_count = c.reply_count + direction * d.replies
+        FROM (SELECT ancestor::bigint AS id, count(*) AS replies
+              FROM changed_comments r,
+                   unnest((string_to_array(r.path, '.'))[:cardinality(string_to_array(r.path, '.')) - 1]) ancestor
+              GROUP BY ancestor) d
+        WHERE c.id = d.id;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DROP TRIGGER IF EXISTS comments_count_replies_insert ON comments;
+CREATE TRIGGER comments_count_replies_insert AFTER INSERT ON comments
+    REFERENCING NEW TABLE AS changed_comments
+    FOR EACH STATEMENT EXECUTE FUNCTION comments_count_replies();
+
+DROP TRIGGER IF EXISTS comments_count_replies_delete ON comments;
+CREATE TRIGGER comments_count_replies_delete AFTER DELETE ON comments
+    REFERENCING OLD TABLE AS changed_comments
+    FOR EACH STATEMENT EXECUTE FUNCTION comments_count_replies();
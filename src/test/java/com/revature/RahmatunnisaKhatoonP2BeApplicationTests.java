@@ -1,9 +1,12 @@
 package com.revature;
 
+import com.revature.support.EmbeddedPostgresInitializer;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
 
 @SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
 class RahmatunnisaKhatoonP2BeApplicationTests {
 
 	@Test
@@ -0,0 +1,63 @@
+package com.revature.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    private AuditLog auditLog;
+
+    @AfterEach
+    void tearDown() {
+        auditLog.stop();
+    }
+
+    @Test
+    void anIdleWriterWakesForTheNextRecord() throws InterruptedException {
+        // A long fsync interval: only the enqueue can wake the writer in time
+        auditLog = new AuditLog(directory, 1_024, 1 << 16, Duration.ofMinutes(10));
+        auditLog.start();
+        Thread.sleep(50);
+
+        auditLog.record(AuditAction.USER_BANNED, 42, "first");
+
+        assertThat(awaitRecords(1)).extracting(AuditRecord::targetId).containsExactly(42L);
+    }
+
+    @Test
+    void stopWritesWhatWasEnqueuedAndCountsLaterRecordsAsDropped() {
+        auditLog = new AuditLog(directory, 1_024, 1 << 16, Duration.ofMinutes(10));
+        auditLog.start();
+        for (int i = 0; i < 100; i++) {
+            auditLog.record(AuditAction.POST_DELETED, i, null);
+        }
+
+        auditLog.stop();
+        auditLog.record(AuditAction.POST_DELETED, 100, "after stop");
+
+        assertThat(auditLog.query(Instant.EPOCH, Instant.now(), 1_000)).hasSize(100);
+        assertThat(auditLog.droppedRecords()).isEqualTo(1);
+        assertThat(auditLog.isRunning()).isFalse();
+    }
+
+    private List<AuditRecord> awaitRecords(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        List<AuditRecord> records;
+        while ((records = auditLog.query(Instant.EPOCH, Instant.now(), 100)).size() < count
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,97 @@
+package com.revature.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        AuditRingBuffer buffer = new AuditRingBuffer(5);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(buffer.offer(record(i))).isTrue();
+        }
+        assertThat(buffer.offer(record(8))).as("full").isFalse();
+    }
+
+    @Test
+    void wrapsAroundManyTimesInOrder() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        long next = 0;
+        long expected = 0;
+
+        // Fill and half-drain repeatedly, so head and tail lap the slots
+        for (int round = 0; round < 100; round++) {
+            while (buffer.offer(record(next))) {
+                next++;
+            }
+            for (int i = 0; i < 2; i++) {
+                assertThat(buffer.poll().targetId()).isEqualTo(expected++);
+            }
+        }
+        while (!buffer.isEmpty()) {
+            assertThat(buffer.poll().targetId()).isEqualTo(expected++);
+        }
+
+        assertThat(expected).isEqualTo(next);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(1_024);
+        int producers = 4;
+        int perProducer = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long base = (long) p * perProducer;
+                futures.add(executor.submit(() -> {
+                    for (long i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(record(base + i))) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+
+            Set<Long> seen = new HashSet<>();
+            long[] lastByProducer = new long[producers];
+            Arrays.fill(lastByProducer, -1);
+            while (seen.size() < producers * perProducer) {
+                AuditRecord record = buffer.poll();
+                if (record == null) {
+                    Thread.yield();
+                    continue;
+                }
+                assertThat(seen.add(record.targetId())).isTrue();
+                int producer = (int) (record.targetId() / perProducer);
+                assertThat(record.targetId()).as("per-producer order").isGreaterThan(lastByProducer[producer]);
+                lastByProducer[producer] = record.targetId();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    private static AuditRecord record(long targetId) {
+        return new AuditRecord(Instant.EPOCH, AuditAction.POST_DELETED, "tester", targetId, null);
+    }
+}
@@ -0,0 +1,176 @@
+package com.revature.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditSegmentLogTest {
+
+    // A record below is 25 bytes, so a frame is 33 and a segment holds three
+    private static final int FRAME = 33;
+    private static final int SEGMENT_SIZE = 3 * FRAME + 1;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void scansReturnRecordsInTheRangeAcrossSegments() throws IOException {
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 10; i++) {
+                log.append(record(1_000 + i, i));
+            }
+
+            assertThat(segmentNames()).containsExactly("audit-000000000001000.seg", "audit-000000000001003.seg",
+                    "audit-000000000001006.seg", "audit-000000000001009.seg");
+            assertThat(targets(log.scan(at(0), at(5_000), 100))).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+            assertThat(targets(log.scan(at(1_002), at(1_006), 100))).containsExactly(2L, 3L, 4L, 5L, 6L);
+            assertThat(targets(log.scan(at(1_003), at(1_003), 100))).containsExactly(3L);
+            assertThat(targets(log.scan(at(1_005), at(1_005), 100))).containsExactly(5L);
+            assertThat(targets(log.scan(at(1_004), at(5_000), 3))).containsExactly(4L, 5L, 6L);
+            assertThat(log.scan(at(0), at(999), 100)).isEmpty();
+            assertThat(log.scan(at(1_010), at(5_000), 100)).isEmpty();
+        }
+    }
+
+    @Test
+    void aRecordStampedBeforeTheLastOneTakesItsTimestamp() throws IOException {
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            log.append(record(1_000, 0));
+            log.append(record(1_001, 1));
+            log.append(record(1_002, 2));
+            // Rolls to a new segment, which must not be named before the records it follows
+            log.append(record(900, 3));
+
+            assertThat(segmentNames()).containsExactly("audit-000000000001000.seg", "audit-000000000001002.seg");
+            List<AuditRecord> late = log.scan(at(1_002), at(1_002), 100);
+            assertThat(targets(late)).containsExactly(2L, 3L);
+            assertThat(late.get(1).at()).isEqualTo(at(1_002));
+            assertThat(targets(log.scan(at(0), at(5_000), 100))).containsExactly(0L, 1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    void segmentsStartedInTheSameMillisecondGetDistinctNames() throws IOException {
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 4; i++) {
+                log.append(record(1_000, i));
+            }
+
+            assertThat(segmentNames()).containsExactly("audit-000000000001000.seg", "audit-000000000001001.seg");
+            assertThat(targets(log.scan(at(1_000), at(1_000), 100))).containsExactly(0L, 1L, 2L);
+            assertThat(targets(log.scan(at(1_001), at(1_001), 100))).containsExactly(3L);
+        }
+    }
+
+    @Test
+    void aTornTailIsIgnoredAndOverwrittenOnReopen() throws IOException {
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            log.append(record(1_000, 0));
+            log.append(record(1_001, 1));
+        }
+        // A crash after the length of the third frame reached the disk but before its record did
+        writeInt(segment("audit-000000000001000.seg"), 2 * FRAME, 25);
+
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            assertThat(targets(log.scan(at(0), at(5_000), 100))).containsExactly(0L, 1L);
+
+            log.append(record(1_002, 2));
+
+            assertThat(targets(log.scan(at(0), at(5_000), 100))).containsExactly(0L, 1L, 2L);
+            assertThat(segmentNames()).hasSize(1);
+        }
+    }
+
+    @Test
+    void aCorruptFrameEndsTheScanOfItsSegment() throws IOException {
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < 6; i++) {
+                log.append(record(1_000 + i, i));
+            }
+        }
+        // Flip a bit in the second record's bytes; its checksum no longer matches
+        Path first = segment("audit-000000000001000.seg");
+        byte[] bytes = Files.readAllBytes(first);
+        bytes[FRAME + 8 + 10] ^= 1;
+        Files.write(first, bytes);
+
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            assertThat(targets(log.scan(at(0), at(5_000), 100))).containsExactly(0L, 3L, 4L, 5L);
+        }
+    }
+
+    @Test
+    void reopeningKeepsTimestampsFromGoingBackwards() throws IOException {
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            log.append(record(1_000, 0));
+            log.append(record(1_005, 1));
+        }
+
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            log.append(record(1_001, 2));
+
+            assertThat(log.scan(at(1_005), at(1_005), 100)).extracting(AuditRecord::targetId).containsExactly(1L, 2L);
+        }
+    }
+
+    @Test
+    void longTextIsCutBetweenCharacters() throws IOException {
+        // The 255-byte limit falls on the second byte of the first 'é'
+        String detail = "a".repeat(254) + "é".repeat(10);
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, 4_096)) {
+            log.append(new AuditRecord(at(1_000), AuditAction.POST_DELETED, "tester", 1, detail));
+
+            assertThat(log.scan(at(1_000), at(1_000), 1)).extracting(AuditRecord::detail)
+                    .containsExactly("a".repeat(254));
+        }
+    }
+
+    @Test
+    void onlyOneWriterPerDirectory() throws IOException {
+        try (AuditSegmentLog log = new AuditSegmentLog(directory, SEGMENT_SIZE)) {
+            assertThatThrownBy(() -> new AuditSegmentLog(directory, SEGMENT_SIZE))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    private List<String> segmentNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(".seg")).sorted()
+                    .toList();
+        }
+    }
+
+    private Path segment(String name) {
+        return directory.resolve(name);
+    }
+
+    private static void writeInt(Path path, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, value), position);
+        }
+    }
+
+    private static List<Long> targets(List<AuditRecord> records) {
+        return records.stream().map(AuditRecord::targetId).toList();
+    }
+
+    private static Instant at(long millis) {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    private static AuditRecord record(long millis, long targetId) {
+        return new AuditRecord(at(millis), AuditAction.POST_DELETED, "tester", targetId, null);
+    }
+}
@@ -0,0 +1,116 @@
+package com.revature.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A 64 byte threshold; a body that ends under it goes out with its length, which Tomcat does not compress
+class CompressionThresholdFilterTest {
+
+    private static final int THRESHOLD = 64;
+
+    private final CompressionThresholdFilter filter = new CompressionThresholdFilter(new MockEnvironment()
+            .withProperty("server.compression.enabled", "true")
+            .withProperty("server.compression.min-response-size", THRESHOLD + "B")
+            .withProperty("server.compression.mime-types", "application/json,text/html"));
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final AtomicBoolean committedEarly = new AtomicBoolean();
+
+    @Test
+    void aSmallBodyIsHeldBackAndSentWithItsLength() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        String body = "{\"error\":\"Post not found\"}";
+
+        filter.doFilter(request, response, streamed("application/json", body));
+
+        assertThat(committedEarly).isFalse();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isEqualTo(String.valueOf(body.length()));
+        assertThat(response.getContentAsString()).isEqualTo(body);
+    }
+
+    @Test
+    void aBodyThatReachesTheThresholdStreamsWithoutALength() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String body = "{\"content\":\"" + "x".repeat(THRESHOLD) + "\"}";
+
+        filter.doFilter(request, response, streamed("application/json", body));
+
+        assertThat(committedEarly).isTrue();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(body);
+    }
+
+    @Test
+    void aSmallWrittenBodyIsHeldBackAndSentWithItsEncodedLength() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String body = "<p>Café über alles</p>";
+
+        filter.doFilter(request, response, written(body));
+
+        assertThat(committedEarly).isFalse();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH))
+                .isEqualTo(String.valueOf(body.getBytes(StandardCharsets.UTF_8).length));
+        assertThat(response.getContentAsString()).isEqualTo(body);
+    }
+
+    @Test
+    void aLongWrittenBodyStreamsWithoutALength() throws Exception {
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String body = "<p>" + "é".repeat(THRESHOLD) + "</p>";
+
+        filter.doFilter(request, response, written(body));
+
+        assertThat(committedEarly).isTrue();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo(body);
+    }
+
+    @Test
+    void bodiesThatWouldNotBeCompressedAreLeftAlone() throws Exception {
+        String body = "{}";
+
+        filter.doFilter(request, response, streamed("application/json", body));
+        assertThat(committedEarly).isTrue();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+
+        committedEarly.set(false);
+        MockHttpServletRequest gzipRequest = new MockHttpServletRequest("GET", "/avatar");
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse imageResponse = new MockHttpServletResponse();
+        filter.doFilter(gzipRequest, imageResponse, streamed("image/png", body));
+        assertThat(committedEarly).isTrue();
+        assertThat(imageResponse.getHeader(HttpHeaders.CONTENT_LENGTH)).isNull();
+    }
+
+    // Writes the body through the output stream and flushes it, as the message converters do
+    private FilterChain streamed(String contentType, String body) {
+        return (req, res) -> {
+            res.setContentType(contentType);
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            res.getOutputStream().flush();
+            res.flushBuffer();
+            committedEarly.set(res.isCommitted());
+        };
+    }
+
+    // Writes the body through the writer and flushes it, as a view or an error page does
+    private FilterChain written(String body) {
+        return (req, res) -> {
+            res.setContentType("text/html;charset=UTF-8");
+            res.getWriter().write(body);
+            res.getWriter().flush();
+            res.flushBuffer();
+            committedEarly.set(res.isCommitted());
+        };
+    }
+}
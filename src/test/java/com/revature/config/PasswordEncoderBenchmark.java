@@ -0,0 +1,38 @@
+package com.revature.config;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    // 10 is the BCryptPasswordEncoder default used by SecurityConfig
+    @Param({ "4", "8", "10", "12" })
+    private int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        encodedPassword = passwordEncoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("benchmark-password");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("benchmark-password", encodedPassword);
+    }
+}
@@ -0,0 +1,147 @@
+package com.revature.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.revature.dto.CommentRequest;
+import com.revature.dto.PostRequest;
+import com.revature.entity.User;
+import com.revature.repository.UserRepository;
+import com.revature.security.JwtTokenProvider;
+import com.revature.security.UserDetailsServiceImpl;
+import com.revature.service.PostService;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.TimeZone;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The same comment list in each format the Accept header can ask for
+@SpringBootTest
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class ResponseFormatNegotiationTest {
+
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private final SmileMapper smileMapper = SmileMapper.builder().build();
+    private WebTestClient client;
+    private String comments;
+
+    @BeforeEach
+    void setUp() {
+        User author = new User();
+        author.setUsername("formats-" + UUID.randomUUID().toString().substring(0, 8));
+        author.setEmail(author.getUsername() + "@example.com");
+        author.setPassword("hash");
+        author.setRole(User.Role.USER);
+        author.setIsBanned(false);
+        userRepository.save(author);
+        String token = jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername(author.getUsername()));
+        client = MockMvcWebTestClient.bindTo(mockMvc)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+
+        Long postId = postService.createPost(new PostRequest("Formats", "Body", true), author.getUsername()).getId();
+        comments = "/api/posts/" + postId + "/comments";
+        add(MediaType.APPLICATION_JSON, jsonMapper, "Sent as JSON");
+    }
+
+    @Test
+    void jsonIsTheDefault() {
+        JsonNode body = jsonMapper.readTree(read(MediaType.ALL, MediaType.APPLICATION_JSON));
+
+        assertThat(body.path("data").get(0).path("content").asString()).isEqualTo("Sent as JSON");
+    }
+
+    @Test
+    void cborAndSmileCarryTheSameBodyAsJson() {
+        JsonNode json = jsonMapper.readTree(read(MediaType.APPLICATION_JSON, MediaType.APPLICATION_JSON));
+
+        assertThat(cborMapper.readTree(read(CBOR, CBOR))).isEqualTo(json);
+        assertThat(smileMapper.readTree(read(SMILE, SMILE))).isEqualTo(json);
+        assertThat(json.path("data").get(0).path("createdAt").isString()).isTrue();
+    }
+
+    @Test
+    void requestBodiesMayBeSentInEitherBinaryFormat() {
+        add(CBOR, cborMapper, "Sent as CBOR");
+        add(SMILE, smileMapper, "Sent as Smile");
+
+        JsonNode body = jsonMapper.readTree(read(MediaType.APPLICATION_JSON, MediaType.APPLICATION_JSON));
+        assertThat(body.path("data").findValuesAsString("content"))
+                .containsExactlyInAnyOrder("Sent as JSON", "Sent as CBOR", "Sent as Smile");
+    }
+
+    @Test
+    void smileSharesTheJsonMappersConfiguration() {
+        JsonMapper configured = JsonMapper.builder()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .changeDefaultPropertyInclusion(inclusion -> inclusion.withValueInclusion(JsonInclude.Include.NON_NULL))
+                .defaultTimeZone(TimeZone.getTimeZone("Europe/Berlin"))
+                .build();
+
+        SmileMapper smile = WebMvcConfig.smileMapper(configured);
+
+        assertThat(smile.isEnabled(SerializationFeature.INDENT_OUTPUT)).isTrue();
+        assertThat(smile.isEnabled(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS)).isFalse();
+        assertThat(smile.serializationConfig().getDefaultPropertyInclusion().getValueInclusion())
+                .isEqualTo(JsonInclude.Include.NON_NULL);
+        assertThat(smile.serializationConfig().getTimeZone()).isEqualTo(TimeZone.getTimeZone("Europe/Berlin"));
+        assertThat(smile.registeredModules()).hasSameSizeAs(configured.registeredModules());
+    }
+
+    private byte[] read(MediaType accept, MediaType expected) {
+        return client.get().uri(comments)
+                .accept(accept)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(expected)
+                .expectBody(byte[].class).returnResult().getResponseBody();
+    }
+
+    private void add(MediaType contentType, ObjectMapper mapper, String content) {
+        client.post().uri(comments)
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(mapper.writeValueAsBytes(new CommentRequest(content, null)))
+                .exchange()
+                .expectStatus().isCreated();
+    }
+}
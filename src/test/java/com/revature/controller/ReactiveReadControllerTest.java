@@ -0,0 +1,182 @@
+package com.revature.controller;
+
+import com.revature.dto.CommentRequest;
+import com.revature.dto.PostRequest;
+import com.revature.entity.User;
+import com.revature.repository.UserRepository;
+import com.revature.security.JwtTokenProvider;
+import com.revature.security.UserDetailsServiceImpl;
+import com.revature.service.PostService;
+import com.revature.service.PostViewCounter;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The reactive reads must return what the servlet ones do
+@SpringBootTest
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class ReactiveReadControllerTest {
+
+    private static final long MISSING = Long.MAX_VALUE;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostViewCounter postViewCounter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private WebTestClient client;
+    private Long postId;
+
+    @BeforeEach
+    void setUp() {
+        User author = new User();
+        author.setUsername("reactive-" + UUID.randomUUID().toString().substring(0, 8));
+        author.setEmail(author.getUsername() + "@example.com");
+        author.setPassword("hash");
+        author.setRole(User.Role.USER);
+        author.setIsBanned(false);
+        userRepository.save(author);
+        String token = jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername(author.getUsername()));
+        client = MockMvcWebTestClient.bindTo(mockMvc)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+
+        PostRequest post = new PostRequest("Reactive post", "Some *markdown* body", true);
+        postId = postService.createPost(post, author.getUsername()).getId();
+        for (int i = 0; i < 3; i++) {
+            client.post().uri("/api/posts/" + postId + "/comments")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new CommentRequest("Comment " + i, null))
+                    .exchange()
+                    .expectStatus().isCreated();
+        }
+    }
+
+    @Test
+    void postMatchesTheServletRead() {
+        JsonNode servlet = json(get("/api/posts/" + postId));
+        JsonNode reactive = json(get("/api/reactive/posts/" + postId));
+
+        // Each read records a view and shows it
+        assertThat(reactive.path("data").path("viewCount").asLong())
+                .isEqualTo(servlet.path("data").path("viewCount").asLong() + 1);
+        assertThat(withoutViewCount(reactive)).isEqualTo(withoutViewCount(servlet));
+    }
+
+    @Test
+    void feedMatchesTheServletRead() {
+        JsonNode servlet = json(get("/api/posts"));
+        JsonNode reactive = json(get("/api/reactive/posts"));
+
+        assertThat(byId(reactive.path("data"))).isEqualTo(byId(servlet.path("data")));
+        assertThat(reactive.path("success")).isEqualTo(servlet.path("success"));
+    }
+
+    @Test
+    void commentsMatchTheServletRead() {
+        JsonNode servlet = json(get("/api/posts/" + postId + "/comments"));
+        JsonNode reactive = json(get("/api/reactive/posts/" + postId + "/comments"));
+
+        assertThat(reactive).isEqualTo(servlet);
+        assertThat(reactive.path("data")).hasSize(3);
+    }
+
+    @Test
+    void commentsStreamAsOneJsonObjectPerLine() {
+        String body = client.get().uri("/api/reactive/posts/" + postId + "/comments")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        List<JsonNode> lines = body.lines().map(jsonMapper::readTree).toList();
+        JsonNode list = json(get("/api/reactive/posts/" + postId + "/comments")).path("data");
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.size(); i++) {
+            assertThat(lines.get(i)).isEqualTo(list.get(i));
+        }
+    }
+
+    @Test
+    void feedStreamsAsOneJsonObjectPerLine() {
+        String body = client.get().uri("/api/reactive/posts")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(body.lines().map(jsonMapper::readTree).map(post -> post.path("id").asLong()))
+                .contains(postId);
+    }
+
+    @Test
+    void aMissingPostIsA404AndNotAView() {
+        client.get().uri("/api/reactive/posts/" + MISSING).exchange().expectStatus().isNotFound();
+
+        assertThat(postViewCounter.pendingViews(MISSING)).isZero();
+    }
+
+    @Test
+    void commentsOfAMissingPostAreA404() {
+        client.get().uri("/api/reactive/posts/" + MISSING + "/comments").exchange().expectStatus().isNotFound();
+        client.get().uri("/api/reactive/posts/" + MISSING + "/comments")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    private WebTestClient.ResponseSpec get(String uri) {
+        return client.get().uri(uri).accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isOk();
+    }
+
+    private JsonNode json(WebTestClient.ResponseSpec response) {
+        return jsonMapper.readTree(response.expectBody(String.class).returnResult().getResponseBody());
+    }
+
+    private static JsonNode withoutViewCount(JsonNode response) {
+        JsonNode copy = response.deepCopy();
+        ((ObjectNode) copy.path("data")).remove("viewCount");
+        return copy;
+    }
+
+    private static Map<Long, JsonNode> byId(JsonNode posts) {
+        Map<Long, JsonNode> byId = new HashMap<>();
+        posts.forEach(post -> byId.put(post.path("id").asLong(), post));
+        return byId;
+    }
+}
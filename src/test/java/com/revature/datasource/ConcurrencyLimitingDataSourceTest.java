@@ -0,0 +1,141 @@
+package com.revature.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The target hands out inert connections and counts the open ones
+class ConcurrencyLimitingDataSourceTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final ConcurrencyLimitingDataSource dataSource = new ConcurrencyLimitingDataSource(target(), 1, TIMEOUT);
+
+    @Test
+    void aPermitIsHeldUntilTheConnectionIsClosed() throws Exception {
+        Connection connection = dataSource.getConnection();
+        assertThat(dataSource.inUse()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+
+        assertThat(dataSource.inUse()).isZero();
+        assertThat(open).hasValue(0);
+    }
+
+    @Test
+    void anotherThreadFailsOnceTheAcquireTimeoutIsUp() throws Exception {
+        try (Connection ignored = dataSource.getConnection()) {
+            long start = System.nanoTime();
+            CompletableFuture<Connection> other = CompletableFuture.supplyAsync(this::connect);
+
+            assertThatThrownBy(other::join).hasRootCauseInstanceOf(SQLTransientConnectionException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(TIMEOUT);
+        }
+        assertThat(dataSource.inUse()).isZero();
+    }
+
+    @Test
+    void aWaitingThreadIsAdmittedWhenThePermitIsReleased() throws Exception {
+        Connection connection = dataSource.getConnection();
+        CompletableFuture<Connection> other = CompletableFuture.supplyAsync(this::connect);
+        while (dataSource.waiting() == 0) {
+            Thread.yield();
+        }
+
+        connection.close();
+
+        try (Connection admitted = other.get(5, TimeUnit.SECONDS)) {
+            assertThat(dataSource.inUse()).isEqualTo(1);
+        }
+        assertThat(dataSource.inUse()).isZero();
+    }
+
+    @Test
+    void aNestedConnectionOnTheSameThreadSharesThePermit() throws Exception {
+        Connection outer = dataSource.getConnection();
+        Connection nested = dataSource.getConnection();
+        assertThat(dataSource.inUse()).isEqualTo(1);
+        assertThat(open).hasValue(2);
+
+        nested.close();
+        assertThat(dataSource.inUse()).isEqualTo(1);
+        outer.close();
+        assertThat(dataSource.inUse()).isZero();
+    }
+
+    @Test
+    void aPermitReleasedOnAnotherThreadIsAcquiredAgain() throws Exception {
+        Connection connection = dataSource.getConnection();
+        CompletableFuture.runAsync(() -> {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(5, TimeUnit.SECONDS);
+        assertThat(dataSource.inUse()).isZero();
+
+        try (Connection next = dataSource.getConnection()) {
+            assertThat(dataSource.inUse()).isEqualTo(1);
+            // The permit is this thread's again, so another one still has to wait
+            assertThatThrownBy(CompletableFuture.supplyAsync(this::connect)::join)
+                    .hasRootCauseInstanceOf(SQLTransientConnectionException.class);
+        }
+    }
+
+    @Test
+    void aFailedConnectReleasesThePermit() {
+        failing.set(true);
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+        assertThat(dataSource.inUse()).isZero();
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DataSource target() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    if (failing.get()) {
+                        throw new SQLException("Connection refused");
+                    }
+                    open.incrementAndGet();
+                    return connection();
+                });
+    }
+
+    private Connection connection() {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        open.decrementAndGet();
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,131 @@
+package com.revature.datasource;
+
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Primary and replica are two databases on the embedded server, told apart by current_database()
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(WINDOW, nanos::get);
+
+    private String primaryDatabase;
+    private String replicaDatabase;
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primaryDatabase = EmbeddedPostgresInitializer.createDatabase("routing_primary");
+        replicaDatabase = EmbeddedPostgresInitializer.createDatabase("routing_replica");
+        primary = pool(primaryDatabase);
+        replica = pool(replicaDatabase);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), new RoutingProperties(), tracker);
+        routingDataSource.afterPropertiesSet();
+        routingDataSource.checkReplicaLag();
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        routingDataSource.destroy();
+        primary.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(inTransaction(readOnly)).isEqualTo(replicaDatabase);
+    }
+
+    @Test
+    void readWriteTransactionsAndPlainStatementsGoToThePrimary() {
+        assertThat(inTransaction(readWrite)).isEqualTo(primaryDatabase);
+        assertThat(currentDatabase()).isEqualTo(primaryDatabase);
+    }
+
+    @Test
+    void readsOfAUserThatJustWroteStayOnThePrimaryForTheWindow() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("writer", null, List.of()));
+        tracker.markWrite("writer");
+
+        assertThat(inTransaction(readOnly)).isEqualTo(primaryDatabase);
+        nanos.addAndGet(WINDOW.toNanos() - 1);
+        assertThat(inTransaction(readOnly)).isEqualTo(primaryDatabase);
+        nanos.addAndGet(1);
+        assertThat(inTransaction(readOnly)).isEqualTo(replicaDatabase);
+    }
+
+    @Test
+    void otherUsersKeepReadingFromTheReplica() {
+        tracker.markWrite("writer");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader", null, List.of()));
+
+        assertThat(inTransaction(readOnly)).isEqualTo(replicaDatabase);
+    }
+
+    @Test
+    void readsGoToThePrimaryWhileTheReplicaIsUnreachable() {
+        replica.close();
+        routingDataSource.checkReplicaLag();
+
+        assertThat(inTransaction(readOnly)).isEqualTo(primaryDatabase);
+    }
+
+    @Test
+    void trackedWritersAreBounded() {
+        for (int i = 0; i < ReadYourWritesTracker.MAX_TRACKED_USERS + 1_000; i++) {
+            tracker.markWrite("user" + i);
+        }
+        assertThat(tracker.trackedUsers()).isLessThanOrEqualTo(ReadYourWritesTracker.MAX_TRACKED_USERS);
+    }
+
+    private String inTransaction(TransactionTemplate transaction) {
+        return transaction.execute(status -> currentDatabase());
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+    }
+
+    private static HikariDataSource pool(String database) {
+        EmbeddedPostgres server = EmbeddedPostgresInitializer.server();
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(server.getJdbcUrl("postgres", database));
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("postgres");
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setConnectionTimeout(1_000);
+        return dataSource;
+    }
+}
@@ -0,0 +1,56 @@
+package com.revature.dto;
+
+import com.revature.entity.Post;
+import com.revature.entity.User;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({ "1", "20", "100", "1000" })
+    private int size;
+
+    private JsonMapper jsonMapper;
+    private ApiResponse<List<Post>> response;
+
+    @Setup
+    public void setUp() {
+        jsonMapper = ApplicationMappers.get(JsonMapper.class);
+
+        User author = new User();
+        author.setId(1L);
+        author.setUsername("benchmark-user");
+        author.setEmail("benchmark@example.com");
+        author.setRole(User.Role.USER);
+
+        List<Post> posts = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            Post post = new Post();
+            post.setId(i);
+            post.setTitle("Post title " + i);
+            post.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(20));
+            post.setAuthor(author);
+            post.setPublished(true);
+            post.setCreatedAt(LocalDateTime.now());
+            post.setUpdatedAt(LocalDateTime.now());
+            posts.add(post);
+        }
+        response = ApiResponse.success(posts);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return jsonMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,25 @@
+package com.revature.dto;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The mappers as the application configures them: Boot's Jackson auto-configuration with application.properties,
+// so benchmarks measure the modules, features and spring.jackson.* settings the endpoints actually use
+final class ApplicationMappers {
+
+    private ApplicationMappers() {
+    }
+
+    static <T> T get(Class<T> type) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run()) {
+            return context.getBean(type);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.revature.dto;
+
+import com.revature.config.WebMvcConfig;
+import com.revature.entity.Post;
+import com.revature.entity.User;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Encode and decode time of the feed and comment list responses in each negotiable format
+// ./mvnw -Pbenchmark -DskipTests test -Djmh.include=ResponseFormatBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    public enum Format {
+        JSON,
+        CBOR,
+        SMILE
+    }
+
+    public enum Payload {
+        FEED,
+        COMMENTS
+    }
+
+    @Param
+    private Format format;
+
+    @Param
+    private Payload payload;
+
+    @Param({ "20", "100" })
+    private int size;
+
+    private ObjectMapper mapper;
+    private ApiResponse<?> response;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        mapper = switch (format) {
+            case JSON -> ApplicationMappers.get(JsonMapper.class);
+            case CBOR -> ApplicationMappers.get(CBORMapper.class);
+            case SMILE -> WebMvcConfig.smileMapper(ApplicationMappers.get(JsonMapper.class));
+        };
+        response = payload == Payload.FEED ? feed() : comments();
+        encoded = mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public JsonNode decode() {
+        return mapper.readTree(encoded);
+    }
+
+    private ApiResponse<List<Post>> feed() {
+        User author = new User();
+        author.setId(1L);
+        author.setUsername("benchmark-user");
+        author.setEmail("benchmark@example.com");
+        author.setRole(User.Role.USER);
+
+        List<Post> posts = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            Post post = new Post();
+            post.setId(i);
+            post.setTitle("Post title " + i);
+            post.setContent("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(20));
+            post.setAuthor(author);
+            post.setPublished(true);
+            post.setCreatedAt(LocalDateTime.now());
+            post.setUpdatedAt(LocalDateTime.now());
+            posts.add(post);
+        }
+        return ApiResponse.success(posts);
+    }
+
+    private ApiResponse<List<CommentResponse>> comments() {
+        List<CommentResponse> comments = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            comments.add(new CommentResponse(i, "Comment " + i + " on the post, a sentence or two long.",
+                    new CommentResponse.UserResponse(1 + i % 7, "commenter" + (1 + i % 7)), 1L,
+                    i % 3 == 0 ? null : i - 1, LocalDateTime.now(), LocalDateTime.now()));
+        }
+        return ApiResponse.success(comments);
+    }
+}
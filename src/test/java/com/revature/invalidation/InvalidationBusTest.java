@@ -0,0 +1,165 @@
+package com.revature.invalidation;
+
+import com.revature.entity.User;
+import com.revature.repository.UserRepository;
+import com.revature.security.UserDetailsServiceImpl;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class InvalidationBusTest {
+
+    private static final Duration PROPAGATION_BOUND = Duration.ofSeconds(2);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    // A second instance sharing the database: its writes bypass this instance's caches
+    private PostgresInvalidationBus otherInstance;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        otherInstance = new PostgresInvalidationBus(jdbcTemplate, dataSourceProperties, Duration.ofMillis(50), 10_000,
+                Duration.ofSeconds(1));
+        otherInstance.start();
+
+        user = new User();
+        user.setUsername("node-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("hash");
+        user.setRole(User.Role.USER);
+        user.setIsBanned(false);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        otherInstance.stop();
+    }
+
+    @Test
+    void userBannedOnAnotherInstanceIsRejectedHereWithinTheBound() {
+        userDetailsService.loadUserByUsername(user.getUsername());
+
+        jdbcTemplate.update("UPDATE users SET is_banned = true WHERE id = ?", user.getId());
+        // Still served from the second-level cache
+        userDetailsService.loadUserByUsername(user.getUsername());
+
+        otherInstance.publish(InvalidationTopic.USER, user.getId());
+        assertWithinBound(() -> isRejected(user.getUsername()));
+    }
+
+    @Test
+    void userDeletedOnAnotherInstanceDisappearsHereWithinTheBound() {
+        userDetailsService.loadUserByUsername(user.getUsername());
+
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        otherInstance.publish(InvalidationTopic.USER, user.getId());
+
+        assertWithinBound(() -> userRepository.findByUsername(user.getUsername()).isEmpty());
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername(user.getUsername()))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void burstsAreCoalescedIntoOneInvalidationPerIdAndFlush() {
+        InMemoryInvalidationBus publisher = new InMemoryInvalidationBus(Duration.ofHours(1), 10_000);
+        InMemoryInvalidationBus receiver = new InMemoryInvalidationBus(Duration.ofHours(1), 10_000);
+        AtomicInteger appliedLocally = new AtomicInteger();
+        List<Long> received = new ArrayList<>();
+        publisher.subscribe(InvalidationTopic.POST, id -> appliedLocally.incrementAndGet(), () -> { });
+        receiver.subscribe(InvalidationTopic.POST, received::add, () -> { });
+        publisher.start();
+        receiver.start();
+        try {
+            for (int i = 0; i < 1_000; i++) {
+                publisher.publish(InvalidationTopic.POST, 7);
+            }
+            // Enough ids to need several payloads
+            for (long id = 1_000; id < 3_000; id++) {
+                publisher.publish(InvalidationTopic.POST, id);
+            }
+            publisher.flush();
+
+            assertThat(appliedLocally).hasValue(3_000);
+            assertThat(received).hasSize(2_001).doesNotHaveDuplicates().contains(7L, 1_000L, 2_999L);
+        } finally {
+            publisher.stop();
+            receiver.stop();
+        }
+    }
+
+    @Test
+    void tooManyPendingIdsAreSentAsInvalidateAll() {
+        InMemoryInvalidationBus publisher = new InMemoryInvalidationBus(Duration.ofHours(1), 3);
+        InMemoryInvalidationBus receiver = new InMemoryInvalidationBus(Duration.ofHours(1), 3);
+        List<Long> received = new ArrayList<>();
+        AtomicInteger invalidatedAll = new AtomicInteger();
+        receiver.subscribe(InvalidationTopic.USER, received::add, invalidatedAll::incrementAndGet);
+        publisher.start();
+        receiver.start();
+        try {
+            for (long id = 1; id <= 5; id++) {
+                publisher.publish(InvalidationTopic.USER, id);
+            }
+            publisher.flush();
+
+            assertThat(received).isEmpty();
+            assertThat(invalidatedAll).hasValue(1);
+        } finally {
+            publisher.stop();
+            receiver.stop();
+        }
+    }
+
+    private boolean isRejected(String username) {
+        try {
+            userDetailsService.loadUserByUsername(username);
+            return false;
+        } catch (UsernameNotFoundException e) {
+            return true;
+        }
+    }
+
+    private static void assertWithinBound(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + PROPAGATION_BOUND.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("not propagated within %s", PROPAGATION_BOUND).isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
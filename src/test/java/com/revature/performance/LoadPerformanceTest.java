@@ -0,0 +1,210 @@
+package com.revature.performance;
+
+import com.revature.security.JwtTokenProvider;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.revature.support.ServerTimingHeader;
+import com.revature.support.SyntheticDataSeeder;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// ./mvnw test -Pperf [-Dperf.users=... -Dperf.posts=... -Dperf.comments=... -Dperf.threads=...]
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.tracing.debug=true")
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoadPerformanceTest {
+
+    private static final int USERS = Integer.getInteger("perf.users", 100_000);
+    private static final int POSTS = Integer.getInteger("perf.posts", 1_000_000);
+    private static final int PUBLISHED_POSTS = Integer.getInteger("perf.published-posts", 200);
+    private static final int COMMENTS = Integer.getInteger("perf.comments", 5_000_000);
+    private static final int THREADS = Integer.getInteger("perf.threads", 32);
+    private static final int DURATION_SECONDS = Integer.getInteger("perf.duration-seconds", 30);
+    private static final int MIN_THROUGHPUT = Integer.getInteger("perf.min-throughput", 200);
+
+    enum Endpoint {
+        FEED(25, 500, 1),
+        POST(30, 200, 1),
+        COMMENTS(25, 300, 3),
+        ADD_COMMENT(15, 500, 4),
+        LOGIN(5, 2_000, 2);
+
+        final int weight;
+        final long maxP95Millis;
+        final int statementBudget;
+
+        Endpoint(int weight, long maxP95Millis, int statementBudget) {
+            this.weight = weight;
+            this.maxP95Millis = Long.getLong("perf.max-p95-ms." + name().toLowerCase(), maxP95Millis);
+            this.statementBudget = statementBudget;
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final List<String> tokens = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        SyntheticDataSeeder.seed(jdbcTemplate, USERS, POSTS, PUBLISHED_POSTS, COMMENTS);
+        for (int i = 1; i <= 1_000; i++) {
+            String username = "user" + (1 + (i * 97) % USERS);
+            tokens.add(jwtTokenProvider.generateToken(
+                    new User(username, "", List.of(new SimpleGrantedAuthority("ROLE_USER")))));
+        }
+    }
+
+    @Test
+    void mixedWorkloadMeetsThroughputLatencyAndQueryBudgets() throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<WorkerResult>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> runWorker(deadline)));
+        }
+
+        WorkerResult total = new WorkerResult();
+        for (Future<WorkerResult> future : futures) {
+            total.merge(future.get());
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        SoftAssertions softly = new SoftAssertions();
+        long requests = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            long[] latencies = total.latencies(endpoint);
+            requests += latencies.length;
+            long p95 = percentile(latencies, 0.95);
+            System.out.printf("%-12s requests=%d p50=%dms p95=%dms p99=%dms maxSql=%d%n", endpoint,
+                    latencies.length, percentile(latencies, 0.50), p95, percentile(latencies, 0.99),
+                    total.maxStatements.getOrDefault(endpoint, 0));
+
+            softly.assertThat(total.errors.getOrDefault(endpoint, 0)).as("%s errors", endpoint).isZero();
+            softly.assertThat(p95).as("%s p95 latency (ms)", endpoint).isLessThanOrEqualTo(endpoint.maxP95Millis);
+            softly.assertThat(total.maxStatements.getOrDefault(endpoint, 0)).as("%s SQL statements", endpoint)
+                    .isLessThanOrEqualTo(endpoint.statementBudget);
+        }
+
+        double throughput = requests / seconds;
+        System.out.printf("throughput=%.1f req/s over %.1fs with %d threads%n", throughput, seconds, THREADS);
+        softly.assertThat(throughput).as("throughput (req/s)").isGreaterThanOrEqualTo(MIN_THROUGHPUT);
+        softly.assertAll();
+    }
+
+    private WorkerResult runWorker(long deadline) throws Exception {
+        WorkerResult result = new WorkerResult();
+        int totalWeight = Arrays.stream(Endpoint.values()).mapToInt(e -> e.weight).sum();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(totalWeight);
+            Endpoint endpoint = Endpoint.FEED;
+            for (Endpoint candidate : Endpoint.values()) {
+                if ((pick -= candidate.weight) < 0) {
+                    endpoint = candidate;
+                    break;
+                }
+            }
+
+            HttpRequest request = buildRequest(endpoint, random);
+            long start = System.nanoTime();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            result.record(endpoint, (System.nanoTime() - start) / 1_000_000);
+
+            if (response.statusCode() / 100 != 2) {
+                result.errors.merge(endpoint, 1, Integer::sum);
+            } else {
+                int statements = ServerTimingHeader.sqlStatements(
+                        response.headers().firstValue("Server-Timing").orElse(null));
+                result.maxStatements.merge(endpoint, statements, Math::max);
+            }
+        }
+        return result;
+    }
+
+    private HttpRequest buildRequest(Endpoint endpoint, ThreadLocalRandom random) {
+        long postId = 1 + random.nextLong(POSTS);
+        String token = tokens.get(random.nextInt(tokens.size()));
+        return switch (endpoint) {
+            case FEED -> request("/api/posts").GET().build();
+            case POST -> request("/api/posts/" + postId).GET().build();
+            case COMMENTS -> request("/api/posts/" + postId + "/comments")
+                    .header("Authorization", "Bearer " + token).GET().build();
+            case ADD_COMMENT -> request("/api/posts/" + postId + "/comments")
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"Load test comment\"}")).build();
+            case LOGIN -> request("/api/auth/login")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user" + (1 + random.nextInt(USERS))
+                            + "\",\"password\":\"" + SyntheticDataSeeder.PASSWORD + "\"}")).build();
+        };
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static class WorkerResult {
+        private final Map<Endpoint, List<Long>> latencies = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, Integer> errors = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, Integer> maxStatements = new EnumMap<>(Endpoint.class);
+
+        void record(Endpoint endpoint, long millis) {
+            latencies.computeIfAbsent(endpoint, e -> new ArrayList<>()).add(millis);
+        }
+
+        void merge(WorkerResult other) {
+            other.latencies.forEach((endpoint, values) ->
+                    latencies.computeIfAbsent(endpoint, e -> new ArrayList<>()).addAll(values));
+            other.errors.forEach((endpoint, count) -> errors.merge(endpoint, count, Integer::sum));
+            other.maxStatements.forEach((endpoint, count) -> maxStatements.merge(endpoint, count, Math::max));
+        }
+
+        long[] latencies(Endpoint endpoint) {
+            return latencies.getOrDefault(endpoint, List.of()).stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.revature.performance;
+
+import com.revature.RahmatunnisaKhatoonP2BeApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Up to Java 23 a virtual thread that blocks inside a synchronized method or block, or in Object.wait, pins its
+// carrier thread; with spring.threads.virtual.enabled a few such handlers waiting on JDBC can stall every request.
+// Application code therefore coordinates with java.util.concurrent locks only. Checked on the compiled classes.
+class PinningRegressionTest {
+
+    @Test
+    void applicationCodeHasNoMonitors() throws Exception {
+        Path classes = Path.of(RahmatunnisaKhatoonP2BeApplication.class.getProtectionDomain().getCodeSource()
+                .getLocation().toURI());
+        List<String> monitors = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(classes)) {
+            files.filter(file -> file.toString().endsWith(".class")).forEach(file -> scan(file, monitors));
+        }
+        assertThat(monitors).as("monitors that would pin a virtual thread's carrier").isEmpty();
+    }
+
+    private static void scan(Path classFile, List<String> monitors) {
+        try (InputStream in = Files.newInputStream(classFile)) {
+            ClassReader reader = new ClassReader(in);
+            String className = reader.getClassName().replace('/', '.');
+            reader.accept(new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature,
+                                                 String[] exceptions) {
+                    String method = className + "." + name;
+                    if ((access & Opcodes.ACC_SYNCHRONIZED) != 0) {
+                        monitors.add("synchronized method " + method);
+                    }
+                    return new MethodVisitor(Opcodes.ASM9) {
+                        @Override
+                        public void visitInsn(int opcode) {
+                            if (opcode == Opcodes.MONITORENTER) {
+                                monitors.add("synchronized block in " + method);
+                            }
+                        }
+
+                        @Override
+                        public void visitMethodInsn(int opcode, String owner, String name, String descriptor,
+                                                    boolean isInterface) {
+                            if ("java/lang/Object".equals(owner) && "wait".equals(name)) {
+                                monitors.add("Object.wait in " + method);
+                            }
+                        }
+                    };
+                }
+            }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.revature.performance;
+
+import com.revature.security.JwtTokenProvider;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.revature.support.ServerTimingHeader;
+import com.revature.support.SyntheticDataSeeder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Fails the build when an endpoint starts issuing more SQL than its budget, e.g. a reintroduced N+1
+@SpringBootTest(properties = "app.tracing.debug=true")
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountRegressionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    private String token;
+
+    @BeforeAll
+    void seed() {
+        SyntheticDataSeeder.seed(jdbcTemplate, 50, 500, 100, 5_000);
+        token = jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername("user1"));
+    }
+
+    @Test
+    void feedIsFetchedWithOneStatement() throws Exception {
+        assertThat(sqlStatements(get("/api/posts"))).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void postIsFetchedWithTwoStatements() throws Exception {
+        // The post joined with its author, and its body from post_bodies
+        assertThat(sqlStatements(get("/api/posts/1"))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void commentsDoNotLoadAuthorsPerRow() throws Exception {
+        // JWT user lookup, post existence check, comments joined with authors
+        assertThat(sqlStatements(get("/api/posts/1/comments")
+                .header("Authorization", "Bearer " + token))).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void addCommentStaysWithinBudget() throws Exception {
+        assertThat(sqlStatements(post("/api/posts/1/comments")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"Budgeted comment\"}"))).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void replayedAddCommentSkipsTheWrite() throws Exception {
+        RequestBuilder request = post("/api/posts/1/comments")
+                .header("Authorization", "Bearer " + token)
+                .header("Idempotency-Key", "budget-replay")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"Retried comment\"}");
+        sqlStatements(request);
+        // Only the JWT user lookup is left
+        assertThat(sqlStatements(request)).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void loginStaysWithinBudget() throws Exception {
+        assertThat(sqlStatements(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"user2\",\"password\":\"" + SyntheticDataSeeder.PASSWORD + "\"}")))
+                .isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void registerStaysWithinBudget() throws Exception {
+        assertThat(sqlStatements(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"budget\",\"email\":\"budget@example.com\",\"password\":\"secret1\"}")))
+                .isLessThanOrEqualTo(3);
+    }
+
+    private int sqlStatements(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+        return ServerTimingHeader.sqlStatements(result.getResponse().getHeader("Server-Timing"));
+    }
+}
@@ -0,0 +1,185 @@
+package com.revature.performance;
+
+import com.revature.security.JwtTokenProvider;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.revature.support.SyntheticDataSeeder;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+// Compares the servlet reads (/api/posts/**) with the reactive ones (/api/reactive/posts/**) under the same read mix
+// at high concurrency: throughput, latency, and the most database connections each had checked out at once. Both
+// pools wait up to Hikari's default 30s for a connection, so overload shows up as latency on either path.
+// ./mvnw test -Pperf -Dtest=ReactiveReadPerformanceTest [-Dperf.reactive-threads=... -Dperf.duration-seconds=...]
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.reactive.pool.max-acquire-time=30s")
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveReadPerformanceTest {
+
+    private static final int USERS = Integer.getInteger("perf.users", 10_000);
+    private static final int POSTS = Integer.getInteger("perf.posts", 100_000);
+    private static final int PUBLISHED_POSTS = Integer.getInteger("perf.published-posts", 200);
+    private static final int COMMENTS = Integer.getInteger("perf.comments", 500_000);
+    private static final int THREADS = Integer.getInteger("perf.reactive-threads", 256);
+    private static final int DURATION_SECONDS = Integer.getInteger("perf.duration-seconds", 20);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("reactiveConnectionPool")
+    private ConnectionPool reactiveConnectionPool;
+
+    @Value("${app.reactive.pool.max-size:10}")
+    private int reactivePoolMaxSize;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final List<String> tokens = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        SyntheticDataSeeder.seed(jdbcTemplate, USERS, POSTS, PUBLISHED_POSTS, COMMENTS);
+        for (int i = 1; i <= 100; i++) {
+            String username = "user" + (1 + (i * 97) % USERS);
+            tokens.add(jwtTokenProvider.generateToken(
+                    new User(username, "", List.of(new SimpleGrantedAuthority("ROLE_USER")))));
+        }
+    }
+
+    @Test
+    void reactiveReadsServeTheSameLoadWithinTheirConnectionPool() throws Exception {
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        Result servlet = run("/api", () -> hikari.getHikariPoolMXBean().getActiveConnections());
+        Result reactive = run("/api/reactive", () -> reactiveConnectionPool.getMetrics().orElseThrow().acquiredSize());
+
+        servlet.print("servlet");
+        reactive.print("reactive");
+
+        SoftAssertions softly = new SoftAssertions();
+        softly.assertThat(servlet.errors).as("servlet errors").isZero();
+        softly.assertThat(reactive.errors).as("reactive errors").isZero();
+        softly.assertThat(reactive.peakConnections).as("reactive connections in use")
+                .isLessThanOrEqualTo(reactivePoolMaxSize);
+        softly.assertAll();
+    }
+
+    private Result run(String prefix, IntSupplier connectionsInUse) throws Exception {
+        Result result = new Result();
+        ExecutorService sampler = Executors.newSingleThreadExecutor();
+        sampler.submit(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                result.peakConnections = Math.max(result.peakConnections, connectionsInUse.getAsInt());
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        AtomicInteger errors = new AtomicInteger();
+        long started = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> runWorker(prefix, deadline, errors)));
+        }
+        for (Future<List<Long>> future : futures) {
+            result.latencies.addAll(future.get());
+        }
+        result.seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        executor.shutdown();
+        sampler.shutdownNow();
+        sampler.awaitTermination(1, TimeUnit.SECONDS);
+        result.errors = errors.get();
+        return result;
+    }
+
+    private List<Long> runWorker(String prefix, long deadline, AtomicInteger errors) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            long postId = 1 + random.nextLong(POSTS);
+            HttpRequest request = switch (random.nextInt(3)) {
+                case 0 -> request(prefix + "/posts").GET().build();
+                case 1 -> request(prefix + "/posts/" + postId).GET().build();
+                default -> request(prefix + "/posts/" + postId + "/comments")
+                        .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size()))).GET().build();
+            };
+            long start = System.nanoTime();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            latencies.add((System.nanoTime() - start) / 1_000_000);
+            if (response.statusCode() / 100 != 2) {
+                errors.incrementAndGet();
+            }
+        }
+        return latencies;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private static class Result {
+        private final List<Long> latencies = new ArrayList<>();
+        private volatile int peakConnections;
+        private double seconds;
+        private int errors;
+
+        void print(String mode) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-8s requests=%d throughput=%.1f req/s p50=%dms p95=%dms p99=%dms peakConnections=%d"
+                            + " errors=%d (%d clients)%n", mode, sorted.length, sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), peakConnections,
+                    errors, THREADS);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.revature.performance;
+
+import com.revature.support.EmbeddedPostgresInitializer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Time from JVM launch to the first successful GET /api/posts, default mode vs fast-start (AOT + CDS + lazy init).
+// ./mvnw -Pfast-start -DskipTests package && ./mvnw -Pperf test -Dtest=StartupTimeTest [-Dperf.startup-runs=...]
+@Tag("performance")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StartupTimeTest {
+
+    private static final int RUNS = Integer.getInteger("perf.startup-runs", 5);
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path TARGET = Path.of("target");
+    private static final Path FAST_START = TARGET.resolve("fast-start");
+
+    enum Mode {
+        DEFAULT,
+        FAST_START
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private String jarName;
+    private String jdbcUrl;
+
+    @BeforeAll
+    void prepare() throws Exception {
+        assumeTrue(Files.exists(FAST_START.resolve("application.jsa")),
+                "run ./mvnw -Pfast-start -DskipTests package first");
+        try (Stream<Path> files = Files.list(FAST_START)) {
+            jarName = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".jar"))
+                    .findFirst().orElseThrow();
+        }
+
+        EmbeddedPostgres server = EmbeddedPostgresInitializer.server();
+        try (Connection connection = server.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE startup_" + ProcessHandle.current().pid());
+        }
+        jdbcUrl = server.getJdbcUrl("postgres", "startup_" + ProcessHandle.current().pid());
+
+        // Migrates the schema so every measured run starts against the same, already-migrated database
+        timeToFirstFeed(Mode.DEFAULT);
+    }
+
+    @Test
+    void fastStartServesTheFeedSoonerThanDefaultMode() throws Exception {
+        Map<Mode, long[]> millis = new EnumMap<>(Mode.class);
+        for (Mode mode : Mode.values()) {
+            millis.put(mode, new long[RUNS]);
+        }
+        // Interleaved so drift in machine load affects both modes alike
+        for (int run = 0; run < RUNS; run++) {
+            for (Mode mode : Mode.values()) {
+                millis.get(mode)[run] = timeToFirstFeed(mode);
+            }
+        }
+
+        for (Mode mode : Mode.values()) {
+            long[] sorted = millis.get(mode).clone();
+            Arrays.sort(sorted);
+            System.out.printf("%-10s runs=%d min=%dms median=%dms max=%dms%n", mode, RUNS, sorted[0],
+                    sorted[sorted.length / 2], sorted[sorted.length - 1]);
+        }
+        assertThat(median(millis.get(Mode.FAST_START))).as("fast-start median (ms)")
+                .isLessThan(median(millis.get(Mode.DEFAULT)));
+    }
+
+    private long timeToFirstFeed(Mode mode) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(List.of("java"));
+        if (mode == Mode.FAST_START) {
+            command.addAll(List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                    "-jar", jarName, "--spring.profiles.active=fast-start"));
+        } else {
+            command.addAll(List.of("-jar", TARGET.toAbsolutePath().resolve(jarName).toString()));
+        }
+        command.addAll(List.of("--server.port=" + port, "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=postgres", "--spring.datasource.password=postgres"));
+
+        Path log = TARGET.resolve("startup-" + mode.name().toLowerCase() + ".log");
+        HttpRequest feed = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/posts"))
+                .timeout(Duration.ofSeconds(5)).build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(FAST_START.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = started + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited during startup, see " + log);
+                }
+                try {
+                    if (httpClient.send(feed, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - started).toMillis();
+                    }
+                } catch (IOException notListeningYet) {
+                    // keep polling
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode + " did not serve GET /api/posts within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
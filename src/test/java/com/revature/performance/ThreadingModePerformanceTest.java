@@ -0,0 +1,200 @@
+package com.revature.performance;
+
+import com.revature.RahmatunnisaKhatoonP2BeApplication;
+import com.revature.datasource.ConcurrencyLimitingDataSource;
+import com.revature.security.JwtTokenProvider;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.revature.support.SyntheticDataSeeder;
+import com.zaxxer.hikari.HikariDataSource;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The blocking endpoint mix (JDBC reads, a comment write, BCrypt logins) with more clients than Tomcat has threads,
+// once per execution mode, each on a fresh application and database. VIRTUAL_UNBOUNDED lifts the DataSource's
+// concurrency bound far above the pool size, so every request waits in Hikari instead, to show what the bound buys.
+// Virtual threads need Java 21+; on older runtimes only the platform-thread baseline is measured.
+// ./mvnw test -Pperf -Dtest=ThreadingModePerformanceTest [-Dperf.threading-clients=... -Dperf.duration-seconds=...]
+@Tag("performance")
+class ThreadingModePerformanceTest {
+
+    private static final int USERS = Integer.getInteger("perf.users", 10_000);
+    private static final int POSTS = Integer.getInteger("perf.posts", 100_000);
+    private static final int PUBLISHED_POSTS = Integer.getInteger("perf.published-posts", 200);
+    private static final int COMMENTS = Integer.getInteger("perf.comments", 500_000);
+    private static final int CLIENTS = Integer.getInteger("perf.threading-clients", 400);
+    private static final int DURATION_SECONDS = Integer.getInteger("perf.duration-seconds", 20);
+    private static final int POOL_SIZE = 10;
+
+    enum Mode {
+        PLATFORM,
+        VIRTUAL,
+        VIRTUAL_UNBOUNDED
+    }
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void virtualThreadsServeTheBlockingMixWithinTheConnectionBound() throws Exception {
+        Map<Mode, Result> results = new EnumMap<>(Mode.class);
+        for (Mode mode : Mode.values()) {
+            if (mode != Mode.PLATFORM && Runtime.version().feature() < 21) {
+                System.out.printf("%-8s skipped: needs Java 21+, running on %s%n", mode, Runtime.version());
+                continue;
+            }
+            results.put(mode, run(mode));
+        }
+        results.forEach((mode, result) -> result.print(mode));
+
+        SoftAssertions softly = new SoftAssertions();
+        results.forEach((mode, result) -> {
+            if (mode != Mode.VIRTUAL_UNBOUNDED) {
+                softly.assertThat(result.errors).as("%s errors", mode).isZero();
+            }
+        });
+        if (results.containsKey(Mode.VIRTUAL)) {
+            softly.assertThat(results.get(Mode.VIRTUAL).peakConnections).as("VIRTUAL connections in use")
+                    .isLessThanOrEqualTo(POOL_SIZE);
+        }
+        softly.assertAll();
+    }
+
+    private Result run(Mode mode) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(RahmatunnisaKhatoonP2BeApplication.class)
+                .initializers(new EmbeddedPostgresInitializer())
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + (mode != Mode.PLATFORM),
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "app.threads.virtual.max-database-concurrency="
+                                + (mode == Mode.VIRTUAL_UNBOUNDED ? 100_000 : POOL_SIZE))
+                .run()) {
+            SyntheticDataSeeder.seed(app.getBean(JdbcTemplate.class), USERS, POSTS, PUBLISHED_POSTS, COMMENTS);
+            JwtTokenProvider jwtTokenProvider = app.getBean(JwtTokenProvider.class);
+            List<String> tokens = new ArrayList<>();
+            for (int i = 1; i <= 100; i++) {
+                tokens.add(jwtTokenProvider.generateToken(new User("user" + (1 + (i * 97) % USERS), "",
+                        List.of(new SimpleGrantedAuthority("ROLE_USER")))));
+            }
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            DataSource dataSource = app.getBean(DataSource.class);
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            ConcurrencyLimitingDataSource limiter = dataSource instanceof ConcurrencyLimitingDataSource limiting
+                    ? limiting : null;
+
+            Result result = new Result();
+            ExecutorService sampler = Executors.newSingleThreadExecutor();
+            sampler.submit(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    result.peakConnections = Math.max(result.peakConnections,
+                            hikari.getHikariPoolMXBean().getActiveConnections());
+                    if (limiter != null) {
+                        result.peakWaiting = Math.max(result.peakWaiting, limiter.waiting());
+                    }
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            AtomicInteger errors = new AtomicInteger();
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> runClient(baseUrl, tokens, deadline, errors)));
+            }
+            for (Future<List<Long>> future : futures) {
+                result.latencies.addAll(future.get());
+            }
+            result.seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            clients.shutdown();
+            sampler.shutdownNow();
+            sampler.awaitTermination(1, TimeUnit.SECONDS);
+            result.errors = errors.get();
+            return result;
+        }
+    }
+
+    private List<Long> runClient(String baseUrl, List<String> tokens, long deadline, AtomicInteger errors)
+            throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            long postId = 1 + random.nextLong(POSTS);
+            String token = tokens.get(random.nextInt(tokens.size()));
+            HttpRequest.Builder request = switch (random.nextInt(10)) {
+                case 0, 1, 2 -> request(baseUrl + "/api/posts").GET();
+                case 3, 4, 5 -> request(baseUrl + "/api/posts/" + postId).GET();
+                case 6, 7 -> request(baseUrl + "/api/posts/" + postId + "/comments")
+                        .header("Authorization", "Bearer " + token).GET();
+                case 8 -> request(baseUrl + "/api/posts/" + postId + "/comments")
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"Load test comment\"}"));
+                default -> request(baseUrl + "/api/auth/login")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user" + (1 + random.nextInt(USERS))
+                                + "\",\"password\":\"" + SyntheticDataSeeder.PASSWORD + "\"}"));
+            };
+            long start = System.nanoTime();
+            HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+            latencies.add((System.nanoTime() - start) / 1_000_000);
+            if (response.statusCode() / 100 != 2) {
+                errors.incrementAndGet();
+            }
+        }
+        return latencies;
+    }
+
+    private static HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60));
+    }
+
+    private static class Result {
+        private final List<Long> latencies = new ArrayList<>();
+        private volatile int peakConnections;
+        private volatile int peakWaiting;
+        private double seconds;
+        private int errors;
+
+        void print(Mode mode) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-8s requests=%d throughput=%.1f req/s p50=%dms p95=%dms p99=%dms peakConnections=%d"
+                            + " peakWaitingForConnection=%d errors=%d (%d clients)%n", mode, sorted.length,
+                    sorted.length / seconds, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    percentile(sorted, 0.99), peakConnections, peakWaiting, errors, CLIENTS);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.revature.repository;
+
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The V9 triggers, written to with plain SQL as the write-behind batches and cascades do
+class CommentThreadTriggersTest {
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private long authorId;
+    private long postId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(EmbeddedPostgresInitializer.server().getJdbcUrl("postgres",
+                EmbeddedPostgresInitializer.createDatabase("comment_threads")));
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("postgres");
+        dataSource.setMaximumPoolSize(2);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        authorId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password, role, created_at) "
+                + "VALUES ('threads', 'threads@example.com', 'x', 'USER', now()) RETURNING id", Long.class);
+        postId = post();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void aCommentsPathIsItsAncestorsIdsThenItsOwn() {
+        long root = comment(postId, null);
+        long reply = comment(postId, root);
+        long nested = comment(postId, reply);
+
+        assertThat(path(root)).isEqualTo(segment(root));
+        assertThat(path(reply)).isEqualTo(segment(root) + "." + segment(reply));
+        assertThat(path(nested)).isEqualTo(segment(root) + "." + segment(reply) + "." + segment(nested));
+        assertThat(CommentThreadStore.depth(path(nested))).isEqualTo(2);
+    }
+
+    @Test
+    void replyCountsCoverEveryDepthAndWholeStatements() {
+        long root = comment(postId, null);
+        long reply = comment(postId, root);
+        // Two rows in one statement, as a write-behind batch or a bulk insert writes them
+        jdbcTemplate.update("INSERT INTO comments (content, author_id, post_id, parent_id, created_at, updated_at) "
+                + "VALUES ('a', ?, ?, ?, now(), now()), ('b', ?, ?, ?, now(), now())",
+                authorId, postId, reply, authorId, postId, reply);
+
+        assertThat(replyCounts()).containsEntry(root, 3).containsEntry(reply, 2);
+    }
+
+    @Test
+    void aParentOnAnotherPostIsRejected() {
+        long otherPost = post();
+        long parent = comment(otherPost, null);
+
+        assertThatThrownBy(() -> comment(postId, parent))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("is not a comment on post " + postId);
+        assertThat(replyCounts()).containsEntry(parent, 0);
+    }
+
+    @Test
+    void aMissingParentIsRejected() {
+        assertThatThrownBy(() -> comment(postId, Long.MAX_VALUE))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void deletingACommentDeletesItsSubtreeAndUncountsItFromTheAncestors() {
+        long root = comment(postId, null);
+        long reply = comment(postId, root);
+        long nested = comment(postId, reply);
+        comment(postId, nested);
+        long sibling = comment(postId, root);
+
+        jdbcTemplate.update("DELETE FROM comments WHERE id = ?", reply);
+
+        assertThat(replyCounts()).containsOnly(Map.entry(root, 1), Map.entry(sibling, 0));
+    }
+
+    @Test
+    void deletingThePostDeletesEveryThread() {
+        long root = comment(postId, null);
+        comment(postId, comment(postId, root));
+
+        jdbcTemplate.update("DELETE FROM posts WHERE id = ?", postId);
+
+        assertThat(replyCounts()).isEmpty();
+    }
+
+    private long post() {
+        return jdbcTemplate.queryForObject("INSERT INTO posts (title, author_id, published, created_at) "
+                + "VALUES ('Post', ?, true, now()) RETURNING id", Long.class, authorId);
+    }
+
+    private long comment(long post, Long parentId) {
+        return jdbcTemplate.queryForObject("INSERT INTO comments (content, author_id, post_id, parent_id, created_at, "
+                + "updated_at) VALUES ('c', ?, ?, ?, now(), now()) RETURNING id", Long.class, authorId, post, parentId);
+    }
+
+    private String path(long commentId) {
+        return jdbcTemplate.queryForObject("SELECT path FROM comments WHERE id = ?", String.class, commentId);
+    }
+
+    private Map<Long, Integer> replyCounts() {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT id, reply_count FROM comments",
+                (RowCallbackHandler) rs -> counts.put(rs.getLong("id"), rs.getInt("reply_count")));
+        return counts;
+    }
+
+    private static String segment(long id) {
+        return "%019d".formatted(id);
+    }
+}
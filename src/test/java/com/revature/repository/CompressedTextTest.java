@@ -0,0 +1,87 @@
+package com.revature.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedTextTest {
+
+    private static final int THRESHOLD = 64;
+
+    @Test
+    void emptyTextStaysRaw() throws IOException {
+        CompressedText stored = CompressedText.of("", THRESHOLD, 1);
+
+        assertThat(stored.encoding()).isEqualTo(CompressedText.RAW);
+        assertThat(stored.data()).isEmpty();
+        assertRoundTrips(stored, "");
+    }
+
+    @Test
+    void textBelowTheThresholdIsNotDeflated() throws IOException {
+        String text = "a".repeat(THRESHOLD - 1);
+        CompressedText stored = CompressedText.of(text, THRESHOLD, 1);
+
+        assertThat(stored.encoding()).isEqualTo(CompressedText.RAW);
+        assertThat(stored.data()).isEqualTo(text.getBytes(StandardCharsets.UTF_8));
+        assertRoundTrips(stored, text);
+    }
+
+    @Test
+    void textAtTheThresholdIsDeflated() throws IOException {
+        String text = "a".repeat(THRESHOLD);
+        CompressedText stored = CompressedText.of(text, THRESHOLD, 1);
+
+        assertThat(stored.encoding()).isEqualTo(CompressedText.DEFLATE);
+        assertThat(stored.data().length).isLessThan(THRESHOLD);
+        assertRoundTrips(stored, text);
+    }
+
+    @Test
+    void thresholdCountsUtf8BytesNotChars() throws IOException {
+        // 22 chars, 66 bytes
+        String text = "€".repeat(22);
+        CompressedText stored = CompressedText.of(text, THRESHOLD, 1);
+
+        assertThat(stored.encoding()).isEqualTo(CompressedText.DEFLATE);
+        assertThat(stored.originalLength()).isEqualTo(22);
+        assertRoundTrips(stored, text);
+    }
+
+    @Test
+    void multibyteTextLongerThanTheInflateBufferRoundTrips() throws IOException {
+        // Surrogate pairs and 3-byte chars straddle every 8192-char buffer boundary
+        String text = "naïve 日本語 😀 text, ".repeat(2_000);
+        CompressedText stored = CompressedText.of(text, THRESHOLD, 6);
+
+        assertThat(stored.encoding()).isEqualTo(CompressedText.DEFLATE);
+        assertRoundTrips(stored, text);
+    }
+
+    @Test
+    void textThatDeflatesLargerStaysRaw() throws IOException {
+        // Too short and varied for deflate to win back its header and checksum
+        StringBuilder noise = new StringBuilder();
+        long seed = 42;
+        for (int i = 0; i < THRESHOLD; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            noise.append((char) ('!' + (seed >>> 33) % 94));
+        }
+        String text = noise.toString();
+        CompressedText stored = CompressedText.of(text, THRESHOLD, 1);
+
+        assertThat(stored.encoding()).isEqualTo(CompressedText.RAW);
+        assertRoundTrips(stored, text);
+    }
+
+    private static void assertRoundTrips(CompressedText stored, String text) throws IOException {
+        assertThat(stored.decode()).isEqualTo(text);
+        StringWriter written = new StringWriter();
+        stored.writeTo(written);
+        assertThat(written.toString()).isEqualTo(text);
+    }
+}
@@ -0,0 +1,99 @@
+package com.revature.repository;
+
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Bodies in a TEXT column of posts against PostBodyStore, for single reads and for a page of posts; run with the
+// gc profiler (as the benchmark profile does) to compare allocated bytes per operation alongside latency
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostBodyBenchmark {
+
+    private static final int PAGE = 20;
+
+    private static final String[] WORDS = { "the", "post", "server", "cache", "latency", "request", "database",
+            "performance", "index", "query", "author", "comment", "timeline", "throughput", "memory", "stream" };
+
+    // Characters per body: a typical post, a long read, and the several-hundred-KB case
+    @Param({ "2000", "100000", "500000" })
+    private int length;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private PostBodyStore postBodyStore;
+    private String content;
+    private long postId;
+
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(EmbeddedPostgresInitializer.server().getJdbcUrl("postgres", "postgres"));
+        dataSource.setPassword("postgres");
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        postBodyStore = new PostBodyStore(jdbcTemplate, 4096, 1);
+
+        StringBuilder text = new StringBuilder(length + 16);
+        Random random = new Random(42);
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(10) == 0 ? ". " : " ");
+        }
+        content = text.substring(0, length);
+
+        jdbcTemplate.update("INSERT INTO users (username, email, password, role, created_at) "
+                + "VALUES ('bench', 'bench@example.com', 'x', 'USER', now()) ON CONFLICT DO NOTHING");
+        // The previous layout: the body as a TEXT column of posts (which TOAST compresses with pglz past ~2KB)
+        jdbcTemplate.execute("DROP TABLE IF EXISTS text_posts");
+        jdbcTemplate.execute("CREATE TABLE text_posts (id BIGINT PRIMARY KEY, title VARCHAR(255), content TEXT NOT NULL)");
+        jdbcTemplate.execute("TRUNCATE posts CASCADE");
+        for (int i = 0; i < PAGE; i++) {
+            postId = jdbcTemplate.queryForObject("INSERT INTO posts (title, author_id, published, created_at) "
+                    + "SELECT 'Long read', id, true, now() FROM users WHERE username = 'bench' RETURNING id", Long.class);
+            postBodyStore.save(postId, content);
+            jdbcTemplate.update("INSERT INTO text_posts VALUES (?, 'Long read', ?)", postId, content);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public String readTextColumn() {
+        return jdbcTemplate.queryForObject("SELECT content FROM text_posts WHERE id = ?", String.class, postId);
+    }
+
+    @Benchmark
+    public String readPostBodyStore() {
+        return postBodyStore.find(postId).orElseThrow();
+    }
+
+    // A feed page used to drag every body along; now the body is not part of the row at all
+    @Benchmark
+    public List<Map<String, Object>> listPageWithTextBodies() {
+        return jdbcTemplate.queryForList("SELECT id, title, content FROM text_posts ORDER BY id LIMIT ?", PAGE);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> listPage() {
+        return jdbcTemplate.queryForList("SELECT id, title FROM posts ORDER BY id LIMIT ?", PAGE);
+    }
+
+    @Benchmark
+    public void writePostBodyStore() {
+        postBodyStore.save(postId, content);
+    }
+}
@@ -0,0 +1,220 @@
+package com.revature.repository;
+
+import com.revature.service.TrendingService;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.revature.support.SyntheticDataSeeder;
+import com.revature.tracing.RequestTrace;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// EXPLAINs the SQL each finder really executes and fails on large sequential scans or sorts
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanRegressionTest {
+
+    private static final long ROW_THRESHOLD = 1_000;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @BeforeAll
+    void seed() {
+        SyntheticDataSeeder.seed(jdbcTemplate, 5_000, 50_000, 500, 200_000);
+        // Everyone follows 20 others; numbered by rank, as other tests sharing the database may have deleted users
+        jdbcTemplate.update("""
+                WITH ranked AS (SELECT id, row_number() OVER (ORDER BY id) - 1 AS n, count(*) OVER () AS users FROM users)
+                INSERT INTO follows (follower_id, followee_id)
+                SELECT f.id, e.id
+                FROM ranked f CROSS JOIN generate_series(1, 20) g
+                JOIN ranked e ON e.n = (f.n + g * 97) % f.users
+                WHERE e.id <> f.id
+                ON CONFLICT DO NOTHING""");
+        jdbcTemplate.execute("ANALYZE follows");
+    }
+
+    @Test
+    void publishedFeedUsesPartialIndex() {
+        assertPlans(() -> postRepository.findByPublishedTrueOrderByCreatedAtDesc());
+    }
+
+    @Test
+    void postsByAuthorUseIndex() {
+        assertPlans(() -> postRepository.findByAuthorIdOrderByCreatedAtDesc(42L), 42L);
+    }
+
+    @Test
+    void publishedPostsByAuthorUseIndex() {
+        assertPlans(() -> postRepository.findByAuthorIdAndPublishedTrueOrderByCreatedAtDesc(42L, PageRequest.of(0, 20)),
+                42L, 21);
+    }
+
+    @Test
+    void postByIdAndAuthorUsesIndex() {
+        assertPlans(() -> postRepository.findByIdAndAuthorId(4242L, 43L), 4242L, 43L);
+    }
+
+    @Test
+    void postByIdUsesIndex() {
+        assertPlans(() -> postRepository.findById(4242L), 4242L);
+    }
+
+    @Test
+    void publishedPostsByIdsUseIndex() {
+        assertPlans(() -> postRepository.findByIdInAndPublishedTrue(List.of(4242L, 4243L)), 4242L, 4243L);
+    }
+
+    @Test
+    void commentsByPostUseIndex() {
+        assertPlans(() -> commentRepository.findByPostIdOrderByCreatedAtDesc(4242L), 4242L);
+    }
+
+    @Test
+    void commentsByAuthorUseIndex() {
+        assertPlans(() -> commentRepository.findByAuthorId(42L), 42L);
+    }
+
+    @Test
+    void userLookupsUseIndexes() {
+        assertPlans(() -> userRepository.findByUsername("user42"), "user42");
+        assertPlans(() -> userRepository.findByEmail("user42@example.com"), "user42@example.com");
+        assertPlans(() -> userRepository.existsByUsername("user42"), "user42", 1);
+        assertPlans(() -> userRepository.existsByEmail("user42@example.com"), "user42@example.com", 1);
+    }
+
+    @Test
+    void followQueriesUseIndexes() {
+        Long userId = userRepository.findByUsername("user42").orElseThrow().getId();
+        assertPlan(FollowStore.FOLLOWERS_SQL, userId);
+        assertPlan(FollowStore.TIMELINE_SQL, userId, 800);
+        assertPlan(FollowStore.POPULAR_FOLLOWEES_SQL, userId, 5_000);
+        assertPlan(FollowStore.POSTS_BY_AUTHORS_SQL, "{" + userId + "," + (userId + 1) + "}", 800);
+    }
+
+    @Test
+    void reactiveReadQueriesUseIndexes() {
+        // Same statements as the R2DBC driver sends, with its $1 markers as JDBC placeholders
+        assertPlan(ReactivePostStore.PUBLISHED_POSTS_SQL);
+        assertPlan(ReactivePostStore.POST_WITH_BODY_SQL.replace("$1", "?"), 42L);
+        assertPlan(ReactivePostStore.COMMENTS_SQL.replace("$1", "?"), 42L);
+        assertPlan(ReactivePostStore.POST_EXISTS_SQL.replace("$1", "?"), 42L);
+    }
+
+    @Test
+    void draftAutosaveQueriesUseIndexes() {
+        assertPlan(PostBodyStore.FIND_VERSIONED_SQL, 42L);
+        assertPlan(PostBodyStore.REPLACE_SQL, 0, 2, "\\x6869", 3L, 42L, 2L);
+    }
+
+    @Test
+    void commentThreadQueriesUseIndexes() {
+        String root = "%019d".formatted(4242);
+        assertPlan(CommentThreadStore.THREAD_SQL, 42L, "", 100);
+        assertPlan(CommentThreadStore.SUBTREE_SQL, 42L, root, root + "/", 100);
+    }
+
+    @Test
+    void trendingSeedUsesIndex() {
+        assertPlan(TrendingService.SEED_SQL, 60, LocalDateTime.now().minusHours(1).toString());
+    }
+
+    private void assertPlans(Runnable query, Object... parameters) {
+        RequestTrace trace = RequestTrace.startCapturing();
+        try {
+            query.run();
+        } finally {
+            RequestTrace.clear();
+        }
+
+        assertThat(trace.getCapturedStatements()).isNotEmpty();
+        trace.getCapturedStatements().forEach(sql -> assertPlan(sql, parameters));
+    }
+
+    // For SQL given as text, e.g. the JdbcTemplate statements
+    private void assertPlan(String sql, Object... parameters) {
+        List<String> problems = new ArrayList<>();
+        inspect(explain(sql, parameters).get(0).get("Plan"), problems);
+        assertThat(problems).as("plan problems for %s", sql).isEmpty();
+    }
+
+    private JsonNode explain(String sql, Object... parameters) {
+        StringBuilder prepared = new StringBuilder();
+        int index = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++index);
+            } else {
+                prepared.append(c);
+            }
+        }
+
+        List<String> literals = new ArrayList<>();
+        for (Object parameter : parameters) {
+            literals.add(parameter instanceof String value ? "'" + value.replace("'", "''") + "'" : parameter.toString());
+        }
+        assertThat(literals).as("parameters for %s", sql).hasSize(index);
+
+        return jdbcTemplate.execute((ConnectionCallback<JsonNode>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_custom_plan");
+                statement.execute("PREPARE plan_check AS " + prepared);
+                try (ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) EXECUTE plan_check"
+                        + (literals.isEmpty() ? "" : "(" + String.join(", ", literals) + ")"))) {
+                    rs.next();
+                    return jsonMapper.readTree(rs.getString(1));
+                } finally {
+                    statement.execute("DEALLOCATE plan_check");
+                    statement.execute("RESET plan_cache_mode");
+                }
+            }
+        });
+    }
+
+    private void inspect(JsonNode plan, List<String> problems) {
+        String nodeType = plan.path("Node Type").asString();
+        // A filtered sequential scan means a predicate found no index; unfiltered ones are join inputs
+        if ("Seq Scan".equals(nodeType) && plan.has("Filter")) {
+            String relation = plan.path("Relation Name").asString();
+            Long tableRows = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE relname = ?", Long.class, relation);
+            if (tableRows != null && tableRows > ROW_THRESHOLD) {
+                problems.add("sequential scan on " + relation + " (" + tableRows + " rows) filtering "
+                        + plan.path("Filter").asString());
+            }
+        }
+        if ("Sort".equals(nodeType) && plan.path("Plan Rows").asLong() > ROW_THRESHOLD) {
+            problems.add("sort of " + plan.path("Plan Rows").asLong() + " rows");
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            inspect(child, problems);
+        }
+    }
+}
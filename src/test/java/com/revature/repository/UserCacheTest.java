@@ -0,0 +1,83 @@
+package com.revature.repository;
+
+import com.revature.entity.User;
+import com.revature.service.AdminService;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.revature.tracing.RequestTrace;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// With the profiling profile, for the hit counts behind /api/admin/cache/users
+@SpringBootTest
+@ActiveProfiles("profiling")
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class UserCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("cached-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("hash");
+        user.setRole(User.Role.USER);
+        user.setIsBanned(false);
+        user = userRepository.save(user);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void repeatedUsernameLookupsIssueNoSql() {
+        assertThat(sqlStatementsFor(user.getUsername())).isPositive();
+        assertThat(sqlStatementsFor(user.getUsername())).isZero();
+        assertThat(sqlStatementsFor(user.getUsername())).isZero();
+        assertThat(adminService.getUserCacheStatistics().get("naturalIdHits")).isNotEqualTo(0L);
+    }
+
+    @Test
+    void adminMutationsAreVisibleThroughTheCache() {
+        sqlStatementsFor(user.getUsername());
+
+        adminService.banUser(user.getId());
+        assertThat(userRepository.findByUsername(user.getUsername()))
+                .hasValueSatisfying(cached -> assertThat(cached.getIsBanned()).isTrue());
+
+        adminService.changeUserRole(user.getId(), "admin");
+        assertThat(userRepository.findByUsername(user.getUsername()))
+                .hasValueSatisfying(cached -> assertThat(cached.getRole()).isEqualTo(User.Role.ADMIN));
+
+        adminService.deleteUser(user.getId());
+        assertThat(userRepository.findByUsername(user.getUsername())).isEmpty();
+    }
+
+    private int sqlStatementsFor(String username) {
+        RequestTrace trace = RequestTrace.start();
+        try {
+            Optional<User> found = userRepository.findByUsername(username);
+            assertThat(found).isPresent();
+        } finally {
+            RequestTrace.clear();
+        }
+        return trace.getSqlStatements();
+    }
+}
@@ -0,0 +1,41 @@
+package com.revature.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider(
+                "mySecretKeyForJWTTokenGenerationMustBeLongEnoughForHS256Algorithm", 86400000L);
+
+        userDetails = new User("benchmark-user", "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtTokenProvider.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtTokenProvider.validateToken(token, userDetails);
+    }
+}
@@ -0,0 +1,237 @@
+package com.revature.service;
+
+import com.revature.dto.AdminStatsResponse;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.assertj.core.api.ThrowingConsumer;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminStatsServiceTest {
+
+    private static final Duration CHECKPOINT_INTERVAL = Duration.ofSeconds(10);
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private final AtomicInteger connections = new AtomicInteger();
+    private JdbcTemplate countingJdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(EmbeddedPostgresInitializer.server().getJdbcUrl("postgres",
+                EmbeddedPostgresInitializer.createDatabase("admin_stats")));
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("postgres");
+        dataSource.setMaximumPoolSize(4);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        countingJdbcTemplate = new JdbcTemplate(new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                connections.incrementAndGet();
+                return super.getConnection();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void changesAreServedFromMemoryAndAddedToTheRollupByTheCheckpoint() {
+        AdminStatsService stats = service();
+        user("first");
+        stats.userRegistered();
+        stats.postCreated();
+        stats.commentsAdded(3);
+        stats.commentsDeleted(1);
+
+        assertThat(stats.getStats(1)).satisfies(totals(1, 0, 1, 2));
+        assertThat(rollupTotals()).containsExactly(0, 0, 0, 0);
+
+        stats.checkpoint();
+
+        assertThat(rollupTotals()).containsExactly(1, 0, 1, 2);
+        assertThat(stats.getStats(1)).satisfies(totals(1, 0, 1, 2));
+        assertThat(stats.getStats(1).getDays().get(0).getComments()).isEqualTo(2);
+    }
+
+    @Test
+    void changesOfARolledBackTransactionAreNotCounted() {
+        AdminStatsService stats = service();
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transaction.executeWithoutResult(status -> {
+            stats.userRegistered();
+            status.setRollbackOnly();
+        });
+        assertThat(stats.getStats(1)).satisfies(totals(0, 0, 0, 0));
+
+        transaction.executeWithoutResult(status -> stats.userRegistered());
+        assertThat(stats.getStats(1)).satisfies(totals(1, 0, 0, 0));
+    }
+
+    @Test
+    void aDeletedUserTakesTheRepliesBelowTheirCommentsWithThem() {
+        long author = user("author");
+        long other = user("other");
+        long replier = user("replier");
+        long otherPost = post(other);
+        long ownPost = post(author);
+        long comment = comment(author, otherPost, null);
+        comment(replier, otherPost, comment(replier, otherPost, comment));
+        comment(replier, otherPost, null);
+        comment(other, ownPost, null);
+        AdminStatsService stats = service();
+
+        stats.userDeleted(author, false);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", author);
+        stats.checkpoint();
+
+        assertThat(stats.getStats(1)).satisfies(totals(2, 0, 1, 1));
+        assertThat(rollupTotals()).containsExactly(tableCounts());
+    }
+
+    @Test
+    void startupBooksTheDifferenceWithTheTables() {
+        user("unrecorded");
+        post(user("also-unrecorded"));
+
+        AdminStatsService stats = service();
+
+        assertThat(rollupTotals()).containsExactly(tableCounts());
+        assertThat(stats.getStats(1)).satisfies(totals(2, 0, 1, 0));
+    }
+
+    @Test
+    void startupDoesNotReconcileWhileAnotherInstanceMayHaveUncheckpointedChanges() {
+        AdminStatsService live = service();
+        user("counted-by-live");
+        live.userRegistered();
+
+        AdminStatsService starting = service();
+        assertThat(rollupTotals()).containsExactly(0, 0, 0, 0);
+
+        live.checkpoint();
+        starting.checkpoint();
+        assertThat(rollupTotals()).containsExactly(tableCounts());
+        assertThat(starting.getStats(1)).satisfies(totals(1, 0, 0, 0));
+    }
+
+    @Test
+    void anInstanceThatStoppedCheckpointingNoLongerBlocksReconciliation() {
+        service();
+        user("lost");
+        jdbcTemplate.update("UPDATE admin_stats_instances SET checkpointed_at = now() - interval '1 minute'");
+
+        service();
+
+        assertThat(rollupTotals()).containsExactly(tableCounts());
+    }
+
+    @Test
+    void stoppingWithNothingPendingDoesNotTouchTheDatabase() {
+        AdminStatsService stats = service();
+        stats.userRegistered();
+        stats.userRegistered();
+        stats.commentsAdded(0);
+        stats.checkpoint();
+        connections.set(0);
+
+        stats.stop();
+
+        assertThat(connections).hasValue(0);
+    }
+
+    @Test
+    void stoppingWritesWhatIsPendingWithoutReloadingAndDeregisters() {
+        AdminStatsService stats = service();
+        user("pending");
+        stats.userRegistered();
+        connections.set(0);
+
+        stats.stop();
+
+        // The checkpoint and the deregistration, no reload
+        assertThat(connections).hasValue(2);
+        assertThat(rollupTotals()).containsExactly(1, 0, 0, 0);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM admin_stats_instances", Long.class)).isZero();
+    }
+
+    @Test
+    void aFailedCheckpointKeepsTheChangesPending() {
+        AdminStatsService stats = service();
+        stats.userRegistered();
+        jdbcTemplate.execute("ALTER TABLE admin_daily_stats RENAME TO admin_daily_stats_away");
+
+        stats.checkpoint();
+        assertThat(stats.getStats(1)).satisfies(totals(1, 0, 0, 0));
+
+        jdbcTemplate.execute("ALTER TABLE admin_daily_stats_away RENAME TO admin_daily_stats");
+        stats.checkpoint();
+        assertThat(rollupTotals()).containsExactly(1, 0, 0, 0);
+        assertThat(stats.getStats(1)).satisfies(totals(1, 0, 0, 0));
+    }
+
+    private AdminStatsService service() {
+        AdminStatsService stats = new AdminStatsService(countingJdbcTemplate, true, CHECKPOINT_INTERVAL);
+        stats.load();
+        stats.start();
+        return stats;
+    }
+
+    private static ThrowingConsumer<AdminStatsResponse> totals(long users, long bannedUsers, long posts,
+                                                               long comments) {
+        return response -> {
+            assertThat(response.getUsers()).as("users").isEqualTo(users);
+            assertThat(response.getBannedUsers()).as("banned users").isEqualTo(bannedUsers);
+            assertThat(response.getPosts()).as("posts").isEqualTo(posts);
+            assertThat(response.getComments()).as("comments").isEqualTo(comments);
+        };
+    }
+
+    private long[] rollupTotals() {
+        return jdbcTemplate.queryForObject("SELECT coalesce(sum(users), 0), coalesce(sum(banned_users), 0), "
+                        + "coalesce(sum(posts), 0), coalesce(sum(comments), 0) FROM admin_daily_stats",
+                (rs, row) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)});
+    }
+
+    private long[] tableCounts() {
+        return jdbcTemplate.queryForObject("SELECT (SELECT count(*) FROM users), "
+                        + "(SELECT count(*) FROM users WHERE is_banned), (SELECT count(*) FROM posts), "
+                        + "(SELECT count(*) FROM comments)",
+                (rs, row) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)});
+    }
+
+    private long user(String username) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (username, email, password, role, created_at) "
+                + "VALUES (?, ?, 'x', 'USER', now()) RETURNING id", Long.class, username, username + "@example.com");
+    }
+
+    private long post(long authorId) {
+        return jdbcTemplate.queryForObject("INSERT INTO posts (title, author_id, published, created_at) "
+                + "VALUES ('Post', ?, true, now()) RETURNING id", Long.class, authorId);
+    }
+
+    private long comment(long authorId, long postId, Long parentId) {
+        return jdbcTemplate.queryForObject("INSERT INTO comments (content, author_id, post_id, parent_id, created_at, "
+                + "updated_at) VALUES ('c', ?, ?, ?, now(), now()) RETURNING id", Long.class, authorId, postId,
+                parentId);
+    }
+}
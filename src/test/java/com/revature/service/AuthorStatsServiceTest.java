@@ -0,0 +1,237 @@
+package com.revature.service;
+
+import com.revature.dto.PostRequest;
+import com.revature.entity.AuthorStats;
+import com.revature.entity.User;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.AuthorStatsRepository;
+import com.revature.repository.UserRepository;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class AuthorStatsServiceTest {
+
+    @Autowired
+    private AuthorStatsService authorStatsService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        author = new User();
+        author.setUsername("stats-" + UUID.randomUUID().toString().substring(0, 8));
+        author.setEmail(author.getUsername() + "@example.com");
+        author.setPassword("hash");
+        author.setRole(User.Role.USER);
+        author.setIsBanned(false);
+        userRepository.save(author);
+    }
+
+    @Test
+    void aLoadOverlappingAnInvalidationIsNotCached() {
+        CapturingBus bus = new CapturingBus();
+        AtomicInteger loads = new AtomicInteger();
+        // The row changes and its invalidation arrives while the first load is still reading the old row
+        AuthorStatsRepository repository = repository(id -> {
+            if (loads.incrementAndGet() == 1) {
+                bus.invalidate.accept(id);
+                return stats(id, 1);
+            }
+            return stats(id, 2);
+        });
+        AuthorStatsService service = new AuthorStatsService(repository, jdbcTemplate, bus, Duration.ofMinutes(10), 100);
+
+        assertThat(service.getStats(7L).getPosts()).isEqualTo(1);
+        assertThat(service.getStats(7L).getPosts()).isEqualTo(2);
+        assertThat(service.getStats(7L).getPosts()).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidationsDropCachedStats() {
+        CapturingBus bus = new CapturingBus();
+        AtomicInteger loads = new AtomicInteger();
+        AuthorStatsRepository repository = repository(id -> stats(id, loads.incrementAndGet()));
+        AuthorStatsService service = new AuthorStatsService(repository, jdbcTemplate, bus, Duration.ofMinutes(10), 100);
+
+        assertThat(service.getStats(7L).getPosts()).isEqualTo(1);
+        assertThat(service.getStats(7L).getPosts()).isEqualTo(1);
+        bus.invalidate.accept(7L);
+        assertThat(service.getStats(7L).getPosts()).isEqualTo(2);
+        bus.invalidateAll.run();
+        assertThat(service.getStats(7L).getPosts()).isEqualTo(3);
+    }
+
+    @Test
+    void rebuildKeepsIncrementsCommittedWhileItRuns() throws Exception {
+        // Drift for the rebuild to correct, so it has to update the row the open transaction holds
+        jdbcTemplate.update("INSERT INTO author_stats (author_id, followers) VALUES (?, 99)", author.getId());
+        CountDownLatch postCreated = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            postService.createPost(post(true), author.getUsername());
+            postCreated.countDown();
+            await(commit);
+        }));
+        assertThat(postCreated.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(authorStatsService::rebuild);
+        awaitLockWait();
+        commit.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        rebuild.get(60, TimeUnit.SECONDS);
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT posts, published_posts, followers FROM author_stats WHERE author_id = ?", author.getId());
+        assertThat(row).containsEntry("posts", 1L).containsEntry("published_posts", 1L).containsEntry("followers", 0L);
+    }
+
+    @Test
+    void aCommentLocksBothAuthorsRowsInIdOrder() throws Exception {
+        User other = new User();
+        other.setUsername("stats-" + UUID.randomUUID().toString().substring(0, 8));
+        other.setEmail(other.getUsername() + "@example.com");
+        other.setPassword("hash");
+        other.setRole(User.Role.USER);
+        other.setIsBanned(false);
+        userRepository.save(other);
+        long low = Math.min(author.getId(), other.getId());
+        long high = Math.max(author.getId(), other.getId());
+        jdbcTemplate.update("INSERT INTO author_stats (author_id) VALUES (?), (?)", low, high);
+
+        // Another transaction holds the higher row; the comment on its author's post has to wait for it holding the
+        // lower one, as a comment the other way round would, rather than holding the higher one and waiting for the
+        // lower one
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> {
+                    jdbcTemplate.queryForList("SELECT 1 FROM author_stats WHERE author_id = ? FOR UPDATE", high);
+                    locked.countDown();
+                    await(commit);
+                }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> comment = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(
+                status -> authorStatsService.commentAdded(high, low, LocalDateTime.now())));
+        awaitLockWait();
+
+        assertThatThrownBy(() -> jdbcTemplate.queryForList(
+                "SELECT 1 FROM author_stats WHERE author_id = ? FOR UPDATE NOWAIT", low))
+                .isInstanceOf(DataAccessException.class);
+        commit.countDown();
+        holder.get(10, TimeUnit.SECONDS);
+        comment.get(10, TimeUnit.SECONDS);
+        assertThat(jdbcTemplate.queryForObject("SELECT comments_received FROM author_stats WHERE author_id = ?",
+                Long.class, high)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_activity_at IS NOT NULL FROM author_stats "
+                + "WHERE author_id = ?", Boolean.class, low)).isTrue();
+    }
+
+    @Test
+    void adminDeletesUpdateTheAuthorsStats() {
+        Long published = postService.createPost(post(true), author.getUsername()).getId();
+        postService.createPost(post(false), author.getUsername());
+
+        adminService.deleteAnyPost(published);
+
+        AuthorStats stats = authorStatsService.getStats(author.getId());
+        assertThat(stats.getPosts()).isEqualTo(1);
+        assertThat(stats.getPublishedPosts()).isZero();
+    }
+
+    private PostRequest post(boolean published) {
+        PostRequest request = new PostRequest();
+        request.setTitle("Counted post");
+        request.setContent("Body");
+        request.setPublished(published);
+        return request;
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (jdbcTemplate.queryForObject("SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'",
+                Long.class) == 0) {
+            assertThat(System.nanoTime()).as("rebuild waiting on the row lock").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static AuthorStats stats(Long authorId, long posts) {
+        return new AuthorStats(authorId, posts, 0L, 0L, 0L, null);
+    }
+
+    private static AuthorStatsRepository repository(Function<Long, AuthorStats> findById) {
+        return (AuthorStatsRepository) Proxy.newProxyInstance(AuthorStatsRepository.class.getClassLoader(),
+                new Class<?>[] { AuthorStatsRepository.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Optional.of(findById.apply((Long) args[0]));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static class CapturingBus implements InvalidationBus {
+
+        private LongConsumer invalidate;
+        private Runnable invalidateAll;
+
+        @Override
+        public void publish(InvalidationTopic topic, long id) {
+        }
+
+        @Override
+        public void subscribe(InvalidationTopic topic, LongConsumer invalidate, Runnable invalidateAll) {
+            this.invalidate = invalidate;
+            this.invalidateAll = invalidateAll;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.revature.service;
+
+import com.revature.invalidation.InMemoryInvalidationBus;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Comments per second: one transaction per comment (the synchronous path) against the write-behind queue
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentIngestionBenchmark {
+
+    private static final int COMMENTS = 500;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private InMemoryInvalidationBus invalidationBus;
+    private AuthorStatsService authorStatsService;
+    private CommentWriteBehindQueue writeBehindQueue;
+    private long postId;
+
+    @Setup
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(EmbeddedPostgresInitializer.server().getJdbcUrl("postgres", "postgres")
+                + "&reWriteBatchedInserts=true");
+        dataSource.setPassword("postgres");
+        dataSource.setMaximumPoolSize(4);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.update("INSERT INTO users (username, email, password, role, created_at) "
+                + "VALUES ('bench', 'bench@example.com', 'x', 'USER', now())");
+        postId = jdbcTemplate.queryForObject("INSERT INTO posts (title, author_id, published, created_at) "
+                + "SELECT 'Viral', id, true, now() FROM users WHERE username = 'bench' RETURNING id", Long.class);
+
+        invalidationBus = new InMemoryInvalidationBus(Duration.ofMillis(50), 10_000);
+        invalidationBus.start();
+        authorStatsService = new AuthorStatsService(null, jdbcTemplate, invalidationBus, Duration.ofMinutes(10), 10_000);
+        writeBehindQueue = new CommentWriteBehindQueue(jdbcTemplate, event -> { }, authorStatsService,
+                new AdminStatsService(jdbcTemplate, false, Duration.ofSeconds(10)), true, 10_000, 500, Duration.ofMillis(5));
+        writeBehindQueue.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        writeBehindQueue.stop();
+        invalidationBus.stop();
+        dataSource.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void truncateComments() {
+        jdbcTemplate.execute("TRUNCATE comments");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMENTS)
+    public void transactionPerComment() {
+        for (int i = 0; i < COMMENTS; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Long authorId = jdbcTemplate.queryForObject(
+                        "SELECT id FROM users WHERE username = ?", Long.class, "bench");
+                jdbcTemplate.queryForObject("SELECT id FROM posts WHERE id = ?", Long.class, postId);
+                jdbcTemplate.queryForObject("INSERT INTO comments (content, author_id, post_id, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, now(), now()) RETURNING id", Long.class, "Comment", authorId, postId);
+                authorStatsService.commentAdded(authorId, authorId, LocalDateTime.now());
+            });
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMENTS)
+    public void writeBehind() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < COMMENTS; i++) {
+            writeBehindQueue.offer(new CommentWriteBehindQueue.PendingComment(
+                    writeBehindQueue.nextId(), "Comment", 1L, "bench", postId, now));
+        }
+        writeBehindQueue.flush();
+    }
+}
@@ -0,0 +1,43 @@
+package com.revature.service;
+
+import com.revature.dto.CommentResponse;
+import com.revature.entity.Comment;
+import com.revature.entity.Post;
+import com.revature.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentServiceBenchmark {
+
+    private CommentService commentService;
+    private Comment comment;
+
+    @Setup
+    public void setUp() {
+        commentService = new CommentService(null, null, null, null, null, null, null, null, null);
+
+        User author = new User();
+        author.setId(1L);
+        author.setUsername("benchmark-user");
+
+        Post post = new Post();
+        post.setId(10L);
+        post.setAuthor(author);
+
+        comment = new Comment(100L, "A reasonably sized comment body for mapping", author, post,
+                null, "0000000000000000100", 0, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    @Benchmark
+    public CommentResponse mapToResponse() {
+        return commentService.mapToResponse(comment);
+    }
+}
@@ -0,0 +1,166 @@
+package com.revature.service;
+
+import com.revature.audit.AuditAction;
+import com.revature.audit.AuditLog;
+import com.revature.audit.AuditRecord;
+import com.revature.dto.CommentRequest;
+import com.revature.dto.CommentResponse;
+import com.revature.dto.PostRequest;
+import com.revature.entity.User;
+import com.revature.event.CommentEvent;
+import com.revature.repository.CommentThreadStore;
+import com.revature.repository.UserRepository;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// With write-behind on and a long flush interval, so a new top-level comment is still queued when its reply comes in
+@SpringBootTest(properties = {
+        "app.comments.write-behind.enabled=true",
+        "app.comments.write-behind.flush-interval=2s"
+})
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+@Import(CommentServiceTest.RecordedEvents.class)
+class CommentServiceTest {
+
+    @TestConfiguration
+    static class RecordedEvents {
+
+        private final List<CommentEvent> events = new CopyOnWriteArrayList<>();
+
+        @EventListener
+        void on(CommentEvent event) {
+            events.add(event);
+        }
+    }
+
+    @Autowired
+    private CommentIngestionService commentIngestionService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RecordedEvents recordedEvents;
+
+    private Long postId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("threads-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("hash");
+        user.setRole(User.Role.USER);
+        user.setIsBanned(false);
+        userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUsername(), null, List.of()));
+        postId = postService.createPost(new PostRequest("Threads", "Body", true), user.getUsername()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void aReplyToAQueuedCommentWaitsForItToLand() {
+        CommentResponse parent = commentIngestionService.addComment(postId, new CommentRequest("Parent", null));
+        assertThat(count("SELECT count(*) FROM comments WHERE id = ?", parent.getId())).isZero();
+
+        CommentResponse reply = commentIngestionService.addComment(postId,
+                new CommentRequest("Reply", parent.getId()));
+
+        assertThat(reply.getParentId()).isEqualTo(parent.getId());
+        assertThat(count("SELECT reply_count FROM comments WHERE id = ?", parent.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void repliesNestAtMostMaxDepthLevels() {
+        Long parentId = commentService.addComment(postId, new CommentRequest("Root", null)).getId();
+        for (int depth = 1; depth <= CommentThreadStore.MAX_DEPTH; depth++) {
+            parentId = commentService.addComment(postId, new CommentRequest("Depth " + depth, parentId)).getId();
+        }
+        Long deepest = parentId;
+
+        assertThatThrownBy(() -> commentService.addComment(postId, new CommentRequest("Too deep", deepest)))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+    }
+
+    @Test
+    void aReplyOnAnotherPostIsRejected() {
+        Long otherPost = postService.createPost(new PostRequest("Other", "Body", true),
+                SecurityContextHolder.getContext().getAuthentication().getName()).getId();
+        Long parentId = commentService.addComment(otherPost, new CommentRequest("Elsewhere", null)).getId();
+
+        assertThatThrownBy(() -> commentService.addComment(postId, new CommentRequest("Reply", parentId)))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+    }
+
+    @Test
+    void deletingACommentAnnouncesAndAuditsTheRepliesItCascadesTo() throws InterruptedException {
+        Instant from = Instant.now();
+        Long root = commentService.addComment(postId, new CommentRequest("Root", null)).getId();
+        Long reply = commentService.addComment(postId, new CommentRequest("Reply", root)).getId();
+        Long nested = commentService.addComment(postId, new CommentRequest("Nested", reply)).getId();
+        recordedEvents.events.clear();
+
+        commentService.deleteComment(root);
+
+        assertThat(count("SELECT count(*) FROM comments WHERE post_id = ?", postId)).isZero();
+        assertThat(recordedEvents.events)
+                .filteredOn(event -> event.type() == CommentEvent.Type.DELETED)
+                .extracting(event -> event.comment().getId())
+                .containsExactly(root, reply, nested);
+        assertThat(recordedEvents.events).filteredOn(event -> event.comment().getId().equals(nested))
+                .singleElement()
+                .satisfies(event -> assertThat(event.comment().getParentId()).isEqualTo(reply));
+
+        List<Long> audited = List.of();
+        for (int attempt = 0; attempt < 100 && audited.size() < 3; attempt++) {
+            Thread.sleep(50);
+            audited = auditLog.query(from, Instant.now(), 1000).stream()
+                    .filter(record -> record.action() == AuditAction.COMMENT_DELETED)
+                    .map(AuditRecord::targetId)
+                    .filter(List.of(root, reply, nested)::contains)
+                    .toList();
+        }
+        assertThat(audited).containsExactlyInAnyOrder(root, reply, nested);
+    }
+
+    private long count(String sql, Long id) {
+        return jdbcTemplate.queryForObject(sql, Long.class, id);
+    }
+}
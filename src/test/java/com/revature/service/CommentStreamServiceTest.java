@@ -0,0 +1,168 @@
+package com.revature.service;
+
+import com.revature.dto.CommentResponse;
+import com.revature.dto.PostRequest;
+import com.revature.entity.User;
+import com.revature.event.CommentEvent;
+import com.revature.repository.UserRepository;
+import com.revature.security.JwtTokenProvider;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Topics are forgotten at the second heartbeat without subscribers
+@SpringBootTest(properties = "app.comments.stream.idle-topic-timeout=0s")
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class CommentStreamServiceTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\S+)$", Pattern.MULTILINE);
+    private static final Duration WAIT = Duration.ofSeconds(5);
+    private static final AtomicLong COMMENT_IDS = new AtomicLong();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CommentStreamService commentStreamService;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    private Long postId;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        User author = new User();
+        author.setUsername("streamer-" + UUID.randomUUID().toString().substring(0, 8));
+        author.setEmail(author.getUsername() + "@example.com");
+        author.setPassword("hash");
+        author.setRole(User.Role.USER);
+        author.setIsBanned(false);
+        userRepository.save(author);
+        token = jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername(author.getUsername()));
+
+        PostRequest request = new PostRequest();
+        request.setTitle("Streamed post");
+        request.setContent("Body");
+        request.setPublished(true);
+        postId = postService.createPost(request, author.getUsername()).getId();
+    }
+
+    @Test
+    void aReconnectingClientReplaysWhatItMissed() throws Exception {
+        MvcResult first = subscribe(null);
+        publish("first");
+        publish("second");
+        String firstId = eventIds(awaitContent(first, content -> eventIds(content).size() == 2)).get(0);
+
+        MvcResult resumed = subscribe(firstId);
+        String content = awaitContent(resumed, body -> body.contains("second"));
+
+        assertThat(content).doesNotContain("\"first\"").doesNotContain("event:reset");
+    }
+
+    @Test
+    void anIdThisInstanceDidNotHandOutGetsAReset() throws Exception {
+        publish("before");
+
+        assertThat(awaitContent(subscribe("0000-3"), body -> body.contains("event:reset"))).contains("event:reset");
+        assertThat(awaitContent(subscribe("not-a-number"), body -> body.contains("event:reset")))
+                .contains("event:reset");
+        assertThat(awaitContent(subscribe("42"), body -> body.contains("event:reset"))).contains("event:reset");
+    }
+
+    @Test
+    void postsWithoutSubscribersHaveNoTopic() {
+        int topics = commentStreamService.topicCount();
+
+        publish("unwatched");
+
+        assertThat(commentStreamService.topicCount()).isEqualTo(topics);
+    }
+
+    @Test
+    void aClientWhoseTopicWasForgottenGetsAReset() throws Exception {
+        MvcResult first = subscribe(null);
+        publish("seen");
+        String seenId = eventIds(awaitContent(first, body -> body.contains("seen"))).get(0);
+        first.getRequest().getAsyncContext().complete();
+        commentStreamService.heartbeat();
+        commentStreamService.heartbeat();
+
+        publish("missed while forgotten");
+        String content = awaitContent(subscribe(seenId), body -> body.contains("event:reset"));
+
+        assertThat(content).contains("event:reset").doesNotContain("missed while forgotten");
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        MockHttpServletRequestBuilder request = get("/api/posts/" + postId + "/comments/stream")
+                .header("Authorization", "Bearer " + token);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andExpect(status().isOk()).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private void publish(String content) {
+        CommentResponse comment = new CommentResponse(COMMENT_IDS.incrementAndGet(), content,
+                new CommentResponse.UserResponse(1L, "commenter"), postId, null, LocalDateTime.now(),
+                LocalDateTime.now());
+        commentStreamService.onCommentEvent(new CommentEvent(CommentEvent.Type.ADDED, comment));
+    }
+
+    private static String awaitContent(MvcResult result, Predicate<String> condition)
+            throws UnsupportedEncodingException, InterruptedException {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        String content = result.getResponse().getContentAsString();
+        while (!condition.test(content) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    private static List<String> eventIds(String content) {
+        List<String> ids = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(content);
+        while (matcher.find()) {
+            ids.add(matcher.group(1));
+        }
+        return ids;
+    }
+}
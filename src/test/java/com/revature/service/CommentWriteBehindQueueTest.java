@@ -0,0 +1,187 @@
+package com.revature.service;
+
+import com.revature.event.CommentEvent;
+import com.revature.invalidation.InMemoryInvalidationBus;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CommentWriteBehindQueueTest {
+
+    private HikariDataSource dataSource;
+    private FlakyJdbcTemplate jdbcTemplate;
+    private InMemoryInvalidationBus invalidationBus;
+    private final List<CommentEvent> events = new CopyOnWriteArrayList<>();
+    private CommentWriteBehindQueue queue;
+    private long authorId;
+    private long postId;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(EmbeddedPostgresInitializer.server().getJdbcUrl("postgres",
+                EmbeddedPostgresInitializer.createDatabase("write_behind")));
+        dataSource.setUsername("postgres");
+        dataSource.setPassword("postgres");
+        dataSource.setMaximumPoolSize(4);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        jdbcTemplate = new FlakyJdbcTemplate(dataSource);
+        authorId = jdbcTemplate.queryForObject("INSERT INTO users (username, email, password, role, created_at) "
+                + "VALUES ('writer', 'writer@example.com', 'x', 'USER', now()) RETURNING id", Long.class);
+        postId = jdbcTemplate.queryForObject("INSERT INTO posts (title, author_id, published, created_at) "
+                + "VALUES ('Post', ?, true, now()) RETURNING id", Long.class, authorId);
+
+        invalidationBus = new InMemoryInvalidationBus(Duration.ofMillis(50), 10_000);
+        invalidationBus.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.stop();
+        }
+        invalidationBus.stop();
+        dataSource.close();
+    }
+
+    @Test
+    void aRowTheDatabaseRejectsIsDroppedWithoutLosingTheRestOfItsBatch() {
+        startQueue(Duration.ofMillis(50));
+        CommentWriteBehindQueue.PendingComment first = comment(postId);
+        CommentWriteBehindQueue.PendingComment orphan = comment(999_999L);
+        CommentWriteBehindQueue.PendingComment last = comment(postId);
+
+        assertThat(queue.offer(first)).isTrue();
+        assertThat(queue.offer(orphan)).isTrue();
+        assertThat(queue.offer(last)).isTrue();
+        queue.flush();
+
+        assertThat(storedIds()).containsExactlyInAnyOrder(first.id(), last.id());
+        assertThat(events).extracting(event -> event.comment().getId())
+                .containsExactlyInAnyOrder(first.id(), last.id());
+        assertThat(commentsReceived()).isEqualTo(2);
+    }
+
+    @Test
+    void transientFailuresAreRetriedUntilTheBatchLands() {
+        jdbcTemplate.failures.add(new TransientDataAccessResourceException("pool timeout"));
+        jdbcTemplate.failures.add(new CannotAcquireLockException("serialization failure"));
+        jdbcTemplate.failures.add(new DataAccessResourceFailureException("connection lost"));
+        startQueue(Duration.ZERO);
+        List<CommentWriteBehindQueue.PendingComment> comments = List.of(comment(postId), comment(postId));
+
+        comments.forEach(queue::offer);
+        queue.flush();
+
+        assertThat(jdbcTemplate.failed).hasValue(3);
+        assertThat(storedIds()).containsExactlyInAnyOrderElementsOf(
+                comments.stream().map(CommentWriteBehindQueue.PendingComment::id).toList());
+        assertThat(events).hasSize(2);
+    }
+
+    @Test
+    void aRetriedBatchWhoseFirstWriteLandedIsNotWrittenTwice() {
+        jdbcTemplate.failAfterWriting = new RecoverableDataAccessException("acknowledgement lost");
+        startQueue(Duration.ZERO);
+        CommentWriteBehindQueue.PendingComment comment = comment(postId);
+
+        queue.offer(comment);
+        queue.flush();
+
+        assertThat(storedIds()).containsExactly(comment.id());
+        assertThat(events).hasSize(1);
+        assertThat(commentsReceived()).isEqualTo(1);
+    }
+
+    @Test
+    void constraintViolationsAreNotRetried() {
+        assertThat(CommentWriteBehindQueue.isRetryable(new DataIntegrityViolationException("fk"))).isFalse();
+        assertThat(CommentWriteBehindQueue.isRetryable(new TransientDataAccessResourceException("timeout"))).isTrue();
+        assertThat(CommentWriteBehindQueue.isRetryable(new RecoverableDataAccessException("reconnect"))).isTrue();
+    }
+
+    @Test
+    void stoppingWritesEverythingAccepted() {
+        // Batches would otherwise wait a minute to fill
+        startQueue(Duration.ofMinutes(1));
+        for (int i = 0; i < 1_200; i++) {
+            assertThat(queue.offer(comment(postId))).isTrue();
+        }
+
+        queue.stop();
+
+        assertThat(storedIds()).hasSize(1_200);
+        assertThat(events).hasSize(1_200);
+        assertThat(queue.offer(comment(postId))).isFalse();
+    }
+
+    private void startQueue(Duration flushInterval) {
+        AuthorStatsService authorStatsService =
+                new AuthorStatsService(null, jdbcTemplate, invalidationBus, Duration.ofMinutes(10), 10_000);
+        queue = new CommentWriteBehindQueue(jdbcTemplate, event -> events.add((CommentEvent) event),
+                authorStatsService, new AdminStatsService(jdbcTemplate, false, Duration.ofSeconds(10)), true, 10_000, 500, flushInterval);
+        queue.start();
+    }
+
+    private CommentWriteBehindQueue.PendingComment comment(long post) {
+        return new CommentWriteBehindQueue.PendingComment(queue.nextId(), "Queued comment", authorId, "writer", post,
+                LocalDateTime.now());
+    }
+
+    private List<Long> storedIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM comments", Long.class);
+    }
+
+    private long commentsReceived() {
+        return jdbcTemplate.queryForObject(
+                "SELECT coalesce(sum(comments_received), 0) FROM author_stats", Long.class);
+    }
+
+    // Fails comment inserts on demand, before they reach the database or after they have been written
+    private static final class FlakyJdbcTemplate extends JdbcTemplate {
+
+        private final List<RuntimeException> failures = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile RuntimeException failAfterWriting;
+
+        FlakyJdbcTemplate(HikariDataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            if (sql.startsWith("INSERT INTO comments") && !failures.isEmpty()) {
+                failed.incrementAndGet();
+                throw failures.remove(0);
+            }
+            int[][] result = super.batchUpdate(sql, batchArgs, batchSize, pss);
+            RuntimeException failure = failAfterWriting;
+            if (failure != null && sql.startsWith("INSERT INTO comments")) {
+                failAfterWriting = null;
+                throw failure;
+            }
+            return result;
+        }
+    }
+}
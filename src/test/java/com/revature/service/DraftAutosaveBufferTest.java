@@ -0,0 +1,230 @@
+package com.revature.service;
+
+import com.revature.dto.DraftPatchRequest.Edit;
+import com.revature.exception.ResourceNotFoundException;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.PostBodyStore;
+import com.revature.repository.PostBodyStore.VersionedBody;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DraftAutosaveBufferTest {
+
+    private static final long POST = 1;
+
+    private final FakeBodyStore store = new FakeBodyStore();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void editsApplyToTheBaseTextInOrder() {
+        String result = DraftAutosaveBuffer.applyEdits("The quick fox", List.of(
+                new Edit(0, 3, "A"), new Edit(4, 5, "slow"), new Edit(13, 0, " sleeps")));
+
+        assertThat(result).isEqualTo("A slow fox sleeps");
+    }
+
+    @Test
+    void editsOutsideTheTextOrOutOfOrderAreRejected() {
+        assertThatThrownBy(() -> DraftAutosaveBuffer.applyEdits("abc", List.of(new Edit(2, 2, ""))))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+        assertThatThrownBy(() -> DraftAutosaveBuffer.applyEdits("abc", List.of(new Edit(4, 0, "x"))))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+        assertThatThrownBy(() -> DraftAutosaveBuffer.applyEdits("abcdef",
+                List.of(new Edit(3, 0, "x"), new Edit(1, 0, "y"))))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+        assertThatThrownBy(() -> DraftAutosaveBuffer.applyEdits("abcdef",
+                List.of(new Edit(1, 3, "x"), new Edit(2, 1, "y"))))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+        // Offsets up to the end are valid
+        assertThat(DraftAutosaveBuffer.applyEdits("abc", List.of(new Edit(3, 0, "d")))).isEqualTo("abcd");
+    }
+
+    @Test
+    void offsetsCountUtf16CharactersAndMustNotSplitASurrogatePair() {
+        // "é" is one char, the emoji two
+        String base = "café 😀 ok";
+
+        assertThat(DraftAutosaveBuffer.applyEdits(base, List.of(new Edit(3, 1, "e"), new Edit(5, 2, ":)"))))
+                .isEqualTo("cafe :) ok");
+        assertThatThrownBy(() -> DraftAutosaveBuffer.applyEdits(base, List.of(new Edit(6, 0, "x"))))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+        assertThatThrownBy(() -> DraftAutosaveBuffer.applyEdits(base, List.of(new Edit(4, 2, ""))))
+                .isInstanceOf(ResponseStatusException.class).hasMessageStartingWith("400");
+    }
+
+    @Test
+    void aPatchAgainstAnOldVersionIsAConflict() {
+        store.bodies.put(POST, new VersionedBody("hello", 3));
+        DraftAutosaveBuffer buffer = buffer(Duration.ofMinutes(1));
+
+        assertThat(buffer.apply(POST, 3, List.of(new Edit(5, 0, "!")))).isEqualTo(new VersionedBody("hello!", 4));
+        assertThatThrownBy(() -> buffer.apply(POST, 3, List.of(new Edit(5, 0, "?"))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThat(buffer.pending(POST)).contains(new VersionedBody("hello!", 4));
+    }
+
+    @Test
+    void aPatchOfAMissingPostIsNotFound() {
+        DraftAutosaveBuffer buffer = buffer(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> buffer.apply(POST, 1, List.of()))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void aBurstOfPatchesIsWrittenOnceItHasBeenQuiet() {
+        store.bodies.put(POST, new VersionedBody("a", 1));
+        DraftAutosaveBuffer quiet = buffer(Duration.ofMinutes(1));
+        quiet.apply(POST, 1, List.of(new Edit(1, 0, "b")));
+        quiet.apply(POST, 2, List.of(new Edit(2, 0, "c")));
+
+        quiet.flush();
+        assertThat(store.writes).isEmpty();
+
+        DraftAutosaveBuffer buffer = buffer(Duration.ZERO);
+        for (int version = 1; version <= 3; version++) {
+            buffer.apply(POST, version, List.of(new Edit(version, 0, "x")));
+        }
+        buffer.flush();
+
+        assertThat(store.writes).containsExactly(new VersionedBody("axxx", 4));
+        assertThat(store.bodies.get(POST)).isEqualTo(new VersionedBody("axxx", 4));
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void aDraftWhoseBodyWasReplacedIsDropped() {
+        store.bodies.put(POST, new VersionedBody("a", 1));
+        DraftAutosaveBuffer buffer = buffer(Duration.ZERO);
+        buffer.apply(POST, 1, List.of(new Edit(1, 0, "b")));
+        store.bodies.put(POST, new VersionedBody("saved elsewhere", 2));
+
+        buffer.flush();
+
+        assertThat(store.writes).isEmpty();
+        assertThat(buffer.pending(POST)).isEmpty();
+    }
+
+    @Test
+    void aFullSaveDropsTheDraftOnceItCommits() {
+        store.bodies.put(POST, new VersionedBody("a", 1));
+        DraftAutosaveBuffer buffer = buffer(Duration.ofMinutes(1));
+        buffer.apply(POST, 1, List.of(new Edit(1, 0, "b")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(buffer.replace(POST)).contains(new VersionedBody("ab", 2));
+        assertThatThrownBy(() -> buffer.apply(POST, 2, List.of(new Edit(2, 0, "c"))))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(buffer.pending(POST)).contains(new VersionedBody("ab", 2));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(buffer.pending(POST)).isEmpty();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void aRolledBackFullSaveLeavesTheDraftAsItWas() {
+        store.bodies.put(POST, new VersionedBody("a", 1));
+        DraftAutosaveBuffer buffer = buffer(Duration.ZERO);
+        buffer.apply(POST, 1, List.of(new Edit(1, 0, "b")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        buffer.replace(POST);
+        buffer.flush();
+        assertThat(store.writes).isEmpty();
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(buffer.apply(POST, 2, List.of(new Edit(2, 0, "c")))).isEqualTo(new VersionedBody("abc", 3));
+        buffer.flush();
+        assertThat(store.writes).containsExactly(new VersionedBody("abc", 3));
+    }
+
+    @Test
+    void aPostWithoutADraftTakesNoPatchesWhileItIsSaved() {
+        store.bodies.put(POST, new VersionedBody("a", 1));
+        DraftAutosaveBuffer buffer = buffer(Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(buffer.replace(POST)).isEmpty();
+        assertThat(buffer.pending(POST)).isEmpty();
+        assertThatThrownBy(() -> buffer.apply(POST, 1, List.of(new Edit(1, 0, "b"))))
+                .isInstanceOf(ResponseStatusException.class);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.apply(POST, 1, List.of(new Edit(1, 0, "b")))).isEqualTo(new VersionedBody("ab", 2));
+    }
+
+    private DraftAutosaveBuffer buffer(Duration quietPeriod) {
+        return new DraftAutosaveBuffer(store, new NoOpInvalidationBus(), quietPeriod, Duration.ofHours(1), 100);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+
+    private static final class FakeBodyStore extends PostBodyStore {
+
+        private final Map<Long, VersionedBody> bodies = new HashMap<>();
+        private final List<VersionedBody> writes = new ArrayList<>();
+
+        FakeBodyStore() {
+            super(null, 4096, 1);
+        }
+
+        @Override
+        public Optional<VersionedBody> findVersioned(Long postId) {
+            return Optional.ofNullable(bodies.get(postId));
+        }
+
+        @Override
+        public boolean replace(Long postId, String content, long expectedVersion, long newVersion) {
+            VersionedBody stored = bodies.get(postId);
+            if (stored == null || stored.version() != expectedVersion) {
+                return false;
+            }
+            VersionedBody written = new VersionedBody(content, newVersion);
+            bodies.put(postId, written);
+            writes.add(written);
+            return true;
+        }
+    }
+
+    private static final class NoOpInvalidationBus implements InvalidationBus {
+
+        @Override
+        public void publish(InvalidationTopic topic, long id) {
+        }
+
+        @Override
+        public void subscribe(InvalidationTopic topic, LongConsumer invalidate, Runnable invalidateAll) {
+        }
+    }
+}
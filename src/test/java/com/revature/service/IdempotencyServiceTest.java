@@ -0,0 +1,195 @@
+package com.revature.service;
+
+import com.revature.dto.PostRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyService service =
+            new IdempotencyService(JsonMapper.builder().build(), Duration.ofHours(1), DataSize.ofMegabytes(1), Duration.ofSeconds(5));
+
+    @Test
+    void aRetryReplaysTheFirstResult() {
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyService.Outcome<Integer> first =
+                service.execute("key", "alice", "create-post", request("Title"), runs::incrementAndGet);
+        IdempotencyService.Outcome<Integer> retry =
+                service.execute("key", "alice", "create-post", request("Title"), runs::incrementAndGet);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.result()).isEqualTo(first.result()).isEqualTo(1);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedToTheUserAndOperation() {
+        AtomicInteger runs = new AtomicInteger();
+
+        service.execute("key", "alice", "create-post", request("Title"), runs::incrementAndGet);
+        service.execute("key", "bob", "create-post", request("Title"), runs::incrementAndGet);
+        service.execute("key", "alice", "add-comment:1", request("Title"), runs::incrementAndGet);
+
+        assertThat(runs).hasValue(3);
+    }
+
+    @Test
+    void storedResultsAreBoundedByTheSizeOfWhatTheyCarry() {
+        IdempotencyService bounded =
+                new IdempotencyService(JsonMapper.builder().build(), Duration.ofHours(1), DataSize.ofKilobytes(64),
+                        Duration.ofSeconds(5));
+        for (int i = 0; i < 40; i++) {
+            bounded.execute("small-" + i, "alice", "create-post", request("Title " + i), () -> 1);
+        }
+        assertThat(bounded.storedKeys()).isEqualTo(40);
+
+        // A 16 KB body each: only a few fit
+        for (int i = 0; i < 20; i++) {
+            bounded.execute("large-" + i, "alice", "create-post", request("x".repeat(16_000) + i), () -> 1);
+        }
+        assertThat(bounded.storedKeys()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void aKeyReusedForADifferentBodyIsRejected() {
+        service.execute("key", "alice", "create-post", request("Aa"), () -> 1);
+
+        // "Aa" and "BB" share a String.hashCode
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        assertThatThrownBy(() -> service.execute("key", "alice", "create-post", request("BB"), () -> 2))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_CONTENT));
+    }
+
+    @Test
+    void aFailedAttemptCanBeRetriedWithTheSameKey() {
+        assertThatThrownBy(() -> service.execute("key", "alice", "create-post", request("Title"), () -> {
+            throw new IllegalStateException("database down");
+        })).hasMessage("database down");
+
+        IdempotencyService.Outcome<Integer> retry =
+                service.execute("key", "alice", "create-post", request("Title"), () -> 7);
+
+        assertThat(retry.replayed()).isFalse();
+        assertThat(retry.result()).isEqualTo(7);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstAttempt() throws Exception {
+        int duplicates = 4;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates + 1);
+        try {
+            Future<IdempotencyService.Outcome<Integer>> first = executor.submit(() ->
+                    service.execute("key", "alice", "create-post", request("Title"), () -> {
+                        started.countDown();
+                        await(release);
+                        return runs.incrementAndGet();
+                    }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<IdempotencyService.Outcome<Integer>>> waiting = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                waiting.add(executor.submit(() ->
+                        service.execute("key", "alice", "create-post", request("Title"), runs::incrementAndGet)));
+            }
+            Thread.sleep(100);
+            assertThat(waiting).noneMatch(Future::isDone);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+            for (Future<IdempotencyService.Outcome<Integer>> duplicate : waiting) {
+                IdempotencyService.Outcome<Integer> outcome = duplicate.get(5, TimeUnit.SECONDS);
+                assertThat(outcome.replayed()).isTrue();
+                assertThat(outcome.result()).isEqualTo(1);
+            }
+            assertThat(runs).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitersRetryWhenTheFirstAttemptFails() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = executor.submit(() ->
+                    service.execute("key", "alice", "create-post", request("Title"), () -> {
+                        started.countDown();
+                        await(release);
+                        throw new IllegalStateException("rolled back");
+                    }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<IdempotencyService.Outcome<Integer>> waiter = executor.submit(() ->
+                    service.execute("key", "alice", "create-post", request("Title"), runs::incrementAndGet));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThatThrownBy(first::get).hasRootCauseMessage("rolled back");
+            IdempotencyService.Outcome<Integer> outcome = waiter.get(5, TimeUnit.SECONDS);
+            assertThat(outcome.replayed()).isFalse();
+            assertThat(outcome.result()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void aWaiterGivesUpAfterTheInFlightTimeout() throws Exception {
+        IdempotencyService impatient =
+                new IdempotencyService(JsonMapper.builder().build(), Duration.ofHours(1), DataSize.ofMegabytes(1), Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> impatient.execute("key", "alice", "create-post", request("Title"), () -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> impatient.execute("key", "alice", "create-post", request("Title"), () -> 2))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static PostRequest request(String title) {
+        return new PostRequest(title, "Body", false);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
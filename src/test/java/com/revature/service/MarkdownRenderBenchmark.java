@@ -0,0 +1,69 @@
+package com.revature.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+// CPU cost of rendering a post body to HTML, against what a cache hit costs (hashing the content)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkdownRenderBenchmark {
+
+    private static final String SECTION = """
+            ## Section heading
+
+            A paragraph with **bold**, *emphasis*, `inline code` and a [link](https://example.com/docs).
+            Some more prose follows so the paragraph wraps across a couple of lines like a real post would.
+
+            - first item
+            - second item with a [reference](https://example.com)
+            - third item
+
+            ```java
+            System.out.println("hello");
+            ```
+
+            > A quoted line with <span>inline html</span> that must come out escaped.
+
+            """;
+
+    @Param({"2000", "100000", "500000"})
+    public int length;
+
+    private MarkdownRenderer renderer;
+    private RenderedHtmlService cachingService;
+    private String markdown;
+
+    @Setup
+    public void setUp() {
+        renderer = new MarkdownRenderer();
+        // Entry cap above the largest document so every size can be served from the cache
+        cachingService = new RenderedHtmlService(renderer, null, null, null, false, 64_000_000, 1_000_000);
+        StringBuilder builder = new StringBuilder(length + SECTION.length());
+        while (builder.length() < length) {
+            builder.append(SECTION);
+        }
+        markdown = builder.substring(0, length);
+        cachingService.render(markdown);
+    }
+
+    @Benchmark
+    public String renderToString() {
+        return renderer.render(markdown);
+    }
+
+    @Benchmark
+    public void renderStreaming() {
+        renderer.render(markdown, Writer.nullWriter());
+    }
+
+    @Benchmark
+    public String cachedRender() {
+        return cachingService.render(markdown);
+    }
+}
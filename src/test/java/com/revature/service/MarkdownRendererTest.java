@@ -0,0 +1,73 @@
+package com.revature.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownRendererTest {
+
+    private final MarkdownRenderer renderer = new MarkdownRenderer();
+
+    @Test
+    void rendersMarkdown() {
+        assertThat(renderer.render("# Title\n\nSome *emphasis* and [a link](https://example.com)."))
+                .contains("<h1>Title</h1>")
+                .contains("<em>emphasis</em>")
+                .contains("<a rel=\"nofollow noopener\" href=\"https://example.com\">a link</a>");
+    }
+
+    @Test
+    void escapesScriptBlocksAndInlineHtml() {
+        String html = renderer.render("<script>alert(1)</script>\n\nText <img src=x onerror=alert(1)> inline");
+
+        assertThat(html).doesNotContain("<script").doesNotContain("<img")
+                .contains("&lt;script&gt;alert(1)&lt;/script&gt;")
+                .contains("&lt;img src=x onerror=alert(1)&gt;");
+    }
+
+    @Test
+    void quotesCannotBreakOutOfAttributes() {
+        String html = renderer.render("[x](https://example.com/\"onmouseover=\"alert(1) \"title\\\" onclick=\\\"alert(2)\")"
+                + "\n\n![alt\" onerror=\"alert(3)](https://example.com/i.png)");
+
+        assertThat(html).doesNotContain("\" onclick=").doesNotContain("\" onerror=").doesNotContain("\"onmouseover=");
+    }
+
+    @Test
+    void scriptUrlsAreRemovedFromLinksAndImages() {
+        assertThat(renderer.render("[x](javascript:alert(1))")).doesNotContainIgnoringCase("javascript:");
+        assertThat(renderer.render("[x](JaVaScRiPt:alert(1))")).doesNotContainIgnoringCase("javascript:");
+        assertThat(renderer.render("[x](<java\tscript:alert(1)>)")).doesNotContainIgnoringCase("script:");
+        assertThat(renderer.render("[x](&#106;avascript:alert(1))")).doesNotContainIgnoringCase("javascript:");
+        assertThat(renderer.render("![x](javascript:alert(1))")).doesNotContainIgnoringCase("javascript:");
+        assertThat(renderer.render("<javascript:alert(1)>")).doesNotContain("href=\"javascript:");
+        assertThat(renderer.render("[x](vbscript:msgbox(1))")).doesNotContainIgnoringCase("vbscript:");
+    }
+
+    @Test
+    void dataUrlsAreRemovedFromLinksAndImages() {
+        assertThat(renderer.render("[x](data:text/html;base64,PHNjcmlwdD5hbGVydCgxKTwvc2NyaXB0Pg==)"))
+                .doesNotContain("data:");
+        assertThat(renderer.render("![x](data:image/svg+xml;base64,PHN2ZyBvbmxvYWQ9YWxlcnQoMSk+)"))
+                .doesNotContain("data:");
+    }
+
+    @Test
+    void safeSchemesAreKept() {
+        assertThat(renderer.render("[mail](mailto:someone@example.com) ![img](https://example.com/i.png)"))
+                .contains("href=\"mailto:someone@example.com\"")
+                .contains("src=\"https://example.com/i.png\"");
+    }
+
+    @Test
+    void streamingRenderMatchesTheString() throws IOException {
+        String markdown = "<b>bold?</b> [x](javascript:alert(1)) **bold**";
+        StringBuilder out = new StringBuilder();
+
+        renderer.render(markdown, out);
+
+        assertThat(out.toString()).isEqualTo(renderer.render(markdown));
+    }
+}
@@ -0,0 +1,199 @@
+package com.revature.service;
+
+import com.revature.dto.PostRequest;
+import com.revature.entity.Post;
+import com.revature.entity.User;
+import com.revature.repository.UserRepository;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class PostViewCounterTest {
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final CapturingScheduler scheduler = new CapturingScheduler();
+    private String author;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("viewer-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("hash");
+        user.setRole(User.Role.USER);
+        user.setIsBanned(false);
+        userRepository.save(user);
+        author = user.getUsername();
+    }
+
+    @Test
+    void flushAddsPendingViewsToTheColumn() {
+        PostViewCounter counter = new PostViewCounter(jdbcTemplate, scheduler, 100);
+        Long postId = post();
+
+        counter.recordView(postId);
+        counter.recordView(postId);
+        counter.flush();
+        counter.recordView(postId);
+        counter.flush();
+
+        assertThat(storedViews(postId)).isEqualTo(3);
+        assertThat(counter.pendingViews(postId)).isZero();
+    }
+
+    @Test
+    void responsesShowStoredPlusPendingViews() {
+        PostViewCounter counter = new PostViewCounter(jdbcTemplate, scheduler, 100);
+        Long postId = post();
+        counter.recordView(postId);
+        counter.flush();
+        counter.recordView(postId);
+        counter.recordView(postId);
+
+        Post post = new Post();
+        post.setId(postId);
+        post.setViewCount(storedViews(postId));
+
+        assertThat(counter.withPendingViews(post).getViewCount()).isEqualTo(3);
+        assertThat(counter.pendingViews(post()))
+                .as("a post without views").isZero();
+    }
+
+    @Test
+    void viewsBeingFlushedStayVisibleUntilTheUpdateCommits() {
+        Long postId = post();
+        AtomicReference<PostViewCounter> counter = new AtomicReference<>();
+        AtomicLong shownDuringFlush = new AtomicLong(-1);
+        JdbcTemplate observing = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int update(String sql, Object... args) {
+                shownDuringFlush.set(counter.get().pendingViews(postId));
+                return super.update(sql, args);
+            }
+        };
+        counter.set(new PostViewCounter(observing, scheduler, 100));
+        counter.get().recordView(postId);
+        counter.get().recordView(postId);
+
+        counter.get().flush();
+
+        assertThat(shownDuringFlush).hasValue(2);
+        assertThat(counter.get().pendingViews(postId)).isZero();
+        assertThat(storedViews(postId)).isEqualTo(2);
+    }
+
+    @Test
+    void noViewIsLostToAConcurrentFlush() throws Exception {
+        PostViewCounter counter = new PostViewCounter(jdbcTemplate, scheduler, 100);
+        List<Long> postIds = List.of(post(), post(), post());
+        int threads = 8;
+        int viewsPerThread = 2_000;
+
+        AtomicBoolean recording = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (recording.get()) {
+                    counter.flush();
+                }
+            });
+            List<Future<?>> viewers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                viewers.add(executor.submit(() -> {
+                    for (int i = 0; i < viewsPerThread; i++) {
+                        counter.recordView(postIds.get(i % postIds.size()));
+                    }
+                }));
+            }
+            for (Future<?> viewer : viewers) {
+                viewer.get();
+            }
+            recording.set(false);
+            flusher.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        counter.flush();
+
+        long total = postIds.stream().mapToLong(this::storedViews).sum();
+        assertThat(total).isEqualTo((long) threads * viewsPerThread);
+    }
+
+    @Test
+    void aFullMapIsFlushedOnTheSchedulerNotTheCaller() {
+        PostViewCounter counter = new PostViewCounter(jdbcTemplate, scheduler, 2);
+        Long first = post();
+        Long second = post();
+        Long third = post();
+
+        counter.recordView(first);
+        counter.recordView(second);
+        counter.recordView(third);
+        counter.recordView(third);
+
+        assertThat(storedViews(first)).isZero();
+        assertThat(scheduler.tasks).as("one early flush, however many views arrive while it waits").hasSize(1);
+
+        scheduler.tasks.get(0).run();
+
+        assertThat(storedViews(first)).isEqualTo(1);
+        assertThat(storedViews(third)).isEqualTo(2);
+        counter.recordView(first);
+        counter.recordView(second);
+        counter.recordView(third);
+        assertThat(scheduler.tasks).as("the next full map schedules another").hasSize(2);
+    }
+
+    private Long post() {
+        PostRequest request = new PostRequest();
+        request.setTitle("Viewed post");
+        request.setContent("Body");
+        request.setPublished(true);
+        return postService.createPost(request, author).getId();
+    }
+
+    private long storedViews(Long postId) {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM posts WHERE id = ?", Long.class, postId);
+    }
+
+    // Keeps scheduled tasks for the test to run
+    private static class CapturingScheduler extends ThreadPoolTaskScheduler {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Instant startTime) {
+            tasks.add(task);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.revature.service;
+
+import com.revature.dto.PostRequest;
+import com.revature.entity.User;
+import com.revature.repository.FollowStore.TimelinePost;
+import com.revature.repository.UserRepository;
+import com.revature.security.JwtTokenProvider;
+import com.revature.security.UserDetailsServiceImpl;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class TimelineServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Test
+    void ringKeepsPostsNewestFirstWhateverThePushOrder() {
+        TimelineService.Timeline timeline = new TimelineService.Timeline(4, List.of(), new long[0]);
+        timeline.push(at(1, 10));
+        timeline.push(at(3, 30));
+        timeline.push(at(2, 20));
+        timeline.push(at(3, 29));
+
+        assertThat(ids(timeline.newest(10))).containsExactly(30L, 29L, 20L, 10L);
+        assertThat(ids(timeline.newest(2))).containsExactly(30L, 29L);
+    }
+
+    @Test
+    void fullRingEvictsTheOldestAndIgnoresOlderPushes() {
+        TimelineService.Timeline timeline = new TimelineService.Timeline(3,
+                List.of(at(3, 30), at(2, 20), at(1, 10), at(0, 5)), new long[0]);
+        assertThat(ids(timeline.newest(10))).containsExactly(30L, 20L, 10L);
+
+        timeline.push(at(0, 1));
+        assertThat(ids(timeline.newest(10))).containsExactly(30L, 20L, 10L);
+
+        timeline.push(at(2, 25));
+        assertThat(ids(timeline.newest(10))).containsExactly(30L, 25L, 20L);
+
+        timeline.push(at(4, 40));
+        assertThat(ids(timeline.newest(10))).containsExactly(40L, 30L, 25L);
+    }
+
+    @Test
+    void mergeOrdersByCreationTimeThenIdAndDropsDuplicates() {
+        // Ids don't follow creation order, as when a post written earlier is published later
+        List<TimelinePost> pushed = List.of(at(5, 1), at(3, 50), at(1, 7));
+        List<TimelinePost> pulled = List.of(at(4, 2), at(3, 50), at(3, 40), at(0, 99));
+
+        assertThat(TimelineService.merge(pushed, pulled, 10)).containsExactly(1L, 2L, 50L, 40L, 7L, 99L);
+        assertThat(TimelineService.merge(pushed, pulled, 3)).containsExactly(1L, 2L, 50L);
+        assertThat(TimelineService.merge(List.of(at(2, 8), at(2, 8)), List.of(), 10)).containsExactly(8L);
+    }
+
+    @Test
+    void followingFansOutNewPostsInCreationOrder() throws Exception {
+        User reader = user();
+        User author = user();
+        String token = token(reader);
+        Long draft = createPost(author, false);
+        Long older = createPost(author, true);
+
+        mockMvc.perform(post("/api/authors/" + author.getUsername() + "/follow").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertThat(timeline(token)).containsExactly(older);
+
+        // Pushed to the timeline now in memory; the draft was written first, so it sorts last
+        Long newer = createPost(author, true);
+        postService.publishPost(draft, author.getUsername());
+
+        assertThat(timeline(token)).containsExactly(newer, older, draft);
+    }
+
+    @Test
+    void unfollowingRemovesTheAuthorsPosts() throws Exception {
+        User reader = user();
+        User followed = user();
+        User other = user();
+        String token = token(reader);
+        Long kept = createPost(other, true);
+        createPost(followed, true);
+        follow(token, other);
+        follow(token, followed);
+        assertThat(timeline(token)).hasSize(2);
+
+        mockMvc.perform(delete("/api/authors/" + followed.getUsername() + "/follow")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(timeline(token)).containsExactly(kept);
+    }
+
+    @Test
+    void aPageBeyondTheTimelineIsEmpty() throws Exception {
+        User reader = user();
+        follow(token(reader), user());
+
+        // page * size overflows an int
+        String body = mockMvc.perform(get("/api/timeline").param("page", "21474837").param("size", "100")
+                        .header("Authorization", "Bearer " + token(reader)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(jsonMapper.readTree(body).path("data")).isEmpty();
+    }
+
+    @Test
+    void followRejectsSelfAndUnknownAuthors() throws Exception {
+        User reader = user();
+        String token = token(reader);
+
+        mockMvc.perform(post("/api/authors/" + reader.getUsername() + "/follow").header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/authors/nobody-" + UUID.randomUUID() + "/follow")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/timeline")).andExpect(status().isForbidden());
+    }
+
+    private void follow(String token, User author) throws Exception {
+        mockMvc.perform(post("/api/authors/" + author.getUsername() + "/follow").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    private List<Long> timeline(String token) throws Exception {
+        String body = mockMvc.perform(get("/api/timeline").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode post : jsonMapper.readTree(body).path("data")) {
+            ids.add(post.path("id").asLong());
+        }
+        return ids;
+    }
+
+    private Long createPost(User author, boolean published) {
+        PostRequest request = new PostRequest();
+        request.setTitle("Timeline post");
+        request.setContent("Body");
+        request.setPublished(published);
+        return postService.createPost(request, author.getUsername()).getId();
+    }
+
+    private User user() {
+        User user = new User();
+        user.setUsername("timeline-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("hash");
+        user.setRole(User.Role.USER);
+        user.setIsBanned(false);
+        return userRepository.save(user);
+    }
+
+    private String token(User user) {
+        return jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername(user.getUsername()));
+    }
+
+    private static TimelinePost at(int minutes, long postId) {
+        return new TimelinePost(postId, NOON.plusMinutes(minutes));
+    }
+
+    private static List<Long> ids(List<TimelinePost> posts) {
+        return posts.stream().map(TimelinePost::postId).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package com.revature.service;
+
+import com.revature.dto.CommentResponse;
+import com.revature.dto.PostRequest;
+import com.revature.dto.TrendingPostResponse;
+import com.revature.entity.User;
+import com.revature.event.CommentEvent;
+import com.revature.invalidation.InvalidationBus;
+import com.revature.invalidation.InvalidationTopic;
+import com.revature.repository.PostRepository;
+import com.revature.repository.UserRepository;
+import com.revature.support.EmbeddedPostgresInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class TrendingServiceTest {
+
+    private static final InvalidationBus LOCAL_ONLY = new InvalidationBus() {
+        @Override
+        public void publish(InvalidationTopic topic, long id) {
+        }
+
+        @Override
+        public void subscribe(InvalidationTopic topic, LongConsumer invalidate, Runnable invalidateAll) {
+        }
+    };
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TrendingService trendingService;
+    private String author;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = new TrendingService(postRepository, jdbcTemplate, LOCAL_ONLY, Duration.ofHours(1),
+                Duration.ofMinutes(1), Duration.ofMinutes(15), 2);
+
+        User user = new User();
+        user.setUsername("trending-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("hash");
+        user.setRole(User.Role.USER);
+        user.setIsBanned(false);
+        userRepository.save(user);
+        author = user.getUsername();
+    }
+
+    @Test
+    void unpublishedPostsDoNotTakeTopSlots() {
+        Long draft = post(false);
+        Long otherDraft = post(false);
+        Long popular = post(true);
+        Long quiet = post(true);
+        comment(draft, 10);
+        comment(otherDraft, 8);
+        comment(popular, 3);
+        comment(quiet, 1);
+
+        trendingService.recompute();
+
+        assertThat(trendingService.getTrendingPosts()).extracting(TrendingPostResponse::getId)
+                .containsExactly(popular, quiet);
+    }
+
+    @Test
+    void fewerPublishedCandidatesThanSlotsAreAllShown() {
+        Long draft = post(false);
+        Long popular = post(true);
+        comment(draft, 5);
+        comment(popular, 2);
+
+        trendingService.recompute();
+
+        assertThat(trendingService.getTrendingPosts()).extracting(TrendingPostResponse::getId).containsExactly(popular);
+        assertThat(trendingService.getTrendingPosts().get(0).getRecentComments()).isEqualTo(2);
+    }
+
+    private Long post(boolean published) {
+        PostRequest request = new PostRequest();
+        request.setTitle("Trending candidate");
+        request.setContent("Body");
+        request.setPublished(published);
+        return postService.createPost(request, author).getId();
+    }
+
+    private void comment(Long postId, int count) {
+        for (int i = 0; i < count; i++) {
+            CommentResponse comment = new CommentResponse();
+            comment.setPostId(postId);
+            comment.setCreatedAt(LocalDateTime.now());
+            trendingService.onCommentEvent(new CommentEvent(CommentEvent.Type.ADDED, comment));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.revature.support;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+// Registered in META-INF/services; closes the cached application contexts once all tests have run
+public class ContextClosingListener implements TestExecutionListener {
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        EmbeddedPostgresInitializer.closeContexts();
+    }
+}
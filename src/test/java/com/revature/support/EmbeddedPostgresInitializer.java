@@ -0,0 +1,92 @@
+package com.revature.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Boots one embedded PostgreSQL per JVM and gives every application context its own database
+// (and its own audit log directory, which only one writer may hold)
+public class EmbeddedPostgresInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static final Deque<ConfigurableApplicationContext> CONTEXTS = new ConcurrentLinkedDeque<>();
+    private static EmbeddedPostgres postgres;
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        CONTEXTS.push(context);
+        context.addApplicationListener(event -> {
+            if (event instanceof ContextClosedEvent) {
+                CONTEXTS.remove(context);
+            }
+        });
+        EmbeddedPostgres server = server();
+        String database = createDatabase("test");
+
+        TestPropertyValues.of(
+                "spring.datasource.url=" + server.getJdbcUrl("postgres", database),
+                "spring.datasource.username=postgres",
+                "spring.datasource.password=postgres",
+                "app.audit.directory=" + auditDirectory(database))
+                .applyTo(context);
+    }
+
+    // An empty database of its own, for tests that work below the application context
+    public static String createDatabase(String prefix) {
+        String database = prefix + "_" + DATABASES.incrementAndGet();
+        try (Connection connection = server().getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + database);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create test database " + database, e);
+        }
+        return database;
+    }
+
+    // The server stops in its own JVM shutdown hook, which races the one that closes the cached contexts; closing
+    // them first lets components that write on their way down still reach their database
+    static void closeContexts() {
+        ConfigurableApplicationContext context;
+        while ((context = CONTEXTS.poll()) != null) {
+            context.close();
+        }
+    }
+
+    private static Path auditDirectory(String database) {
+        try {
+            return Files.createTempDirectory("audit-" + database);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create an audit log directory", e);
+        }
+    }
+
+    public static synchronized EmbeddedPostgres server() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                }
+            }));
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,23 @@
+package com.revature.support;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class ServerTimingHeader {
+
+    private static final Pattern SQL_STATEMENTS = Pattern.compile("sql;desc=\"(\\d+) statements\"");
+
+    private ServerTimingHeader() {
+    }
+
+    public static int sqlStatements(String header) {
+        if (header == null) {
+            throw new IllegalStateException("Response has no Server-Timing header; is app.tracing.debug enabled?");
+        }
+        Matcher matcher = SQL_STATEMENTS.matcher(header);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No SQL statement count in Server-Timing header: " + header);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+}
@@ -0,0 +1,60 @@
+package com.revature.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// Bulk-generates users, posts and comments server side with generate_series, in chunks.
+// Ids are offset from the first generated row, so the tables need not be empty, but seed a database only once.
+public final class SyntheticDataSeeder {
+
+    public static final String PASSWORD = "password";
+
+    private static final int CHUNK = 500_000;
+
+    private SyntheticDataSeeder() {
+    }
+
+    public static void seed(JdbcTemplate jdbcTemplate, int users, int posts, int publishedPosts, int comments) {
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        int publishedEvery = Math.max(1, posts / Math.max(1, publishedPosts));
+
+        for (int from = 1; from <= users; from += CHUNK) {
+            jdbcTemplate.update("""
+                    INSERT INTO users (username, email, password, role, created_at, is_banned)
+                    SELECT 'user' || g, 'user' || g || '@example.com', ?, 'USER',
+                           now() - make_interval(secs => g), false
+                    FROM generate_series(?, ?) g""",
+                    passwordHash, from, Math.min(users, from + CHUNK - 1));
+        }
+
+        long userBase = jdbcTemplate.queryForObject("SELECT id - 1 FROM users WHERE username = 'user1'", Long.class);
+        long postBase = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM posts", Long.class);
+
+        for (int from = 1; from <= posts; from += CHUNK) {
+            jdbcTemplate.update("""
+                    INSERT INTO posts (title, author_id, published, created_at, updated_at)
+                    SELECT 'Post ' || g, ? + 1 + (g % ?), g % ? = 0, now() - make_interval(secs => g), now()
+                    FROM generate_series(?, ?) g""",
+                    userBase, users, publishedEvery, from, Math.min(posts, from + CHUNK - 1));
+        }
+
+        jdbcTemplate.update("""
+                INSERT INTO post_bodies (post_id, encoding, original_length, body)
+                SELECT id, 0, length(b.content), convert_to(b.content, 'UTF8')
+                FROM posts, (SELECT repeat('Lorem ipsum dolor sit amet, consectetur adipiscing elit. ', 10) AS content) b
+                WHERE id > ?""", postBase);
+
+        postBase = jdbcTemplate.queryForObject("SELECT MIN(id) - 1 FROM posts WHERE id > ?", Long.class, postBase);
+
+        for (int from = 1; from <= comments; from += CHUNK) {
+            jdbcTemplate.update("""
+                    INSERT INTO comments (content, author_id, post_id, created_at, updated_at)
+                    SELECT 'Comment ' || g, ? + 1 + ((g * 7) % ?), ? + 1 + (g % ?),
+                           now() - make_interval(secs => g), now()
+                    FROM generate_series(?, ?) g""",
+                    userBase, users, postBase, posts, from, Math.min(comments, from + CHUNK - 1));
+        }
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+}
@@ -0,0 +1,134 @@
+package com.revature.tracing;
+
+import com.revature.dto.PostRequest;
+import com.revature.entity.User;
+import com.revature.repository.UserRepository;
+import com.revature.security.JwtTokenProvider;
+import com.revature.security.UserDetailsServiceImpl;
+import com.revature.service.PostService;
+import com.revature.support.EmbeddedPostgresInitializer;
+import com.revature.support.ServerTimingHeader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ContextConfiguration(initializers = EmbeddedPostgresInitializer.class)
+class ServerTimingFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String adminToken;
+    private String userToken;
+    private Long postId;
+
+    @BeforeEach
+    void setUp() {
+        User admin = user(User.Role.ADMIN);
+        User author = user(User.Role.USER);
+        adminToken = jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername(admin.getUsername()));
+        userToken = jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername(author.getUsername()));
+
+        PostRequest request = new PostRequest();
+        request.setTitle("Timed post");
+        request.setContent("Body of the timed post");
+        request.setPublished(true);
+        postId = postService.createPost(request, author.getUsername()).getId();
+    }
+
+    @Test
+    void adminsThatAskGetTheBreakdownIncludingJdbcTemplateStatements() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/posts/" + postId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header(ServerTimingFilter.DEBUG_HEADER, "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String header = result.getResponse().getHeader("Server-Timing");
+        assertThat(header).contains("jwt;dur=", "repo;dur=", "ser;dur=", "total;dur=");
+        // The post through Hibernate and its body through JdbcTemplate
+        assertThat(ServerTimingHeader.sqlStatements(header)).isGreaterThanOrEqualTo(2);
+        assertThat(result.getResponse().getContentAsString()).contains("Body of the timed post");
+    }
+
+    @Test
+    void otherUsersAndAnonymousRequestsDoNotGetIt() throws Exception {
+        MvcResult asUser = mockMvc.perform(get("/api/posts/" + postId)
+                        .header("Authorization", "Bearer " + userToken)
+                        .header(ServerTimingFilter.DEBUG_HEADER, "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult anonymous = mockMvc.perform(get("/api/posts/" + postId)
+                        .header(ServerTimingFilter.DEBUG_HEADER, "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(asUser.getResponse().getHeader("Server-Timing")).isNull();
+        assertThat(anonymous.getResponse().getHeader("Server-Timing")).isNull();
+        assertThat(anonymous.getResponse().getContentAsString()).contains("Body of the timed post");
+    }
+
+    @Test
+    void adminsThatDoNotAskDoNotGetIt() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/posts/" + postId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getHeader("Server-Timing")).isNull();
+    }
+
+    @Test
+    void statementsSentThroughJdbcTemplateAreCounted() {
+        RequestTrace trace = RequestTrace.start();
+        try {
+            jdbcTemplate.queryForObject("SELECT count(*) FROM posts", Long.class);
+            jdbcTemplate.execute("SELECT 1");
+            jdbcTemplate.batchUpdate("UPDATE posts SET view_count = view_count WHERE id = ?",
+                    List.of(new Object[] {postId}, new Object[] {postId}));
+        } finally {
+            RequestTrace.clear();
+        }
+        assertThat(trace.getSqlStatements()).isEqualTo(3);
+    }
+
+    private User user(User.Role role) {
+        User user = new User();
+        user.setUsername("timing-" + UUID.randomUUID().toString().substring(0, 8));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("hash");
+        user.setRole(role);
+        user.setIsBanned(false);
+        return userRepository.save(user);
+    }
+}